@@ -0,0 +1,47 @@
+package tictactoe.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the usual JMH command line, adding the GC profiler unless another
+ * profiler is chosen, so every run reports the allocation rate and bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}) next to the time. For example:
+ *
+ * <pre>
+ *   mvn -B package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar                  # everything
+ *   java -jar benchmarks/target/benchmarks.jar ModelBenchmark   # one class
+ *   java -jar benchmarks/target/benchmarks.jar -p implementation=BitboardTicTacToe
+ * </pre>
+ */
+public class BenchmarkMain {
+  /**
+   * Run the benchmarks selected by the command line.
+   *
+   * @param args JMH command-line arguments.
+   * @throws CommandLineOptionException if the arguments are not valid.
+   * @throws RunnerException if a benchmark fails.
+   * @throws IOException if listing the benchmarks fails.
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException,
+      IOException {
+    CommandLineOptions options = new CommandLineOptions(args);
+    if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+        || options.shouldListProfilers() || options.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+    if (options.getProfilers().isEmpty()) {
+      builder.addProfiler(GCProfiler.class);
+    }
+    new Runner(builder.build()).run();
+  }
+}
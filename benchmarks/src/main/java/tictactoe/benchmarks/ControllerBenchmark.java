@@ -0,0 +1,77 @@
+package tictactoe.benchmarks;
+
+import java.io.StringReader;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.ControllerMetrics;
+import tictactoe.Player;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Whole games through {@link TicTacToeConsoleController}, reading a scripted
+ * {@link StringReader} and writing to a reused {@link StringBuilder}, so the numbers cover
+ * tokenizing, validation, the model and the board text together. Each script plays to the end
+ * of a game. With metrics on, the controller also records into a shared
+ * {@link ControllerMetrics}, which shows what the instrumentation costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+  @Param({"draw", "win", "invalid", "undo"})
+  public String script;
+
+  @Param({"false", "true"})
+  public boolean quiet;
+
+  @Param({"false", "true"})
+  public boolean metrics;
+
+  private String input;
+  private ControllerMetrics recorder;
+  private StringBuilder out;
+
+  @Setup
+  public void setUp() {
+    switch (this.script) {
+      case "win":
+        this.input = "1 1 2 1 1 2 2 2 1 3\n";
+        break;
+      case "invalid":
+        // bad numbers, a move off the board and an occupied cell between the real moves
+        this.input = "a 2 2 9 9 1 1 2 2 x 1 2 0 3 2 1 3 3 3 1 1 3\n";
+        break;
+      case "undo":
+        this.input = "2 2 1 1 u u 2 2 1 1 3 3 u 1 3 3 1 u 3 3 3 1 2 1 1 2 2 3 3 2 1 3\n";
+        break;
+      default:
+        this.input = "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 3 2\n";
+        break;
+    }
+    this.out = new StringBuilder(4096);
+    this.recorder = this.metrics ? new ControllerMetrics() : null;
+  }
+
+  @Benchmark
+  public StringBuilder playGame() {
+    this.out.setLength(0);
+    new TicTacToeConsoleController(new StringReader(this.input), this.out, null,
+        EnumSet.noneOf(Player.class), this.quiet, this.recorder).playGame(new TicTacToeModel());
+    return this.out;
+  }
+}
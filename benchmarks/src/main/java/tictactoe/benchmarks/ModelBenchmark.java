@@ -0,0 +1,116 @@
+package tictactoe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tictactoe.AtomicTicTacToe;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * The model operations a controller or view calls on every move, for each three-by-three
+ * implementation of {@link TicTacToe}. The read benchmarks use a game four moves in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+  /**
+   * The cells of a drawn game, which fills the board without ending early.
+   */
+  private static final int[] DRAW = {4, 0, 8, 1, 2, 5, 3, 6, 7};
+
+  @Param({"TicTacToeModel", "BitboardTicTacToe", "MnkTicTacToe", "AtomicTicTacToe"})
+  public String implementation;
+
+  private TicTacToe game;
+
+  /**
+   * Create the game four moves in, with X to move.
+   */
+  @Setup
+  public void setUp() {
+    this.game = this.create();
+    for (int i = 0; i < 4; i++) {
+      this.game.move(DRAW[i] / 3, DRAW[i] % 3);
+    }
+  }
+
+  /**
+   * A new game played out to a draw: construction plus nine moves.
+   */
+  @Benchmark
+  public TicTacToe playOut() {
+    TicTacToe m = this.create();
+    for (int cell : DRAW) {
+      m.move(cell / 3, cell % 3);
+    }
+    return m;
+  }
+
+  /**
+   * One move and taking it back, so the same position is measured every time.
+   */
+  @Benchmark
+  public TicTacToe moveAndUndo() {
+    this.game.move(0, 2);
+    this.game.undo();
+    return this.game;
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return this.game.isGameOver();
+  }
+
+  @Benchmark
+  public Player[][] getBoard() {
+    return this.game.getBoard();
+  }
+
+  /**
+   * Every cell read one at a time, as a view without {@code forEachCell} would.
+   */
+  @Benchmark
+  public void getMarkAt(Blackhole bh) {
+    for (int r = 0; r < 3; r++) {
+      for (int c = 0; c < 3; c++) {
+        bh.consume(this.game.getMarkAt(r, c));
+      }
+    }
+  }
+
+  @Benchmark
+  public String toStringBoard() {
+    return this.game.toString();
+  }
+
+  private TicTacToe create() {
+    switch (this.implementation) {
+      case "BitboardTicTacToe":
+        return new BitboardTicTacToe();
+      case "MnkTicTacToe":
+        return new MnkTicTacToe(3, 3, 3);
+      case "AtomicTicTacToe":
+        return new AtomicTicTacToe();
+      default:
+        return new TicTacToeModel();
+    }
+  }
+}
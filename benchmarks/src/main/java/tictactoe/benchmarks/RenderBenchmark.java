@@ -0,0 +1,102 @@
+package tictactoe.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.BoardPainter;
+import tictactoe.BoardRenderer;
+import tictactoe.Player;
+
+/**
+ * Drawing a board after a move: the console text from {@link BoardRenderer}, and the Swing
+ * view's painting from {@link BoardPainter}, either just the changed cell or the whole board.
+ * Each benchmark changes one cell first, as a move does. Runs headless.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+  private static final int CELL_SIZE = 32;
+
+  @Param({"3", "19"})
+  public int size;
+
+  private BoardRenderer renderer;
+  private BoardPainter painter;
+  private Player[] marks;
+  private BufferedImage image;
+  private Graphics2D graphics;
+  private int move;
+
+  @Setup
+  public void setUp() {
+    this.renderer = new BoardRenderer(this.size, this.size);
+    this.painter = new BoardPainter(this.size, this.size, CELL_SIZE);
+    this.marks = new Player[this.size * this.size];
+    this.image = new BufferedImage(this.painter.getWidth(), this.painter.getHeight(),
+        BufferedImage.TYPE_INT_RGB);
+    this.graphics = this.image.createGraphics();
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.graphics.dispose();
+  }
+
+  /**
+   * Change one cell and produce the console text of the board.
+   */
+  @Benchmark
+  public String consoleText() {
+    int cell = this.nextCell();
+    this.renderer.set(cell / this.size, cell % this.size, this.marks[cell]);
+    return this.renderer.toString();
+  }
+
+  /**
+   * Change one cell and paint only that cell, as the Swing view does.
+   */
+  @Benchmark
+  public int paintChangedCell() {
+    int cell = this.nextCell();
+    this.graphics.setClip(this.painter.cellBounds(cell / this.size, cell % this.size));
+    return this.painter.paintCells(this.graphics, this.marks);
+  }
+
+  /**
+   * Change one cell and paint the whole board, as a view without dirty regions would.
+   */
+  @Benchmark
+  public int paintWholeBoard() {
+    this.nextCell();
+    this.graphics.setClip(null);
+    return this.painter.paintCells(this.graphics, this.marks);
+  }
+
+  /**
+   * Cycle through the cells, filling each with X, then O, then clearing it.
+   */
+  private int nextCell() {
+    int cell = this.move % this.marks.length;
+    int round = this.move / this.marks.length % 3;
+    this.marks[cell] = round == 0 ? Player.X : round == 1 ? Player.O : null;
+    // wrap after every cell has had all three marks, so long runs never overflow
+    this.move = (this.move + 1) % (3 * this.marks.length);
+    return cell;
+  }
+}
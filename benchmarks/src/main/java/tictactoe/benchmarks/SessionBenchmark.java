@@ -0,0 +1,145 @@
+package tictactoe.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.SessionHost;
+
+/**
+ * Measure the memory held by idle sessions of a {@link SessionHost}, on virtual threads and on
+ * platform threads. For each kind of thread, clients connect one by one and wait for the
+ * opening prompt, so every session ends up blocked reading its next move, and the growth in
+ * heap, resident memory and live threads is reported per session. The client sockets live in
+ * the same process, so both figures include them; the difference between the two rows is the
+ * cost of the threads.
+ *
+ * <p>Each session uses two file descriptors here, so the number of sessions held is capped by
+ * the process's open-file limit; raise it ({@code ulimit -n}) to hold the full count. When a
+ * limit is hit, the report covers the sessions that were opened. Run it from the benchmarks jar
+ * with {@code java -cp benchmarks/target/benchmarks.jar tictactoe.benchmarks.SessionBenchmark}.
+ */
+public class SessionBenchmark {
+  /**
+   * Run the benchmark and print the report.
+   *
+   * @param args optionally, the number of sessions (default 100000), then {@code virtual} or
+   *             {@code platform} to measure just one kind of thread.
+   */
+  public static void main(String[] args) {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    String only = args.length > 1 ? args[1] : "";
+
+    System.out.println("Idle session memory report");
+    System.out.println("virtual threads supported: " + SessionHost.isVirtualThreadSupported());
+    System.out.println(String.format("%10s %10s %10s %14s %14s %12s",
+        "threads", "sessions", "ms", "heap/session", "rss/session", "new threads"));
+    if (!"platform".equals(only)) {
+      if (SessionHost.isVirtualThreadSupported()) {
+        run(sessions, true);
+      } else {
+        System.out.println(String.format("%10s %s", "virtual", "not supported on "
+            + System.getProperty("java.version")));
+      }
+    }
+    if (!"virtual".equals(only)) {
+      run(sessions, false);
+    }
+  }
+
+  private static void run(int sessions, boolean virtual) {
+    SessionHost host = new SessionHost(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BitboardTicTacToe::new,
+        virtual);
+    Thread acceptor = new Thread(host, "acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    long heapBefore = usedHeap();
+    long rssBefore = residentBytes();
+    int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+    List<Socket> clients = new ArrayList<>(sessions);
+    long start = System.nanoTime();
+    try {
+      for (int i = 0; i < sessions; i++) {
+        Socket client = new Socket(InetAddress.getLoopbackAddress(), host.getPort());
+        clients.add(client);
+        client.setSoTimeout(10_000);
+        awaitPrompt(client.getInputStream());
+      }
+    } catch (IOException | OutOfMemoryError e) {
+      System.out.println("stopped after " + clients.size() + " sessions: " + e);
+    }
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    long heap = usedHeap() - heapBefore;
+    long rss = residentBytes() - rssBefore;
+    int threads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+    int held = Math.max(1, clients.size());
+
+    System.out.println(String.format("%10s %10d %10d %14s %14s %12d",
+        virtual ? "virtual" : "platform", clients.size(), millis, bytes(heap / held),
+        rssBefore < 0 ? "n/a" : bytes(rss / held), threads));
+
+    for (Socket client : clients) {
+      try {
+        client.close();
+      } catch (IOException ignored) {
+        // closing anyway
+      }
+    }
+    host.close();
+  }
+
+  /**
+   * Read until the end of the first prompt, so the session is waiting for a move. If the host
+   * cannot start another thread, the read times out.
+   */
+  private static void awaitPrompt(InputStream in) throws IOException {
+    int last = 0;
+    int b;
+    while ((b = in.read()) >= 0) {
+      if (b == '\n' && last == ':') {
+        return;
+      }
+      last = b;
+    }
+    throw new IOException("Session closed.");
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Return the resident set size of this process, or -1 where it cannot be read.
+   */
+  private static long residentBytes() {
+    Path status = Paths.get("/proc/self/status");
+    try {
+      for (String line : Files.readAllLines(status)) {
+        if (line.startsWith("VmRSS:")) {
+          return 1024 * Long.parseLong(line.replaceAll("[^0-9]", ""));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // not Linux
+    }
+    return -1;
+  }
+
+  private static String bytes(long count) {
+    return count < 10 * 1024 ? count + " B" : String.format("%.1f KB", count / 1024.0);
+  }
+}
@@ -0,0 +1,69 @@
+package tictactoe.benchmarks;
+
+import tictactoe.MnkTicTacToe;
+import tictactoe.TicTacToeSolver;
+
+/**
+ * Measure how the solver's parallel search scales with the number of threads. For each board,
+ * the opening position is solved with 1, 2, 4, ... threads up to the number of available
+ * processors, each with a fresh transposition table, and the best of several runs is reported
+ * as a table of threads against nodes per second. Run it from the benchmarks jar with
+ * {@code java -cp benchmarks/target/benchmarks.jar tictactoe.benchmarks.SolverBenchmark}.
+ */
+public class SolverBenchmark {
+  private static final int RUNS = 3;
+
+  /**
+   * Run the scaling benchmark and print the report.
+   *
+   * @param args optionally, the maximum number of threads to try.
+   */
+  public static void main(String[] args) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : cores;
+
+    System.out.println("Solver scaling report");
+    System.out.println("available processors: " + cores);
+    System.out.println();
+    run(4, 4, 4, Integer.MAX_VALUE, maxThreads);
+    run(5, 5, 4, 13, maxThreads);
+  }
+
+  private static void run(int rows, int columns, int winLength, int depth, int maxThreads) {
+    System.out.println(rows + "x" + columns + " k=" + winLength
+        + (depth == Integer.MAX_VALUE ? ", full solve" : ", depth " + depth));
+    System.out.println(String.format("%8s %12s %10s %14s %8s",
+        "threads", "nodes", "ms", "nodes/s", "speedup"));
+    long baseline = 0;
+    for (int threads = 1; threads <= maxThreads; threads = next(threads, maxThreads)) {
+      long bestNanos = Long.MAX_VALUE;
+      long nodes = 0;
+      for (int run = 0; run < RUNS; run++) {
+        try (TicTacToeSolver solver = new TicTacToeSolver(depth, 22, threads)) {
+          solver.bestMove(new MnkTicTacToe(rows, columns, winLength));
+          if (solver.getElapsedNanos() < bestNanos) {
+            bestNanos = solver.getElapsedNanos();
+            nodes = solver.getNodesSearched();
+          }
+        }
+      }
+      long nodesPerSecond = nodes * 1_000_000_000L / bestNanos;
+      if (threads == 1) {
+        baseline = nodesPerSecond;
+      }
+      System.out.println(String.format("%8d %12d %10d %14d %7.2fx", threads, nodes,
+          bestNanos / 1_000_000, nodesPerSecond, (double) nodesPerSecond / baseline));
+    }
+    System.out.println();
+  }
+
+  /**
+   * Double the thread count, but always include the maximum itself.
+   */
+  private static int next(int threads, int maxThreads) {
+    if (threads == maxThreads) {
+      return maxThreads + 1;
+    }
+    return Math.min(2 * threads, maxThreads);
+  }
+}
@@ -0,0 +1,472 @@
+package tictactoe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe game of Tic Tac Toe on a standard three-by-three grid whose entire state is one
+ * {@code long} held in an {@link AtomicLong}, so that any number of spectator threads can read
+ * a game, without locks, while players move. Every method that reads the game does a single
+ * volatile read, so it always sees a position that was actually played, never a torn mix of two;
+ * to read several properties of the same position, take a {@link #snapshot()}. Every method that
+ * changes the game computes the new state from the old and installs it with a compare-and-set,
+ * retrying if another thread got there first, so concurrent moves are applied one at a time and
+ * a move onto a cell that another thread has just taken fails as it would have sequentially.
+ *
+ * <p>The state packs, from the lowest bit: X's 9-bit mask, O's 9-bit mask (cell {@code (r, c)}
+ * is bit {@code 3 * r + c} of each), the move history at four bits per move, the length of the
+ * history including moves that can be redone, and the winner. Whose turn it is and the move
+ * count follow from the masks, and the Zobrist hash is recomputed from them when asked for.
+ */
+public class AtomicTicTacToe implements TicTacToe {
+  private static final int FULL = 0x1FF;
+  private static final long[] KEYS = Zobrist.keys(9);
+  private static final int O_SHIFT = 9;
+  private static final int HISTORY_SHIFT = 18;
+  private static final int LENGTH_SHIFT = 54;
+  private static final int WINNER_SHIFT = 58;
+  private static final long LENGTH_BITS = 0xFL << LENGTH_SHIFT;
+
+  /**
+   * The eight winning lines: three rows, three columns and the two diagonals.
+   */
+  private static final int[] LINES = {
+    0x007, 0x038, 0x1C0,
+    0x049, 0x092, 0x124,
+    0x111, 0x054
+  };
+
+  private final AtomicLong state;
+  private final ListenerList listeners;
+
+  /**
+   * Constructor to create a new Tic Tac Toe game with an empty board, X to move and no winner.
+   */
+  public AtomicTicTacToe() {
+    this.state = new AtomicLong();
+    this.listeners = new ListenerList();
+  }
+
+  /**
+   * An immutable copy of one position of an {@link AtomicTicTacToe}, for reading several of its
+   * properties consistently. Methods that would change the game throw
+   * {@link IllegalStateException}.
+   */
+  public static final class Snapshot implements TicTacToe {
+    private final long state;
+    private String text;
+
+    private Snapshot(long state) {
+      this.state = state;
+    }
+
+    /**
+     * Always fails, since a snapshot cannot be changed.
+     *
+     * @throws IllegalStateException always.
+     */
+    @Override
+    public void move(int r, int c) throws IllegalStateException {
+      throw new IllegalStateException("A snapshot cannot be changed.");
+    }
+
+    @Override
+    public Player getTurn() {
+      return turn(this.state);
+    }
+
+    @Override
+    public boolean isGameOver() {
+      return gameOver(this.state);
+    }
+
+    @Override
+    public Player getWinner() {
+      return winner(this.state);
+    }
+
+    @Override
+    public Player[][] getBoard() {
+      return board(this.state);
+    }
+
+    @Override
+    public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+      return markAt(this.state, r, c);
+    }
+
+    @Override
+    public void forEachCell(CellVisitor visitor) {
+      visitCells(this.state, visitor);
+    }
+
+    @Override
+    public int getRows() {
+      return 3;
+    }
+
+    @Override
+    public int getColumns() {
+      return 3;
+    }
+
+    @Override
+    public int getWinLength() {
+      return 3;
+    }
+
+    @Override
+    public long getHash() {
+      return hash(this.state);
+    }
+
+    /**
+     * Always fails, since a snapshot cannot be changed.
+     *
+     * @throws IllegalStateException always.
+     */
+    @Override
+    public void undo() throws IllegalStateException {
+      throw new IllegalStateException("A snapshot cannot be changed.");
+    }
+
+    /**
+     * Always fails, since a snapshot cannot be changed.
+     *
+     * @throws IllegalStateException always.
+     */
+    @Override
+    public void redo() throws IllegalStateException {
+      throw new IllegalStateException("A snapshot cannot be changed.");
+    }
+
+    @Override
+    public int getMoveCount() {
+      return moveCount(this.state);
+    }
+
+    @Override
+    public int getMove(int index) throws IllegalArgumentException {
+      return moveAt(this.state, index);
+    }
+
+    /**
+     * Accept a listener, which is never called since a snapshot does not change.
+     *
+     * @param listener the listener.
+     * @throws IllegalArgumentException if listener is null.
+     */
+    @Override
+    public void addListener(TicTacToeListener listener) throws IllegalArgumentException {
+      if (listener == null) {
+        throw new IllegalArgumentException("Listener cannot be null.");
+      }
+    }
+
+    @Override
+    public void removeListener(TicTacToeListener listener) {
+      // never registered
+    }
+
+    /**
+     * Return the packed state this snapshot was taken from.
+     *
+     * @return the state
+     */
+    public long getState() {
+      return this.state;
+    }
+
+    @Override
+    public String toString() {
+      // a race here only renders the same text twice
+      if (this.text == null) {
+        this.text = render(this.state);
+      }
+      return this.text;
+    }
+  }
+
+  /**
+   * Return an immutable copy of the current position, taken with a single volatile read.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this.state.get());
+  }
+
+  /**
+   * Return the packed state of the game, as described in the class documentation.
+   *
+   * @return the state
+   */
+  public long getState() {
+    return this.state.get();
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    long current;
+    long next;
+    do {
+      current = this.state.get();
+      if (gameOver(current)) {
+        throw new IllegalStateException("The game is over!");
+      }
+      if (checkOutOfBounds(r, c)) {
+        throw new IllegalArgumentException("Chosen position is out of bounds.");
+      }
+      int cell = 3 * r + c;
+      if (((occupied(current) >>> cell) & 1) != 0) {
+        throw new IllegalArgumentException("The chosen position is occupied.");
+      }
+      next = play(current, cell);
+      next = (next & ~LENGTH_BITS) | ((long) moveCount(next) << LENGTH_SHIFT);
+    } while (!this.state.compareAndSet(current, next));
+    this.fireMove(current, next);
+  }
+
+  @Override
+  public Player getTurn() {
+    return turn(this.state.get());
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return gameOver(this.state.get());
+  }
+
+  @Override
+  public Player getWinner() {
+    return winner(this.state.get());
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    return board(this.state.get());
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    return markAt(this.state.get(), r, c);
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    visitCells(this.state.get(), visitor);
+  }
+
+  @Override
+  public int getRows() {
+    return 3;
+  }
+
+  @Override
+  public int getColumns() {
+    return 3;
+  }
+
+  @Override
+  public int getWinLength() {
+    return 3;
+  }
+
+  @Override
+  public long getHash() {
+    return hash(this.state.get());
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    long current;
+    long next;
+    do {
+      current = this.state.get();
+      int count = moveCount(current);
+      if (count == 0) {
+        throw new IllegalStateException("No moves to undo.");
+      }
+      long bit = 1L << historyAt(current, count - 1);
+      next = current & ~(bit | bit << O_SHIFT) & ~(3L << WINNER_SHIFT);
+    } while (!this.state.compareAndSet(current, next));
+    int cell = historyAt(current, moveCount(next));
+    this.listeners.fireUndo(cell / 3, cell % 3, turn(next));
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    long current;
+    long next;
+    do {
+      current = this.state.get();
+      int count = moveCount(current);
+      if (count == historyLength(current)) {
+        throw new IllegalStateException("No moves to redo.");
+      }
+      next = play(current, historyAt(current, count));
+    } while (!this.state.compareAndSet(current, next));
+    this.fireMove(current, next);
+  }
+
+  @Override
+  public int getMoveCount() {
+    return moveCount(this.state.get());
+  }
+
+  @Override
+  public int getMove(int index) throws IllegalArgumentException {
+    return moveAt(this.state.get(), index);
+  }
+
+  /**
+   * {@inheritDoc} Events are fired by the thread that made the change, after installing it, so
+   * when several threads change the game at once a listener may receive their events in a
+   * different order than the changes were made; read a {@link #snapshot()} for the latest
+   * position.
+   */
+  @Override
+  public void addListener(TicTacToeListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  @Override
+  public String toString() {
+    return render(this.state.get());
+  }
+
+  /**
+   * Notify the listeners of the move that changed the state from one value to the other.
+   */
+  private void fireMove(long before, long after) {
+    int cell = historyAt(after, moveCount(before));
+    this.listeners.fireMove(cell / 3, cell % 3, turn(before), gameOver(after), winner(after));
+  }
+
+  /**
+   * Return the state after the player to move marks the given empty cell, with the cell
+   * recorded as the next move in the history and the history length left unchanged.
+   */
+  private static long play(long s, int cell) {
+    int count = moveCount(s);
+    boolean x = (count & 1) == 0;
+    long next = s | (1L << (x ? cell : cell + O_SHIFT));
+    int shift = HISTORY_SHIFT + 4 * count;
+    next = (next & ~(0xFL << shift)) | ((long) cell << shift);
+    int mask = x ? xMask(next) : oMask(next);
+    for (int line : LINES) {
+      if ((mask & line) == line) {
+        return next | ((x ? 1L : 2L) << WINNER_SHIFT);
+      }
+    }
+    return next;
+  }
+
+  private static int xMask(long s) {
+    return (int) s & FULL;
+  }
+
+  private static int oMask(long s) {
+    return (int) (s >>> O_SHIFT) & FULL;
+  }
+
+  private static int occupied(long s) {
+    return xMask(s) | oMask(s);
+  }
+
+  private static int moveCount(long s) {
+    return Integer.bitCount(occupied(s));
+  }
+
+  private static int historyLength(long s) {
+    return (int) (s >>> LENGTH_SHIFT) & 0xF;
+  }
+
+  private static int historyAt(long s, int index) {
+    return (int) (s >>> (HISTORY_SHIFT + 4 * index)) & 0xF;
+  }
+
+  private static Player turn(long s) {
+    return (moveCount(s) & 1) == 0 ? Player.X : Player.O;
+  }
+
+  private static Player winner(long s) {
+    switch ((int) (s >>> WINNER_SHIFT) & 3) {
+      case 1:
+        return Player.X;
+      case 2:
+        return Player.O;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean gameOver(long s) {
+    return ((s >>> WINNER_SHIFT) & 3) != 0 || occupied(s) == FULL;
+  }
+
+  private static Player markAt(long s, int cell) {
+    if (((xMask(s) >>> cell) & 1) != 0) {
+      return Player.X;
+    }
+    if (((oMask(s) >>> cell) & 1) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  private static Player markAt(long s, int r, int c) throws IllegalArgumentException {
+    if (checkOutOfBounds(r, c)) {
+      throw new IllegalArgumentException("Invalid row or column.");
+    }
+    return markAt(s, 3 * r + c);
+  }
+
+  private static Player[][] board(long s) {
+    Player[][] board = new Player[3][3];
+    for (int cell = 0; cell < 9; cell++) {
+      board[cell / 3][cell % 3] = markAt(s, cell);
+    }
+    return board;
+  }
+
+  private static void visitCells(long s, CellVisitor visitor) {
+    for (int cell = 0; cell < 9; cell++) {
+      visitor.visit(cell / 3, cell % 3, markAt(s, cell));
+    }
+  }
+
+  private static int moveAt(long s, int index) throws IllegalArgumentException {
+    if (index < 0 || index >= moveCount(s)) {
+      throw new IllegalArgumentException("No such move.");
+    }
+    return historyAt(s, index);
+  }
+
+  private static long hash(long s) {
+    long hash = 0;
+    for (int bits = xMask(s); bits != 0; bits &= bits - 1) {
+      hash ^= KEYS[2 * Integer.numberOfTrailingZeros(bits)];
+    }
+    for (int bits = oMask(s); bits != 0; bits &= bits - 1) {
+      hash ^= KEYS[2 * Integer.numberOfTrailingZeros(bits) + 1];
+    }
+    return (moveCount(s) & 1) == 0 ? hash : hash ^ Zobrist.SIDE;
+  }
+
+  private static String render(long s) {
+    BoardRenderer renderer = new BoardRenderer(3, 3);
+    for (int cell = 0; cell < 9; cell++) {
+      renderer.set(cell / 3, cell % 3, markAt(s, cell));
+    }
+    return renderer.toString();
+  }
+
+  private static boolean checkOutOfBounds(int row, int col) {
+    return row < 0 || row >= 3 || col < 0 || col >= 3;
+  }
+}
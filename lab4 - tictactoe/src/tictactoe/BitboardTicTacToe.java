@@ -0,0 +1,308 @@
+package tictactoe;
+
+/**
+ * This class represents a single game of Tic Tac Toe on a standard three-by-three grid, storing
+ * each player's marks as a 9-bit mask rather than a 2D array of {@link Player}. Cell
+ * {@code (r, c)} is bit {@code 3 * r + c}. A win is detected by AND-ing the mover's mask against
+ * the precomputed lines through the placed cell, and a full board by a single compare, so
+ * {@link #move(int, int)} neither scans the board nor allocates. The move history is packed
+ * into a single {@code long}, four bits per move, so {@link #undo()} and {@link #redo()} are
+ * allocation-free as well and one instance can be searched with make and unmake.
+ */
+public class BitboardTicTacToe implements TicTacToe {
+  private static final int FULL = 0x1FF;
+  private static final long[] KEYS = Zobrist.keys(9);
+
+  /**
+   * The eight winning lines: three rows, three columns and the two diagonals.
+   */
+  private static final int[] LINES = {
+    0x007, 0x038, 0x1C0,
+    0x049, 0x092, 0x124,
+    0x111, 0x054
+  };
+
+  /**
+   * For every cell, the winning lines that pass through it.
+   */
+  private static final int[][] LINES_THROUGH = new int[9][];
+
+  static {
+    for (int cell = 0; cell < 9; cell++) {
+      int count = 0;
+      for (int line : LINES) {
+        if ((line & (1 << cell)) != 0) {
+          count++;
+        }
+      }
+      LINES_THROUGH[cell] = new int[count];
+      count = 0;
+      for (int line : LINES) {
+        if ((line & (1 << cell)) != 0) {
+          LINES_THROUGH[cell][count++] = line;
+        }
+      }
+    }
+  }
+
+  private final BoardRenderer renderer;
+  private final ListenerList listeners;
+  private int xMask;
+  private int oMask;
+  private long history;
+  private int moveCount;
+  private int historyLength;
+  private Player turn;
+  private Player winner;
+  private boolean gameOver;
+  private long hash;
+
+  /**
+   * Constructor to create a new Tic Tac Toe game with an empty board, X to move and no winner.
+   */
+  public BitboardTicTacToe() {
+    this.turn = Player.X;
+    this.winner = null;
+    this.gameOver = false;
+    this.renderer = new BoardRenderer(3, 3);
+    this.listeners = new ListenerList();
+  }
+
+  @Override
+  public void move(int r, int c) {
+    if (this.gameOver) {
+      throw new IllegalStateException("The game is over!");
+    }
+    if (this.checkOutOfBounds(r, c)) {
+      throw new IllegalArgumentException("Chosen position is out of bounds.");
+    }
+    int cell = 3 * r + c;
+    int bit = 1 << cell;
+    if (((this.xMask | this.oMask) & bit) != 0) {
+      throw new IllegalArgumentException("The chosen position is occupied.");
+    }
+
+    this.hash ^= KEYS[2 * cell + this.turn.ordinal()] ^ Zobrist.SIDE;
+    int mask;
+    if (this.turn == Player.X) {
+      mask = this.xMask |= bit;
+    } else {
+      mask = this.oMask |= bit;
+    }
+    this.renderer.set(r, c, this.turn);
+    this.history = (this.history & ~(0xFL << (4 * this.moveCount)))
+        | ((long) cell << (4 * this.moveCount));
+    this.moveCount++;
+    this.historyLength = this.moveCount;
+
+    for (int line : LINES_THROUGH[cell]) {
+      if ((mask & line) == line) {
+        this.winner = this.turn;
+        this.gameOver = true;
+      }
+    }
+    if ((this.xMask | this.oMask) == FULL) {
+      this.gameOver = true;
+    }
+
+    this.turn = this.turn == Player.X ? Player.O : Player.X;
+    this.listeners.fireMove(r, c, this.markAt(cell), this.gameOver, this.winner);
+  }
+
+  @Override
+  public Player getTurn() {
+    return this.turn;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.gameOver;
+  }
+
+  @Override
+  public Player getWinner() {
+    return this.winner;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] board = new Player[3][3];
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        board[row][col] = this.markAt(3 * row + col);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    if (this.checkOutOfBounds(r, c)) {
+      throw new IllegalArgumentException("Invalid row or column.");
+    }
+    return this.markAt(3 * r + c);
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    for (int cell = 0; cell < 9; cell++) {
+      visitor.visit(cell / 3, cell % 3, this.markAt(cell));
+    }
+  }
+
+  @Override
+  public int getRows() {
+    return 3;
+  }
+
+  @Override
+  public int getColumns() {
+    return 3;
+  }
+
+  @Override
+  public int getWinLength() {
+    return 3;
+  }
+
+  @Override
+  public long getHash() {
+    return this.hash;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("No moves to undo.");
+    }
+    this.moveCount--;
+    int cell = (int) (this.history >>> (4 * this.moveCount)) & 0xF;
+    int bit = 1 << cell;
+    Player p = (this.xMask & bit) != 0 ? Player.X : Player.O;
+    this.xMask &= ~bit;
+    this.oMask &= ~bit;
+    this.renderer.set(cell / 3, cell % 3, null);
+    this.hash ^= KEYS[2 * cell + p.ordinal()] ^ Zobrist.SIDE;
+    this.turn = p;
+    this.winner = null;
+    this.gameOver = false;
+    this.listeners.fireUndo(cell / 3, cell % 3, p);
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historyLength) {
+      throw new IllegalStateException("No moves to redo.");
+    }
+    int length = this.historyLength;
+    int cell = (int) (this.history >>> (4 * this.moveCount)) & 0xF;
+    this.move(cell / 3, cell % 3);
+    this.historyLength = length;
+  }
+
+  @Override
+  public int getMoveCount() {
+    return this.moveCount;
+  }
+
+  @Override
+  public int getMove(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= this.moveCount) {
+      throw new IllegalArgumentException("No such move.");
+    }
+    return (int) (this.history >>> (4 * index)) & 0xF;
+  }
+
+  /**
+   * Return the move history packed four bits per move, the first move in the lowest bits. Only
+   * the lowest {@code 4 * getMoveCount()} bits are meaningful.
+   *
+   * @return the packed history
+   */
+  public long getHistory() {
+    return this.history;
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  @Override
+  public String toString() {
+    return this.renderer.toString();
+  }
+
+  /**
+   * Clear the board and start a new game with X to move, so one instance can be reused for many
+   * games without allocating. Listeners see the moves taken back one at a time.
+   */
+  public void reset() {
+    if (!this.listeners.isEmpty()) {
+      while (this.moveCount > 0) {
+        this.undo();
+      }
+    }
+    this.xMask = 0;
+    this.oMask = 0;
+    this.history = 0;
+    this.moveCount = 0;
+    this.historyLength = 0;
+    this.turn = Player.X;
+    this.winner = null;
+    this.gameOver = false;
+    this.hash = 0;
+    this.renderer.clear();
+  }
+
+  /**
+   * Return the mask of cells marked by X. Cell {@code (r, c)} is bit {@code 3 * r + c}.
+   *
+   * @return the 9-bit mask of X's marks
+   */
+  public int getXMask() {
+    return this.xMask;
+  }
+
+  /**
+   * Return the mask of cells marked by O. Cell {@code (r, c)} is bit {@code 3 * r + c}.
+   *
+   * @return the 9-bit mask of O's marks
+   */
+  public int getOMask() {
+    return this.oMask;
+  }
+
+  /**
+   * Returns the mark in the given cell index, without bounds checking.
+   *
+   * @param cell the cell index, {@code 3 * row + col}.
+   * @return the player in that cell, or null if it is empty.
+   */
+  private Player markAt(int cell) {
+    int bit = 1 << cell;
+    if ((this.xMask & bit) != 0) {
+      return Player.X;
+    }
+    if ((this.oMask & bit) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Checks if the given row and column are outside the bounds of the Tic Tac Toe game board.
+   *
+   * @param row the row to check.
+   * @param col the column to check.
+   * @return true if the given row and column are out of bounds, false otherwise.
+   */
+  private boolean checkOutOfBounds(int row, int col) {
+    return row < 0 || row >= 3 || col < 0 || col >= 3;
+  }
+}
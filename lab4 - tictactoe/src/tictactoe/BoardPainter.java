@@ -0,0 +1,203 @@
+package tictactoe;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws a Tic Tac Toe board of square cells with plain Java 2D, independently of any window, so
+ * the same code draws {@link SwingTicTacToeView} and renders boards to images in headless tests.
+ * Each player's mark is drawn once, antialiased, into an image the size of a cell, and after that
+ * painting a mark is a single image copy. Every cell draws its own background and border, so any
+ * cell can be repainted on its own, and {@link #paintCells(Graphics2D, Player[])} only paints the
+ * cells that meet the clip, which lets a view repaint just the cell a move changed.
+ */
+public class BoardPainter {
+  private static final Color BACKGROUND = Color.WHITE;
+  private static final Color GRID = new Color(0x9E9E9E);
+  private static final Color X_COLOR = new Color(0x1565C0);
+  private static final Color O_COLOR = new Color(0xC62828);
+
+  private final int rows;
+  private final int columns;
+  private final int cellSize;
+  private final BufferedImage xImage;
+  private final BufferedImage oImage;
+
+  /**
+   * Constructor for a painter of boards of the given size.
+   *
+   * @param rows     the number of rows.
+   * @param columns  the number of columns.
+   * @param cellSize the width and height of a cell in pixels.
+   * @throws IllegalArgumentException if any argument is not positive.
+   */
+  public BoardPainter(int rows, int columns, int cellSize) throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0 || cellSize <= 0) {
+      throw new IllegalArgumentException("Board dimensions must be positive.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.cellSize = cellSize;
+    this.xImage = this.drawMark(Player.X);
+    this.oImage = this.drawMark(Player.O);
+  }
+
+  /**
+   * Return the width of the board in pixels.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return this.columns * this.cellSize;
+  }
+
+  /**
+   * Return the height of the board in pixels.
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return this.rows * this.cellSize;
+  }
+
+  /**
+   * Return the area covered by a cell.
+   *
+   * @param r the row of the cell.
+   * @param c the column of the cell.
+   * @return a new rectangle holding the cell's bounds
+   */
+  public Rectangle cellBounds(int r, int c) {
+    return new Rectangle(c * this.cellSize, r * this.cellSize, this.cellSize, this.cellSize);
+  }
+
+  /**
+   * Return the cell under a point.
+   *
+   * @param x the x coordinate in pixels.
+   * @param y the y coordinate in pixels.
+   * @return the cell index {@code row * columns + column}, or -1 if the point is off the board
+   */
+  public int cellAt(int x, int y) {
+    if (x < 0 || y < 0 || x >= this.getWidth() || y >= this.getHeight()) {
+      return -1;
+    }
+    return (y / this.cellSize) * this.columns + x / this.cellSize;
+  }
+
+  /**
+   * Return the cached image of a player's mark, the size of one cell with a transparent
+   * background.
+   *
+   * @param player the player.
+   * @return the image, the same instance on every call
+   */
+  public BufferedImage getMarkImage(Player player) {
+    return player == Player.X ? this.xImage : this.oImage;
+  }
+
+  /**
+   * Paint every cell that meets the clip of the graphics context, or every cell if it has no
+   * clip.
+   *
+   * @param g     the graphics context, in board coordinates.
+   * @param marks the mark in each cell, indexed by {@code row * columns + column}.
+   * @return the number of cells painted
+   */
+  public int paintCells(Graphics2D g, Player[] marks) {
+    Rectangle clip = g.getClipBounds();
+    int firstRow = 0;
+    int lastRow = this.rows - 1;
+    int firstColumn = 0;
+    int lastColumn = this.columns - 1;
+    if (clip != null) {
+      firstRow = Math.max(firstRow, clip.y / this.cellSize);
+      lastRow = Math.min(lastRow, (clip.y + clip.height - 1) / this.cellSize);
+      firstColumn = Math.max(firstColumn, clip.x / this.cellSize);
+      lastColumn = Math.min(lastColumn, (clip.x + clip.width - 1) / this.cellSize);
+    }
+    int painted = 0;
+    for (int r = firstRow; r <= lastRow; r++) {
+      for (int c = firstColumn; c <= lastColumn; c++) {
+        this.paintCell(g, r, c, marks[r * this.columns + c]);
+        painted++;
+      }
+    }
+    return painted;
+  }
+
+  /**
+   * Paint one cell: its background, its border and its mark, if any.
+   *
+   * @param g    the graphics context, in board coordinates.
+   * @param r    the row of the cell.
+   * @param c    the column of the cell.
+   * @param mark the mark in the cell, or null if it is empty.
+   */
+  public void paintCell(Graphics2D g, int r, int c, Player mark) {
+    int x = c * this.cellSize;
+    int y = r * this.cellSize;
+    g.setColor(BACKGROUND);
+    g.fillRect(x, y, this.cellSize, this.cellSize);
+    g.setColor(GRID);
+    g.drawRect(x, y, this.cellSize - 1, this.cellSize - 1);
+    if (mark != null) {
+      g.drawImage(this.getMarkImage(mark), x, y, null);
+    }
+  }
+
+  /**
+   * Render the whole board of a game to a new image.
+   *
+   * @param m the game.
+   * @return an image of the board, {@link #getWidth()} by {@link #getHeight()} pixels
+   * @throws IllegalArgumentException if the game's board is not the size of this painter's.
+   */
+  public BufferedImage render(TicTacToe m) throws IllegalArgumentException {
+    if (m.getRows() != this.rows || m.getColumns() != this.columns) {
+      throw new IllegalArgumentException("Board size does not match.");
+    }
+    Player[] marks = new Player[this.rows * this.columns];
+    m.forEachCell((r, c, mark) -> marks[r * this.columns + c] = mark);
+    BufferedImage image = new BufferedImage(this.getWidth(), this.getHeight(),
+        BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      this.paintCells(g, marks);
+    } finally {
+      g.dispose();
+    }
+    return image;
+  }
+
+  /**
+   * Draw a player's mark into a new transparent image the size of a cell.
+   */
+  private BufferedImage drawMark(Player player) {
+    int size = this.cellSize;
+    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setStroke(new BasicStroke(Math.max(1f, size / 10f), BasicStroke.CAP_ROUND,
+          BasicStroke.JOIN_ROUND));
+      int inset = size / 5;
+      int far = size - inset - 1;
+      if (player == Player.X) {
+        g.setColor(X_COLOR);
+        g.drawLine(inset, inset, far, far);
+        g.drawLine(inset, far, far, inset);
+      } else {
+        g.setColor(O_COLOR);
+        g.drawOval(inset, inset, far - inset, far - inset);
+      }
+    } finally {
+      g.dispose();
+    }
+    return image;
+  }
+}
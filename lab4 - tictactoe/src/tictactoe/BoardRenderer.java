@@ -0,0 +1,109 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The text rendering of a Tic Tac Toe board, as produced by the models' {@code toString()}:
+ * each row is the cells' marks separated by {@code " | "}, and rows are separated by a line of
+ * dashes. The text is kept in a pre-sized character buffer in which a move overwrites a single
+ * character, and the {@link String} built from it is cached until the board next changes, so
+ * repeated rendering of an unchanged board costs nothing and a change costs one copy.
+ */
+public class BoardRenderer {
+  private final int rows;
+  private final int columns;
+  private final int rowStride;
+  private final char[] text;
+  private String cached;
+
+  /**
+   * Constructor for the rendering of an empty board with the given dimensions.
+   *
+   * @param rows    the number of rows.
+   * @param columns the number of columns.
+   * @throws IllegalArgumentException if either dimension is not positive.
+   */
+  public BoardRenderer(int rows, int columns) throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Board dimensions must be positive.");
+    }
+    int rowLength = 4 * columns - 2;
+    this.rows = rows;
+    this.columns = columns;
+    this.rowStride = 2 * rowLength + 3;
+    this.text = new char[rows * this.rowStride - rowLength - 3];
+    Arrays.fill(this.text, ' ');
+    for (int row = 0; row < rows; row++) {
+      int start = row * this.rowStride;
+      for (int col = 1; col < columns; col++) {
+        this.text[start + 4 * col - 1] = '|';
+      }
+      if (row < rows - 1) {
+        this.text[start + rowLength] = '\n';
+        Arrays.fill(this.text, start + rowLength + 1, start + 2 * rowLength + 2, '-');
+        this.text[start + 2 * rowLength + 2] = '\n';
+      }
+    }
+  }
+
+  /**
+   * Update the mark shown in one cell.
+   *
+   * @param r    the row of the cell.
+   * @param c    the column of the cell.
+   * @param mark the player now in the cell, or null if it is empty.
+   */
+  public void set(int r, int c, Player mark) {
+    this.text[r * this.rowStride + 4 * c + 1] = mark == null ? ' ' : mark.toString().charAt(0);
+    this.cached = null;
+  }
+
+  /**
+   * Show every cell as empty.
+   */
+  public void clear() {
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.columns; col++) {
+        this.text[row * this.rowStride + 4 * col + 1] = ' ';
+      }
+    }
+    this.cached = null;
+  }
+
+  /**
+   * Redraw every cell from the given game.
+   *
+   * @param m a game with the dimensions of this rendering.
+   */
+  public void render(TicTacToe m) {
+    m.forEachCell(this::set);
+  }
+
+  /**
+   * Write the rendered board to an Appendable.
+   *
+   * @param out the destination.
+   * @throws IOException if writing fails.
+   */
+  public void appendTo(Appendable out) throws IOException {
+    out.append(this.toString());
+  }
+
+  /**
+   * Return the number of characters in the rendered board.
+   *
+   * @return the length of the text
+   */
+  public int length() {
+    return this.text.length;
+  }
+
+  @Override
+  public String toString() {
+    if (this.cached == null) {
+      this.cached = new String(this.text);
+    }
+    return this.cached;
+  }
+}
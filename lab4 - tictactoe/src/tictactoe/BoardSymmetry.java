@@ -0,0 +1,246 @@
+package tictactoe;
+
+/**
+ * The symmetries of a board of a given shape: the eight rotations and reflections of a square
+ * board, or the four (identity, half turn and the two mirror flips) of a rectangular one. Since
+ * a win is a run in any of the four line directions, symmetric positions have the same value,
+ * and a cache keyed on a position's canonical key stores each family of equivalent positions
+ * once.
+ *
+ * <p>A canonical key is the smallest key of a position over all its transforms. Boards of up to
+ * 36 cells use the exact base-3 encoding of the board, shifted left by three bits; larger boards
+ * use a 64-bit Zobrist hash with the low three bits cleared. The low three bits of a value
+ * returned by {@link #canonicalize(TicTacToe)} hold the transform that produced the canonical
+ * form, which is needed to map cached moves back onto the original board.
+ */
+public final class BoardSymmetry {
+  private static final int EXACT_LIMIT = 36;
+
+  private final int rows;
+  private final int columns;
+  private final int[][] forward;
+  private final int[][] inverse;
+  private final long[] weights;
+
+  /**
+   * Constructor for the symmetries of a board with the given shape.
+   *
+   * @param rows    the number of rows.
+   * @param columns the number of columns.
+   * @throws IllegalArgumentException if either dimension is not positive.
+   */
+  public BoardSymmetry(int rows, int columns) throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Board dimensions must be positive.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    int count = rows == columns ? 8 : 4;
+    int cells = rows * columns;
+    this.forward = new int[count][cells];
+    this.inverse = new int[count][cells];
+    for (int t = 0; t < count; t++) {
+      for (int cell = 0; cell < cells; cell++) {
+        int image = this.transform(t, cell / columns, cell % columns);
+        this.forward[t][cell] = image;
+        this.inverse[t][image] = cell;
+      }
+    }
+
+    this.weights = new long[2 * cells];
+    if (cells <= EXACT_LIMIT) {
+      long pow = 1;
+      for (int cell = 0; cell < cells; cell++) {
+        this.weights[2 * cell] = pow;
+        this.weights[2 * cell + 1] = 2 * pow;
+        pow *= 3;
+      }
+    } else {
+      System.arraycopy(Zobrist.keys(cells), 0, this.weights, 0, this.weights.length);
+    }
+  }
+
+  /**
+   * Return the number of symmetries of this board shape.
+   *
+   * @return 8 for a square board, 4 otherwise
+   */
+  public int size() {
+    return this.forward.length;
+  }
+
+  /**
+   * Return where a cell ends up under a transform.
+   *
+   * @param t    the transform, from 0 to {@code size() - 1}; 0 is the identity.
+   * @param cell the cell index, {@code row * columns + col}.
+   * @return the cell index in the transformed board
+   */
+  public int apply(int t, int cell) {
+    return this.forward[t][cell];
+  }
+
+  /**
+   * Return which cell of the original board ends up at a cell of the transformed board.
+   *
+   * @param t    the transform, from 0 to {@code size() - 1}; 0 is the identity.
+   * @param cell the cell index in the transformed board.
+   * @return the cell index in the original board
+   */
+  public int invert(int t, int cell) {
+    return this.inverse[t][cell];
+  }
+
+  /**
+   * Return the canonical key of a game's board together with the transform that produces it.
+   *
+   * @param m a game whose board has this shape.
+   * @return the canonical key, with the transform in the low three bits
+   * @throws IllegalArgumentException if the board has a different shape.
+   */
+  public long canonicalize(TicTacToe m) throws IllegalArgumentException {
+    if (m.getRows() != this.rows || m.getColumns() != this.columns) {
+      throw new IllegalArgumentException("Board shape does not match.");
+    }
+    long best = -1L;
+    for (int t = 0; t < this.forward.length; t++) {
+      long key = 0;
+      for (int r = 0; r < this.rows; r++) {
+        for (int c = 0; c < this.columns; c++) {
+          Player p = m.getMarkAt(r, c);
+          if (p != null) {
+            key = this.combine(key, this.forward[t][r * this.columns + c], p.ordinal());
+          }
+        }
+      }
+      long packed = this.pack(key, t);
+      if (Long.compareUnsigned(packed, best) < 0) {
+        best = packed;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Return the canonical key of a game's board, which is the same for all positions that are
+   * rotations or reflections of each other.
+   *
+   * @param m a game whose board has this shape.
+   * @return the canonical key
+   * @throws IllegalArgumentException if the board has a different shape.
+   */
+  public long canonicalKey(TicTacToe m) throws IllegalArgumentException {
+    return keyOf(this.canonicalize(m));
+  }
+
+  /**
+   * Return the key part of a value returned by {@link #canonicalize(TicTacToe)}.
+   *
+   * @param canonical the packed canonical key and transform.
+   * @return the canonical key
+   */
+  public static long keyOf(long canonical) {
+    return canonical & ~7L;
+  }
+
+  /**
+   * Return the transform part of a value returned by {@link #canonicalize(TicTacToe)}.
+   *
+   * @param canonical the packed canonical key and transform.
+   * @return the transform
+   */
+  public static int transformOf(long canonical) {
+    return (int) canonical & 7;
+  }
+
+  /**
+   * Update the key of one transform of a board for a mark placed in a cell, so that callers
+   * replaying moves can keep all transforms' keys current instead of rescanning the board.
+   *
+   * @param key    the key of the board under transform t before the mark, 0 for an empty board.
+   * @param t      the transform.
+   * @param cell   the cell the mark is placed in, before transforming.
+   * @param player the mark.
+   * @return the key of the board under transform t after the mark
+   */
+  long place(long key, int t, int cell, Player player) {
+    return this.combine(key, this.forward[t][cell], player.ordinal());
+  }
+
+  /**
+   * Return the canonical key of a board from its keys under every transform, as maintained by
+   * {@link #place(long, int, int, Player)}.
+   *
+   * @param keys the board's key under each transform.
+   * @return the canonical key, equal to {@link #canonicalKey(TicTacToe)} for the same board
+   */
+  long canonicalKey(long[] keys) {
+    long best = -1L;
+    for (int t = 0; t < this.forward.length; t++) {
+      long packed = this.pack(keys[t], t);
+      if (Long.compareUnsigned(packed, best) < 0) {
+        best = packed;
+      }
+    }
+    return keyOf(best);
+  }
+
+  /**
+   * Add a mark to a key: by addition for exact keys, by XOR for hashed keys.
+   */
+  private long combine(long key, int cell, int player) {
+    long weight = this.weights[2 * cell + player];
+    return this.weights.length <= 2 * EXACT_LIMIT ? key + weight : key ^ weight;
+  }
+
+  private long pack(long key, int t) {
+    return this.weights.length <= 2 * EXACT_LIMIT ? (key << 3) | t : (key & ~7L) | t;
+  }
+
+  /**
+   * Return the cell a given row and column move to under a transform. Transforms 0 to 3 are the
+   * identity, half turn and the two mirror flips, valid for any board; 4 to 7 are the quarter
+   * turns and the two diagonal reflections, valid only for square boards.
+   */
+  private int transform(int t, int row, int col) {
+    int lastRow = this.rows - 1;
+    int lastCol = this.columns - 1;
+    int r;
+    int c;
+    switch (t) {
+      case 0:
+        r = row;
+        c = col;
+        break;
+      case 1:
+        r = lastRow - row;
+        c = lastCol - col;
+        break;
+      case 2:
+        r = row;
+        c = lastCol - col;
+        break;
+      case 3:
+        r = lastRow - row;
+        c = col;
+        break;
+      case 4:
+        r = col;
+        c = lastRow - row;
+        break;
+      case 5:
+        r = lastCol - col;
+        c = row;
+        break;
+      case 6:
+        r = col;
+        c = row;
+        break;
+      default:
+        r = lastCol - col;
+        c = lastRow - row;
+        break;
+    }
+    return r * this.columns + c;
+  }
+}
@@ -0,0 +1,18 @@
+package tictactoe;
+
+/**
+ * A callback that receives the cells of a {@link TicTacToe} board one at a time, so the board
+ * can be read without copying it.
+ */
+@FunctionalInterface
+public interface CellVisitor {
+
+  /**
+   * Visit one cell of the board.
+   *
+   * @param r    the row of the cell
+   * @param c    the column of the cell
+   * @param mark the {@link Player} in the cell, or {@code null} if it is empty
+   */
+  void visit(int r, int c, Player mark);
+}
@@ -0,0 +1,271 @@
+package tictactoe;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for {@link TicTacToeConsoleController}: games started and how
+ * they ended, moves and how fast they are placed, and how often input is rejected. Pass one
+ * instance to any number of controllers, on any number of threads, to total their activity;
+ * every counter is a {@link LongAdder}, so threads recording at once do not contend.
+ *
+ * <p>A controller without metrics records nothing and does not read the clock, so metrics cost
+ * one null check per event when they are off. {@link #register(String)} publishes the metrics
+ * as a JMX MBean, and {@link #dump()} returns them as text.
+ */
+public final class ControllerMetrics implements ControllerMetricsMBean {
+  /**
+   * The JMX domain the metrics are registered under.
+   */
+  public static final String DOMAIN = "tictactoe";
+
+  private final LongAdder gamesStarted;
+  private final LongAdder gamesFinished;
+  private final LongAdder gamesQuit;
+  private final LongAdder gamesAbandoned;
+  private final LongAdder invalidNumbers;
+  private final LongAdder invalidMoves;
+  private final LongAdder undos;
+  private final LatencyHistogram moveLatency;
+  private final LatencyHistogram gameDuration;
+  private volatile long since;
+  private ObjectName name;
+
+  /**
+   * Constructor for metrics with every count at zero.
+   */
+  public ControllerMetrics() {
+    this.gamesStarted = new LongAdder();
+    this.gamesFinished = new LongAdder();
+    this.gamesQuit = new LongAdder();
+    this.gamesAbandoned = new LongAdder();
+    this.invalidNumbers = new LongAdder();
+    this.invalidMoves = new LongAdder();
+    this.undos = new LongAdder();
+    this.moveLatency = new LatencyHistogram();
+    this.gameDuration = new LatencyHistogram();
+    this.since = System.nanoTime();
+  }
+
+  /**
+   * Register these metrics with the platform MBean server, as
+   * {@code tictactoe:type=ControllerMetrics,name=NAME}.
+   *
+   * @param name the name that tells these metrics apart from others in the process.
+   * @return the name they were registered under
+   * @throws IllegalArgumentException if name is null.
+   * @throws IllegalStateException if these metrics are already registered, or the server
+   *                               refuses them, for example because the name is taken.
+   */
+  public synchronized ObjectName register(String name)
+      throws IllegalArgumentException, IllegalStateException {
+    if (name == null) {
+      throw new IllegalArgumentException("Name cannot be null.");
+    }
+    if (this.name != null) {
+      throw new IllegalStateException("Metrics are already registered.");
+    }
+    try {
+      ObjectName objectName = new ObjectName(DOMAIN + ":type=ControllerMetrics,name="
+          + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      this.name = objectName;
+      return objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register metrics: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Remove these metrics from the platform MBean server, if they are registered.
+   */
+  public synchronized void unregister() {
+    if (this.name == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.unregisterMBean(this.name);
+    } catch (JMException e) {
+      // already gone
+    }
+    this.name = null;
+  }
+
+  /**
+   * Return the time taken to place each move.
+   *
+   * @return the histogram, in nanoseconds
+   */
+  public LatencyHistogram getMoveLatency() {
+    return this.moveLatency;
+  }
+
+  /**
+   * Return the length of each game that has ended.
+   *
+   * @return the histogram, in nanoseconds
+   */
+  public LatencyHistogram getGameDuration() {
+    return this.gameDuration;
+  }
+
+  @Override
+  public long getGamesStarted() {
+    return this.gamesStarted.sum();
+  }
+
+  @Override
+  public long getGamesFinished() {
+    return this.gamesFinished.sum();
+  }
+
+  @Override
+  public long getGamesQuit() {
+    return this.gamesQuit.sum();
+  }
+
+  @Override
+  public long getGamesAbandoned() {
+    return this.gamesAbandoned.sum();
+  }
+
+  @Override
+  public long getGamesInProgress() {
+    // a reset during a game can leave more ended than started
+    return Math.max(0, this.gamesStarted.sum() - this.gamesFinished.sum()
+        - this.gamesQuit.sum() - this.gamesAbandoned.sum());
+  }
+
+  @Override
+  public long getMoves() {
+    return this.moveLatency.getCount();
+  }
+
+  @Override
+  public double getMovesPerSecond() {
+    long elapsed = System.nanoTime() - this.since;
+    return elapsed <= 0 ? 0 : this.moveLatency.getCount() * 1e9 / elapsed;
+  }
+
+  @Override
+  public long getInvalidNumbers() {
+    return this.invalidNumbers.sum();
+  }
+
+  @Override
+  public long getInvalidMoves() {
+    return this.invalidMoves.sum();
+  }
+
+  @Override
+  public long getUndos() {
+    return this.undos.sum();
+  }
+
+  @Override
+  public long getMoveLatencyMedianNanos() {
+    return this.moveLatency.getPercentile(0.5);
+  }
+
+  @Override
+  public long getMoveLatency99thNanos() {
+    return this.moveLatency.getPercentile(0.99);
+  }
+
+  @Override
+  public long getMoveLatencyMaxNanos() {
+    return this.moveLatency.getMax();
+  }
+
+  @Override
+  public long getGameDurationMedianMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(this.gameDuration.getPercentile(0.5));
+  }
+
+  @Override
+  public long getGameDuration99thMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(this.gameDuration.getPercentile(0.99));
+  }
+
+  @Override
+  public String dump() {
+    StringBuilder report = new StringBuilder(256);
+    report.append("games: ").append(this.getGamesStarted()).append(" started, ")
+        .append(this.getGamesFinished()).append(" finished, ")
+        .append(this.getGamesQuit()).append(" quit, ")
+        .append(this.getGamesAbandoned()).append(" abandoned, ")
+        .append(this.getGamesInProgress()).append(" in progress\n");
+    report.append("moves: ").append(this.getMoves()).append(", ")
+        .append(String.format("%.1f", this.getMovesPerSecond())).append("/s; rejected: ")
+        .append(this.getInvalidNumbers()).append(" invalid numbers, ")
+        .append(this.getInvalidMoves()).append(" invalid moves; undos: ")
+        .append(this.getUndos()).append('\n');
+    report.append("move latency (ns): median ").append(this.getMoveLatencyMedianNanos())
+        .append(", 99th ").append(this.getMoveLatency99thNanos())
+        .append(", max ").append(this.getMoveLatencyMaxNanos()).append('\n');
+    report.append("game duration (ms): median ").append(this.getGameDurationMedianMillis())
+        .append(", 99th ").append(this.getGameDuration99thMillis())
+        .append(", max ").append(TimeUnit.NANOSECONDS.toMillis(this.gameDuration.getMax()))
+        .append('\n');
+    return report.toString();
+  }
+
+  @Override
+  public void reset() {
+    this.gamesStarted.reset();
+    this.gamesFinished.reset();
+    this.gamesQuit.reset();
+    this.gamesAbandoned.reset();
+    this.invalidNumbers.reset();
+    this.invalidMoves.reset();
+    this.undos.reset();
+    this.moveLatency.reset();
+    this.gameDuration.reset();
+    this.since = System.nanoTime();
+  }
+
+  @Override
+  public String toString() {
+    return this.dump();
+  }
+
+  void gameStarted() {
+    this.gamesStarted.increment();
+  }
+
+  void gameFinished(long nanos) {
+    this.gamesFinished.increment();
+    this.gameDuration.record(nanos);
+  }
+
+  void gameQuit(long nanos) {
+    this.gamesQuit.increment();
+    this.gameDuration.record(nanos);
+  }
+
+  void gameAbandoned(long nanos) {
+    this.gamesAbandoned.increment();
+    this.gameDuration.record(nanos);
+  }
+
+  void movePlaced(long nanos) {
+    this.moveLatency.record(nanos);
+  }
+
+  void invalidNumber() {
+    this.invalidNumbers.increment();
+  }
+
+  void invalidMove() {
+    this.invalidMoves.increment();
+  }
+
+  void undo() {
+    this.undos.increment();
+  }
+}
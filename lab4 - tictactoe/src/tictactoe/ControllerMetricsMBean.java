@@ -0,0 +1,125 @@
+package tictactoe;
+
+/**
+ * The management interface of {@link ControllerMetrics}, as seen in a JMX console such as
+ * JConsole or VisualVM. Every attribute is read-only; durations are in the unit their name
+ * gives.
+ */
+public interface ControllerMetricsMBean {
+  /**
+   * Return the number of games the controllers have started.
+   *
+   * @return the number of games started
+   */
+  long getGamesStarted();
+
+  /**
+   * Return the number of games played until the game was over.
+   *
+   * @return the number of games finished
+   */
+  long getGamesFinished();
+
+  /**
+   * Return the number of games the user quit.
+   *
+   * @return the number of games quit
+   */
+  long getGamesQuit();
+
+  /**
+   * Return the number of games abandoned because input ran out or output failed.
+   *
+   * @return the number of games abandoned
+   */
+  long getGamesAbandoned();
+
+  /**
+   * Return the number of games started but not yet ended.
+   *
+   * @return the number of games in progress
+   */
+  long getGamesInProgress();
+
+  /**
+   * Return the number of moves placed, by users and engines.
+   *
+   * @return the number of moves
+   */
+  long getMoves();
+
+  /**
+   * Return the rate of moves since the metrics were created or last reset.
+   *
+   * @return moves per second
+   */
+  double getMovesPerSecond();
+
+  /**
+   * Return the number of inputs rejected as "Not a valid number".
+   *
+   * @return the number of invalid numbers
+   */
+  long getInvalidNumbers();
+
+  /**
+   * Return the number of moves rejected as "Not a valid move".
+   *
+   * @return the number of invalid moves
+   */
+  long getInvalidMoves();
+
+  /**
+   * Return the number of times a user took back a move.
+   *
+   * @return the number of undos
+   */
+  long getUndos();
+
+  /**
+   * Return the median time the model took to place a move.
+   *
+   * @return the median in nanoseconds
+   */
+  long getMoveLatencyMedianNanos();
+
+  /**
+   * Return the 99th percentile of the time the model took to place a move.
+   *
+   * @return the 99th percentile in nanoseconds
+   */
+  long getMoveLatency99thNanos();
+
+  /**
+   * Return the longest time the model took to place a move.
+   *
+   * @return the maximum in nanoseconds
+   */
+  long getMoveLatencyMaxNanos();
+
+  /**
+   * Return the median length of a game, from the start of playGame to its end.
+   *
+   * @return the median in milliseconds
+   */
+  long getGameDurationMedianMillis();
+
+  /**
+   * Return the 99th percentile of the length of a game.
+   *
+   * @return the 99th percentile in milliseconds
+   */
+  long getGameDuration99thMillis();
+
+  /**
+   * Return every metric as a few lines of text, for logs or for an operator to read.
+   *
+   * @return the report
+   */
+  String dump();
+
+  /**
+   * Set every counter and histogram back to zero, and restart the clock for the move rate.
+   */
+  void reset();
+}
@@ -0,0 +1,363 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the changes to one game to any number of spectators as a {@link Flow.Publisher} of
+ * {@link GameDelta} messages. A new subscriber first receives a snapshot of the board, then one
+ * message per move or undo.
+ *
+ * <p>The broadcaster listens to the game, so messages are published on the thread playing it,
+ * and publishing never waits for a spectator. Each change is encoded once, and every subscriber
+ * is sent a read-only view of the same bytes. Each subscriber has a queue of at most the buffer
+ * size messages, delivered on the executor as the subscriber requests them. When a slow
+ * subscriber's queue is full, its queued messages are conflated: they are all replaced by one
+ * snapshot of the current board, which is also encoded only once however many subscribers are
+ * behind. A player's move therefore costs the same whatever the spectators are doing.
+ *
+ * <p>To take its snapshots without reading the game from other threads, the broadcaster keeps
+ * its own copy of the board, taken when it is created. Create it on the thread that plays the
+ * game, or before play begins.
+ */
+public class GameBroadcaster implements Flow.Publisher<ByteBuffer>, TicTacToeListener,
+    Closeable {
+  /**
+   * The number of messages queued for a subscriber if no buffer size is given.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64;
+
+  private final TicTacToe game;
+  private final int bufferSize;
+  private final Executor executor;
+  private final int columns;
+  private final int rows;
+  private final byte[] cells;
+  private final CopyOnWriteArrayList<Delivery> deliveries;
+  private final AtomicLong conflations;
+  private Player turn;
+  private int result;
+  private long sequence;
+  private int pendingType;
+  private int pendingRow;
+  private int pendingColumn;
+  private Player pendingPlayer;
+  private boolean closed;
+
+  /**
+   * The queue and demand of one subscriber. The queue is guarded by the delivery's own lock;
+   * messages are handed to the subscriber by one task on the executor at a time.
+   */
+  private final class Delivery implements Flow.Subscription, Runnable {
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+    private final ByteBuffer[] queue;
+    private final AtomicLong requested;
+    private final AtomicInteger work;
+    private int head;
+    private int count;
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private volatile IllegalArgumentException error;
+
+    private Delivery(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      this.subscriber = subscriber;
+      this.queue = new ByteBuffer[GameBroadcaster.this.bufferSize];
+      this.requested = new AtomicLong();
+      this.work = new AtomicInteger();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.error = new IllegalArgumentException("Request must be positive.");
+      } else {
+        this.requested.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+      }
+      this.signal();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      GameBroadcaster.this.deliveries.remove(this);
+    }
+
+    /**
+     * Queue a message, unless the queue is full.
+     */
+    private synchronized boolean offer(ByteBuffer message) {
+      if (this.count == this.queue.length) {
+        return false;
+      }
+      this.queue[(this.head + this.count) % this.queue.length] = message;
+      this.count++;
+      return true;
+    }
+
+    /**
+     * Replace everything queued with a snapshot.
+     */
+    private synchronized void conflate(ByteBuffer snapshot) {
+      for (int i = 0; i < this.count; i++) {
+        this.queue[(this.head + i) % this.queue.length] = null;
+      }
+      this.head = 0;
+      this.queue[0] = snapshot;
+      this.count = 1;
+    }
+
+    private synchronized ByteBuffer poll() {
+      if (this.count == 0) {
+        return null;
+      }
+      ByteBuffer message = this.queue[this.head];
+      this.queue[this.head] = null;
+      this.head = (this.head + 1) % this.queue.length;
+      this.count--;
+      return message;
+    }
+
+    private synchronized boolean isEmpty() {
+      return this.count == 0;
+    }
+
+    /**
+     * Make sure a delivery task runs after this call, starting one if none is running.
+     */
+    private void signal() {
+      if (this.work.getAndIncrement() == 0) {
+        try {
+          GameBroadcaster.this.executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          this.cancel();
+        }
+      }
+    }
+
+    /**
+     * Deliver queued messages while there is demand, then completion once the broadcast has
+     * ended and the queue is empty, until no further signals have arrived.
+     */
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        if (this.cancelled) {
+          return;
+        }
+        if (this.error != null) {
+          this.cancel();
+          this.subscriber.onError(this.error);
+          return;
+        }
+        long demand = this.requested.get();
+        long sent = 0;
+        while (sent < demand && !this.cancelled) {
+          ByteBuffer message = this.poll();
+          if (message == null) {
+            break;
+          }
+          try {
+            this.subscriber.onNext(message.duplicate());
+          } catch (RuntimeException e) {
+            this.cancel();
+            return;
+          }
+          sent++;
+        }
+        if (sent > 0 && demand != Long.MAX_VALUE) {
+          this.requested.addAndGet(-sent);
+        }
+        if (this.completed && !this.cancelled && this.isEmpty()) {
+          this.cancel();
+          this.subscriber.onComplete();
+          return;
+        }
+        missed = this.work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+
+  /**
+   * Constructor for a broadcaster of the given game, delivering on the common pool with the
+   * default buffer size.
+   *
+   * @param m the game to broadcast.
+   * @throws IllegalArgumentException if m is null.
+   */
+  public GameBroadcaster(TicTacToe m) throws IllegalArgumentException {
+    this(m, DEFAULT_BUFFER_SIZE, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor for a broadcaster of the given game.
+   *
+   * @param m          the game to broadcast.
+   * @param bufferSize the most messages queued for one subscriber before they are conflated.
+   * @param executor   runs the tasks that deliver messages to subscribers.
+   * @throws IllegalArgumentException if m or executor is null or bufferSize is not positive.
+   */
+  public GameBroadcaster(TicTacToe m, int bufferSize, Executor executor)
+      throws IllegalArgumentException {
+    if (m == null || executor == null) {
+      throw new IllegalArgumentException("Game and executor cannot be null.");
+    }
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive.");
+    }
+    this.game = m;
+    this.bufferSize = bufferSize;
+    this.executor = executor;
+    this.rows = m.getRows();
+    this.columns = m.getColumns();
+    this.cells = new byte[this.rows * this.columns];
+    m.forEachCell((r, c, mark) ->
+        this.cells[r * this.columns + c] = (byte) (mark == null ? 0 : mark.ordinal() + 1));
+    this.turn = m.getTurn();
+    this.result = resultOf(m.isGameOver(), m.getWinner());
+    this.deliveries = new CopyOnWriteArrayList<>();
+    this.conflations = new AtomicLong();
+    m.addListener(this);
+  }
+
+  /**
+   * Add a subscriber. It is sent a snapshot of the current board, then every later change. If
+   * the broadcast has ended, it is sent the final snapshot and then completed.
+   *
+   * @param subscriber the subscriber.
+   * @throws NullPointerException if subscriber is null, as {@link Flow.Publisher} requires.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber)
+      throws NullPointerException {
+    if (subscriber == null) {
+      throw new NullPointerException("Subscriber cannot be null.");
+    }
+    Delivery delivery = new Delivery(subscriber);
+    subscriber.onSubscribe(delivery);
+    synchronized (this) {
+      delivery.offer(this.snapshot());
+      delivery.completed = this.closed;
+      if (!this.closed) {
+        this.deliveries.add(delivery);
+      }
+    }
+    delivery.signal();
+  }
+
+  /**
+   * Return the number of subscribers still receiving the broadcast.
+   *
+   * @return the number of subscribers
+   */
+  public int getSubscriberCount() {
+    return this.deliveries.size();
+  }
+
+  /**
+   * Return the number of times a subscriber's queue was replaced by a snapshot because the
+   * subscriber had fallen behind.
+   *
+   * @return the number of conflations
+   */
+  public long getConflationCount() {
+    return this.conflations.get();
+  }
+
+  /**
+   * End the broadcast: stop listening to the game, and complete every subscriber once it has
+   * received what is already queued for it.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.game.removeListener(this);
+    for (Delivery delivery : this.deliveries) {
+      delivery.completed = true;
+      delivery.signal();
+    }
+  }
+
+  @Override
+  public synchronized void movePlaced(int r, int c, Player player) {
+    this.cells[r * this.columns + c] = (byte) (player.ordinal() + 1);
+    this.pend(GameDelta.MOVE, r, c, player);
+  }
+
+  @Override
+  public synchronized void moveUndone(int r, int c, Player player) {
+    this.cells[r * this.columns + c] = 0;
+    this.pend(GameDelta.UNDO, r, c, player);
+  }
+
+  @Override
+  public synchronized void turnChanged(Player player) {
+    this.turn = player;
+    this.result = GameRecord.UNFINISHED;
+    this.publish();
+  }
+
+  @Override
+  public synchronized void gameEnded(Player winner) {
+    // the turn still passes, as in the models, though nobody will move
+    this.turn = this.pendingPlayer == Player.X ? Player.O : Player.X;
+    this.result = resultOf(true, winner);
+    this.publish();
+  }
+
+  /**
+   * Hold a change until the event that follows it gives the result.
+   */
+  private void pend(int type, int r, int c, Player player) {
+    this.pendingType = type;
+    this.pendingRow = r;
+    this.pendingColumn = c;
+    this.pendingPlayer = player;
+  }
+
+  /**
+   * Queue the pending change for every subscriber, conflating the queues that are full.
+   */
+  private void publish() {
+    if (this.pendingType == 0) {
+      return;
+    }
+    ByteBuffer change = GameDelta.encodeChange(this.pendingType, ++this.sequence, this.result,
+        this.pendingPlayer, this.pendingRow, this.pendingColumn);
+    this.pendingType = 0;
+    ByteBuffer snapshot = null;
+    for (Delivery delivery : this.deliveries) {
+      if (!delivery.offer(change)) {
+        if (snapshot == null) {
+          snapshot = this.snapshot();
+        }
+        delivery.conflate(snapshot);
+        this.conflations.incrementAndGet();
+      }
+      delivery.signal();
+    }
+  }
+
+  private ByteBuffer snapshot() {
+    return GameDelta.encodeSnapshot(this.sequence, this.result, this.turn, this.rows,
+        this.columns, this.cells);
+  }
+
+  private static int resultOf(boolean gameOver, Player winner) {
+    if (!gameOver) {
+      return GameRecord.UNFINISHED;
+    }
+    return winner == Player.X ? GameRecord.X_WINS
+        : winner == Player.O ? GameRecord.O_WINS : GameRecord.DRAW;
+  }
+}
@@ -0,0 +1,150 @@
+package tictactoe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary messages a {@link GameBroadcaster} sends to spectators of a game: a change of one
+ * cell, or a snapshot of the whole board. A message is a big-endian {@link ByteBuffer} laid out
+ * as follows, from its position:
+ *
+ * <ul>
+ *   <li>byte 0: the type, {@link #MOVE}, {@link #UNDO} or {@link #SNAPSHOT};</li>
+ *   <li>bytes 1 to 8: the sequence number of the last change included, counting from 0 for the
+ *       position when the broadcast began;</li>
+ *   <li>byte 9: the result after the change, as in {@link GameRecord#result(long)};</li>
+ *   <li>byte 10: for a move or undo, the player whose mark was placed or removed, and for a
+ *       snapshot, the player to move, as {@link Player#ordinal()};</li>
+ *   <li>bytes 11 to 18: for a move or undo, the row and column of the cell, and for a snapshot,
+ *       the number of rows and columns, as ints;</li>
+ *   <li>for a snapshot only, from byte 19: one byte per cell, row by row, 0 for an empty cell,
+ *       1 for X and 2 for O.</li>
+ * </ul>
+ *
+ * <p>A spectator that receives a snapshot has missed every change up to its sequence number
+ * and can replace its board with it. The methods here read a message without moving its
+ * position.
+ */
+public final class GameDelta {
+  /**
+   * The type of a message reporting a mark placed.
+   */
+  public static final int MOVE = 1;
+  /**
+   * The type of a message reporting a mark removed by taking back a move.
+   */
+  public static final int UNDO = 2;
+  /**
+   * The type of a message holding the whole board.
+   */
+  public static final int SNAPSHOT = 3;
+
+  static final int MOVE_SIZE = 19;
+
+  private GameDelta() {
+  }
+
+  /**
+   * Return the type of a message.
+   *
+   * @param message the message.
+   * @return {@link #MOVE}, {@link #UNDO} or {@link #SNAPSHOT}
+   */
+  public static int type(ByteBuffer message) {
+    return message.get(message.position());
+  }
+
+  /**
+   * Return the sequence number of the last change included in a message.
+   *
+   * @param message the message.
+   * @return the sequence number
+   */
+  public static long sequence(ByteBuffer message) {
+    return message.getLong(message.position() + 1);
+  }
+
+  /**
+   * Return the result of the game after the change.
+   *
+   * @param message the message.
+   * @return one of the results defined by {@link GameRecord}
+   */
+  public static int result(ByteBuffer message) {
+    return message.get(message.position() + 9);
+  }
+
+  /**
+   * Return the player whose mark a move or undo placed or removed, or the player to move in a
+   * snapshot.
+   *
+   * @param message the message.
+   * @return the player
+   */
+  public static Player player(ByteBuffer message) {
+    return Player.values()[message.get(message.position() + 10)];
+  }
+
+  /**
+   * Return the row of the cell a move or undo changed, or the number of rows in a snapshot.
+   *
+   * @param message the message.
+   * @return the row or the number of rows
+   */
+  public static int row(ByteBuffer message) {
+    return message.getInt(message.position() + 11);
+  }
+
+  /**
+   * Return the column of the cell a move or undo changed, or the number of columns in a
+   * snapshot.
+   *
+   * @param message the message.
+   * @return the column or the number of columns
+   */
+  public static int column(ByteBuffer message) {
+    return message.getInt(message.position() + 15);
+  }
+
+  /**
+   * Return the mark in a cell of a snapshot.
+   *
+   * @param message the snapshot.
+   * @param r       the row of the cell.
+   * @param c       the column of the cell.
+   * @return the mark, or null if the cell is empty
+   * @throws IllegalArgumentException if the message is not a snapshot or the cell is not on
+   *                                  its board.
+   */
+  public static Player markAt(ByteBuffer message, int r, int c) throws IllegalArgumentException {
+    int columns = column(message);
+    if (type(message) != SNAPSHOT || r < 0 || c < 0 || r >= row(message) || c >= columns) {
+      throw new IllegalArgumentException("Invalid row or column.");
+    }
+    int mark = message.get(message.position() + MOVE_SIZE + r * columns + c);
+    return mark == 0 ? null : Player.values()[mark - 1];
+  }
+
+  /**
+   * Encode a move or undo as a new read-only message.
+   */
+  static ByteBuffer encodeChange(int type, long sequence, int result, Player player, int r,
+      int c) {
+    ByteBuffer message = ByteBuffer.allocate(MOVE_SIZE);
+    message.put((byte) type).putLong(sequence).put((byte) result)
+        .put((byte) player.ordinal()).putInt(r).putInt(c);
+    message.flip();
+    return message.asReadOnlyBuffer();
+  }
+
+  /**
+   * Encode a snapshot as a new read-only message, given one byte per cell.
+   */
+  static ByteBuffer encodeSnapshot(long sequence, int result, Player turn, int rows,
+      int columns, byte[] cells) {
+    ByteBuffer message = ByteBuffer.allocate(MOVE_SIZE + cells.length);
+    message.put((byte) SNAPSHOT).putLong(sequence).put((byte) result)
+        .put((byte) turn.ordinal()).putInt(rows).putInt(columns).put(cells);
+    message.flip();
+    return message.asReadOnlyBuffer();
+  }
+}
@@ -0,0 +1,178 @@
+package tictactoe;
+
+/**
+ * The compact binary form of a three-by-three game, packed into a single {@code long} so that a
+ * record costs eight bytes on disk and nothing on the heap. The layout, from the lowest bit, is:
+ *
+ * <ul>
+ *   <li>bits 0 to 35: up to nine moves, four bits each, holding the cell index
+ *       {@code 3 * row + column} of each move in order, the first move lowest;</li>
+ *   <li>bits 36 to 39: the number of moves;</li>
+ *   <li>bits 40 to 41: the result, one of {@link #UNFINISHED}, {@link #X_WINS},
+ *       {@link #O_WINS} or {@link #DRAW};</li>
+ *   <li>bit 42: set when the record is followed by an extension holding a timestamp and the
+ *       ids of both players (see {@link GameRecordWriter});</li>
+ *   <li>bits 43 to 63: reserved, always zero.</li>
+ * </ul>
+ *
+ * <p>The move bits use the same packing as {@link BitboardTicTacToe#getHistory()}.
+ */
+public final class GameRecord {
+  /**
+   * The result of a game that has not ended.
+   */
+  public static final int UNFINISHED = 0;
+  /**
+   * The result of a game won by X.
+   */
+  public static final int X_WINS = 1;
+  /**
+   * The result of a game won by O.
+   */
+  public static final int O_WINS = 2;
+  /**
+   * The result of a tie game.
+   */
+  public static final int DRAW = 3;
+
+  /**
+   * The first eight bytes of a record file, the ASCII text {@code TTTREC01} read as a
+   * little-endian long.
+   */
+  static final long MAGIC = 0x3130434552545454L;
+  static final int HEADER_SIZE = 8;
+  static final int EXTENSION_SIZE = 16;
+  static final long EXTENDED = 1L << 42;
+  private static final long MOVES_MASK = (1L << 36) - 1;
+  private static final long RESERVED = -1L << 43;
+
+  private GameRecord() {
+  }
+
+  /**
+   * Encode the moves and result of a game.
+   *
+   * @param m the game, on a three-by-three board.
+   * @return the packed record
+   * @throws IllegalArgumentException if m is null or not played on a three-by-three board.
+   */
+  public static long encode(TicTacToe m) throws IllegalArgumentException {
+    if (m == null) {
+      throw new IllegalArgumentException("There is no model.");
+    }
+    if (m.getRows() != 3 || m.getColumns() != 3) {
+      throw new IllegalArgumentException("Only three-by-three games fit in a record.");
+    }
+    int count = m.getMoveCount();
+    long moves;
+    if (m instanceof BitboardTicTacToe) {
+      moves = ((BitboardTicTacToe) m).getHistory() & ((1L << (4 * count)) - 1);
+    } else {
+      moves = 0;
+      for (int i = 0; i < count; i++) {
+        moves |= (long) m.getMove(i) << (4 * i);
+      }
+    }
+    return moves | ((long) count << 36) | ((long) resultOf(m) << 40);
+  }
+
+  /**
+   * Return the number of moves in a record.
+   *
+   * @param record the packed record.
+   * @return the number of moves, from 0 to 9
+   */
+  public static int moveCount(long record) {
+    return (int) (record >>> 36) & 0xF;
+  }
+
+  /**
+   * Return one move of a record, as the cell index {@code 3 * row + column}.
+   *
+   * @param record the packed record.
+   * @param index  the position of the move, 0 for the first move.
+   * @return the cell of the move
+   * @throws IllegalArgumentException if index is not less than the number of moves.
+   */
+  public static int move(long record, int index) throws IllegalArgumentException {
+    if (index < 0 || index >= moveCount(record)) {
+      throw new IllegalArgumentException("No such move.");
+    }
+    return (int) (record >>> (4 * index)) & 0xF;
+  }
+
+  /**
+   * Return the result stored in a record.
+   *
+   * @param record the packed record.
+   * @return {@link #UNFINISHED}, {@link #X_WINS}, {@link #O_WINS} or {@link #DRAW}
+   */
+  public static int result(long record) {
+    return (int) (record >>> 40) & 0x3;
+  }
+
+  /**
+   * Return the winner stored in a record.
+   *
+   * @param record the packed record.
+   * @return the winner, or null if the game was drawn or did not finish
+   */
+  public static Player winner(long record) {
+    int result = result(record);
+    return result == X_WINS ? Player.X : result == O_WINS ? Player.O : null;
+  }
+
+  /**
+   * Return whether a record has a timestamp and player ids.
+   *
+   * @param record the packed record.
+   * @return true if the record is extended
+   */
+  public static boolean isExtended(long record) {
+    return (record & EXTENDED) != 0;
+  }
+
+  /**
+   * Play the moves of a record on a game, which must be empty.
+   *
+   * @param record the packed record.
+   * @param m      the game to play the moves on.
+   * @throws IllegalArgumentException if a move is not legal on the game.
+   * @throws IllegalStateException if the game ends before the last move.
+   */
+  public static void replay(long record, TicTacToe m) throws IllegalArgumentException,
+      IllegalStateException {
+    int count = moveCount(record);
+    for (int i = 0; i < count; i++) {
+      int cell = (int) (record >>> (4 * i)) & 0xF;
+      m.move(cell / 3, cell % 3);
+    }
+  }
+
+  /**
+   * Check that a value read from a file is a well-formed record.
+   *
+   * @param record the packed record.
+   * @return true if the reserved bits are clear and every move is a cell of the board
+   */
+  static boolean isValid(long record) {
+    if ((record & RESERVED) != 0 || moveCount(record) > 9) {
+      return false;
+    }
+    long moves = record & MOVES_MASK;
+    for (int i = 0; i < moveCount(record); i++) {
+      if (((moves >>> (4 * i)) & 0xF) > 8) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int resultOf(TicTacToe m) {
+    if (!m.isGameOver()) {
+      return UNFINISHED;
+    }
+    Player winner = m.getWinner();
+    return winner == Player.X ? X_WINS : winner == Player.O ? O_WINS : DRAW;
+  }
+}
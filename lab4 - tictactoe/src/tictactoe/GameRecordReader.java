@@ -0,0 +1,203 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Iterates over the records of a file written by {@link GameRecordWriter}. The file is
+ * memory-mapped, a large window at a time, and records are read straight out of the mapping:
+ * {@link #next()} advances to the next record and the accessors return its fields, so iterating
+ * a file allocates nothing per record.
+ *
+ * <pre>
+ * try (GameRecordReader reader = new GameRecordReader(file)) {
+ *   while (reader.next()) {
+ *     Player winner = GameRecord.winner(reader.record());
+ *   }
+ * }
+ * </pre>
+ */
+public class GameRecordReader implements Closeable {
+  private static final int DEFAULT_WINDOW_SIZE = 256 << 20;
+  private static final int LARGEST_RECORD = 8 + GameRecord.EXTENSION_SIZE;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+  private long record;
+  private long timestamp;
+  private int xPlayerId;
+  private int oPlayerId;
+
+  /**
+   * Constructor for a reader over the given record file.
+   *
+   * @param file the record file.
+   * @throws IllegalArgumentException if file is null or is not a record file.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  public GameRecordReader(Path file) throws IllegalArgumentException, IllegalStateException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor for a reader that maps at most the given number of bytes of the file at a time.
+   *
+   * @param file       the record file.
+   * @param windowSize the size of each mapping in bytes, at least 24.
+   * @throws IllegalArgumentException if file is null, the window is too small, or the file is
+   *                                  not a record file.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  public GameRecordReader(Path file, int windowSize) throws IllegalArgumentException,
+      IllegalStateException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    if (windowSize < LARGEST_RECORD) {
+      throw new IllegalArgumentException("Window is too small.");
+    }
+    this.windowSize = windowSize;
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+      this.channel = channel;
+      this.size = this.channel.size();
+      if (this.size < GameRecord.HEADER_SIZE) {
+        this.channel.close();
+        throw new IllegalArgumentException("Not a game record file.");
+      }
+      this.map(0);
+    } catch (IOException e) {
+      closeQuietly(channel);
+      throw new IllegalStateException("Read failed.");
+    }
+    if (this.window.getLong(0) != GameRecord.MAGIC) {
+      this.close();
+      throw new IllegalArgumentException("Not a game record file.");
+    }
+    this.position = GameRecord.HEADER_SIZE;
+  }
+
+  /**
+   * Advance to the next record.
+   *
+   * @return true if there is a record, false at the end of the file
+   * @throws IllegalStateException if the file is truncated or holds a malformed record.
+   */
+  public boolean next() throws IllegalStateException {
+    if (this.position >= this.size) {
+      return false;
+    }
+    if (this.position + LARGEST_RECORD > this.windowStart + this.window.limit()
+        && this.windowStart + this.window.limit() < this.size) {
+      try {
+        this.map(this.position);
+      } catch (IOException e) {
+        throw new IllegalStateException("Read failed.");
+      }
+    }
+    int offset = (int) (this.position - this.windowStart);
+    if (offset + 8 > this.window.limit()) {
+      throw new IllegalStateException("Truncated record.");
+    }
+    this.record = this.window.getLong(offset);
+    if (!GameRecord.isValid(this.record)) {
+      throw new IllegalStateException("Invalid record.");
+    }
+    if (GameRecord.isExtended(this.record)) {
+      if (offset + LARGEST_RECORD > this.window.limit()) {
+        throw new IllegalStateException("Truncated record.");
+      }
+      this.timestamp = this.window.getLong(offset + 8);
+      this.xPlayerId = this.window.getInt(offset + 16);
+      this.oPlayerId = this.window.getInt(offset + 20);
+      this.position += LARGEST_RECORD;
+    } else {
+      this.timestamp = 0;
+      this.xPlayerId = 0;
+      this.oPlayerId = 0;
+      this.position += 8;
+    }
+    return true;
+  }
+
+  /**
+   * Return the current record, to be decoded with the methods of {@link GameRecord}.
+   *
+   * @return the packed record
+   */
+  public long record() {
+    return this.record;
+  }
+
+  /**
+   * Return the timestamp of the current record.
+   *
+   * @return the timestamp, or 0 if the record is not extended
+   */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Return the id of the player who played X in the current record.
+   *
+   * @return the player id, or 0 if the record is not extended
+   */
+  public int getXPlayerId() {
+    return this.xPlayerId;
+  }
+
+  /**
+   * Return the id of the player who played O in the current record.
+   *
+   * @return the player id, or 0 if the record is not extended
+   */
+  public int getOPlayerId() {
+    return this.oPlayerId;
+  }
+
+  /**
+   * Close the file. Records already read remain available.
+   *
+   * @throws IllegalStateException if closing fails.
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      throw new IllegalStateException("Close failed.");
+    }
+  }
+
+  /**
+   * Map the window of the file starting at the given offset.
+   */
+  private void map(long start) throws IOException {
+    long length = Math.min(this.windowSize, this.size - start);
+    this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    this.window.order(ByteOrder.LITTLE_ENDIAN);
+    this.windowStart = start;
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // already failing
+    }
+  }
+}
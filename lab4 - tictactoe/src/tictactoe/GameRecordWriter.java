@@ -0,0 +1,193 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link GameRecord game records} to a file. A record file starts with an eight-byte
+ * header and then holds one little-endian {@code long} per game; an extended record is followed
+ * by its timestamp as a {@code long} and the ids of the X and O players as two {@code int}s.
+ *
+ * <p>Records are collected in a direct buffer and written to the file channel in one call when
+ * the buffer fills, when {@link #flush()} is called and when the writer is closed, so a record
+ * costs a few stores into memory and no allocation.
+ */
+public class GameRecordWriter implements Closeable {
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long records;
+
+  /**
+   * Constructor for a writer appending to the given file, which is created if it does not exist.
+   *
+   * @param file the record file.
+   * @throws IllegalArgumentException if file is null, or if it exists and is not a record file.
+   * @throws IllegalStateException if the file cannot be opened.
+   */
+  public GameRecordWriter(Path file) throws IllegalArgumentException, IllegalStateException {
+    this(file, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor for a writer appending to the given file, collecting the given number of bytes
+   * before each write.
+   *
+   * @param file       the record file.
+   * @param bufferSize the size of the write buffer in bytes, at least 24.
+   * @throws IllegalArgumentException if file is null, the buffer is too small, or the file
+   *                                  exists and is not a record file.
+   * @throws IllegalStateException if the file cannot be opened.
+   */
+  public GameRecordWriter(Path file, int bufferSize) throws IllegalArgumentException,
+      IllegalStateException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    if (bufferSize < 8 + GameRecord.EXTENSION_SIZE) {
+      throw new IllegalArgumentException("Buffer is too small.");
+    }
+    this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.channel = channel;
+      if (this.channel.size() == 0) {
+        this.buffer.putLong(GameRecord.MAGIC);
+      } else {
+        ByteBuffer header = ByteBuffer.allocate(GameRecord.HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        this.channel.read(header, 0);
+        if (header.position() < GameRecord.HEADER_SIZE || header.getLong(0) != GameRecord.MAGIC) {
+          this.channel.close();
+          throw new IllegalArgumentException("Not a game record file.");
+        }
+        this.channel.position(this.channel.size());
+      }
+    } catch (IOException e) {
+      closeQuietly(channel);
+      throw new IllegalStateException("Open failed.");
+    }
+  }
+
+  /**
+   * Append the record of a game.
+   *
+   * @param m the game, on a three-by-three board.
+   * @throws IllegalArgumentException if m is null or not played on a three-by-three board.
+   * @throws IllegalStateException if writing fails.
+   */
+  public void write(TicTacToe m) throws IllegalArgumentException, IllegalStateException {
+    this.write(GameRecord.encode(m));
+  }
+
+  /**
+   * Append the record of a game with the time it was played and the ids of its players.
+   *
+   * @param m         the game, on a three-by-three board.
+   * @param timestamp the time of the game, for example in milliseconds since the epoch.
+   * @param xPlayerId the id of the player who played X.
+   * @param oPlayerId the id of the player who played O.
+   * @throws IllegalArgumentException if m is null or not played on a three-by-three board.
+   * @throws IllegalStateException if writing fails.
+   */
+  public void write(TicTacToe m, long timestamp, int xPlayerId, int oPlayerId)
+      throws IllegalArgumentException, IllegalStateException {
+    this.reserve(8 + GameRecord.EXTENSION_SIZE);
+    this.buffer.putLong(GameRecord.encode(m) | GameRecord.EXTENDED);
+    this.buffer.putLong(timestamp);
+    this.buffer.putInt(xPlayerId);
+    this.buffer.putInt(oPlayerId);
+    this.records++;
+  }
+
+  /**
+   * Append an already encoded record without an extension.
+   *
+   * @param record the packed record.
+   * @throws IllegalArgumentException if the record is malformed or marked as extended.
+   * @throws IllegalStateException if writing fails.
+   */
+  public void write(long record) throws IllegalArgumentException, IllegalStateException {
+    if (!GameRecord.isValid(record) || GameRecord.isExtended(record)) {
+      throw new IllegalArgumentException("Invalid record.");
+    }
+    this.reserve(8);
+    this.buffer.putLong(record);
+    this.records++;
+  }
+
+  /**
+   * Return the number of records appended by this writer.
+   *
+   * @return the number of records
+   */
+  public long getRecordCount() {
+    return this.records;
+  }
+
+  /**
+   * Write every buffered record to the file.
+   *
+   * @throws IllegalStateException if writing fails.
+   */
+  public void flush() throws IllegalStateException {
+    this.buffer.flip();
+    try {
+      while (this.buffer.hasRemaining()) {
+        this.channel.write(this.buffer);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Write failed.");
+    }
+    this.buffer.clear();
+  }
+
+  /**
+   * Write every buffered record and close the file.
+   *
+   * @throws IllegalStateException if writing or closing fails.
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    if (!this.channel.isOpen()) {
+      return;
+    }
+    try {
+      this.flush();
+    } finally {
+      try {
+        this.channel.close();
+      } catch (IOException e) {
+        throw new IllegalStateException("Close failed.");
+      }
+    }
+  }
+
+  /**
+   * Make room in the buffer for the given number of bytes, writing it out if it is too full.
+   */
+  private void reserve(int bytes) {
+    if (this.buffer.remaining() < bytes) {
+      this.flush();
+    }
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // already failing
+    }
+  }
+}
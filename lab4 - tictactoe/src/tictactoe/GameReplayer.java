@@ -0,0 +1,350 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays a file of recorded three-by-three games and reports the result of each. Every line of
+ * the file is one game, written as the 1-based row and column of each move in order, separated
+ * by spaces, tabs or commas, for example {@code 2 2 1 1 3 3}. Blank lines and lines starting with
+ * {@code #} are skipped. Each result is labelled with its line number in the file.
+ *
+ * <p>The file is memory-mapped a chunk at a time and parsed byte by byte, carrying the parse
+ * state across chunk boundaries, so files far larger than memory can be replayed. All games are
+ * played on a single {@link BitboardTicTacToe} that is reset between lines, and moves are
+ * validated before they are played, so replaying a game allocates nothing. Results are collected
+ * in a buffer and written to the Appendable in large blocks.
+ */
+public class GameReplayer {
+  private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+  private static final int FLUSH_THRESHOLD = 1 << 16;
+  private static final int TOO_LARGE = 1000;
+
+  private final Appendable out;
+  private final boolean perGame;
+  private final int chunkSize;
+  private final StringBuilder buffer;
+  private final BitboardTicTacToe model;
+
+  private long games;
+  private long xWins;
+  private long oWins;
+  private long draws;
+  private long unfinished;
+  private long invalid;
+  private long bytes;
+  private long elapsedNanos;
+
+  // parse state for the current line, kept across chunks
+  private long line;
+  private int number;
+  private boolean inNumber;
+  private int row;
+  private boolean haveRow;
+  private int moves;
+  private boolean comment;
+  private boolean blank;
+  private boolean failed;
+
+  /**
+   * Constructor for a replayer that writes its results to the given Appendable.
+   *
+   * @param out     the destination for results.
+   * @param perGame true to write a line for every game, false to write only the summary.
+   * @throws IllegalArgumentException if out is null.
+   */
+  public GameReplayer(Appendable out, boolean perGame) throws IllegalArgumentException {
+    this(out, perGame, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor for a replayer that maps the file in chunks of the given size.
+   *
+   * @param out       the destination for results.
+   * @param perGame   true to write a line for every game, false to write only the summary.
+   * @param chunkSize the number of bytes of the file to map at a time.
+   * @throws IllegalArgumentException if out is null or the chunk size is not positive.
+   */
+  public GameReplayer(Appendable out, boolean perGame, int chunkSize)
+      throws IllegalArgumentException {
+    if (out == null) {
+      throw new IllegalArgumentException("Appendable cannot be null.");
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive.");
+    }
+    this.out = out;
+    this.perGame = perGame;
+    this.chunkSize = chunkSize;
+    this.buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+    this.model = new BitboardTicTacToe();
+  }
+
+  /**
+   * Replay every game in a file, add the results to this replayer's totals and write them,
+   * followed by a summary of the totals so far.
+   *
+   * @param file the file of games.
+   * @throws IllegalArgumentException if file is null.
+   * @throws IllegalStateException if the file cannot be read or the output cannot be written.
+   */
+  public void replay(Path file) throws IllegalArgumentException, IllegalStateException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    long start = System.nanoTime();
+    this.line = 0;
+    this.startLine();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long position = 0; position < size; position += this.chunkSize) {
+        int length = (int) Math.min(this.chunkSize, size - position);
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        for (int i = 0; i < length; i++) {
+          this.accept(chunk.get(i));
+        }
+        this.bytes += length;
+      }
+      this.endLine();
+    } catch (IOException e) {
+      throw new IllegalStateException("Read failed.");
+    }
+    this.elapsedNanos += System.nanoTime() - start;
+    this.summarize();
+    this.flush();
+  }
+
+  /**
+   * Return the number of games replayed.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return this.games;
+  }
+
+  /**
+   * Return the number of replayed games won by a player.
+   *
+   * @param p the player.
+   * @return the number of games that player won
+   */
+  public long getWins(Player p) {
+    return p == Player.X ? this.xWins : this.oWins;
+  }
+
+  /**
+   * Return the number of replayed games that ended in a tie.
+   *
+   * @return the number of draws
+   */
+  public long getDraws() {
+    return this.draws;
+  }
+
+  /**
+   * Return the number of replayed games whose moves were all valid but did not finish the game.
+   *
+   * @return the number of unfinished games
+   */
+  public long getUnfinished() {
+    return this.unfinished;
+  }
+
+  /**
+   * Return the number of lines that held an illegal move or could not be parsed.
+   *
+   * @return the number of invalid games
+   */
+  public long getInvalid() {
+    return this.invalid;
+  }
+
+  /**
+   * Return the throughput of all calls to {@link #replay(Path)} so far.
+   *
+   * @return the number of games replayed per second
+   */
+  public double getGamesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.games * 1e9 / this.elapsedNanos;
+  }
+
+  /**
+   * Advance the parse by one byte of the file.
+   */
+  private void accept(byte b) {
+    if (b == '\n') {
+      this.endLine();
+      this.startLine();
+      return;
+    }
+    if (this.comment || this.failed) {
+      return;
+    }
+    if (b >= '0' && b <= '9') {
+      this.blank = false;
+      this.number = Math.min(10 * this.number + (b - '0'), TOO_LARGE);
+      this.inNumber = true;
+    } else if (b == ' ' || b == '\t' || b == ',' || b == '\r') {
+      this.endNumber();
+    } else if (b == '#' && this.blank) {
+      this.comment = true;
+    } else {
+      this.blank = false;
+      this.malformed();
+    }
+  }
+
+  /**
+   * Finish the number being parsed, playing a move when it completes a row and column pair.
+   */
+  private void endNumber() {
+    if (!this.inNumber) {
+      return;
+    }
+    int value = this.number;
+    this.number = 0;
+    this.inNumber = false;
+    if (!this.haveRow) {
+      this.row = value;
+      this.haveRow = true;
+      return;
+    }
+    this.haveRow = false;
+    int r = this.row - 1;
+    int c = value - 1;
+    if (this.model.isGameOver() || r < 0 || r >= 3 || c < 0 || c >= 3
+        || (((this.model.getXMask() | this.model.getOMask()) >> (3 * r + c)) & 1) != 0) {
+      this.fail();
+      if (this.perGame) {
+        this.buffer.append(this.line).append(": invalid move ")
+            .append(this.row).append(", ").append(value).append(" at move ")
+            .append(this.moves + 1).append('\n');
+      }
+      return;
+    }
+    this.model.move(r, c);
+    this.moves++;
+  }
+
+  /**
+   * Mark the current line as invalid because it could not be parsed.
+   */
+  private void malformed() {
+    if (this.perGame && !this.failed) {
+      this.buffer.append(this.line).append(": malformed line\n");
+    }
+    this.fail();
+  }
+
+  /**
+   * Mark the current line as invalid.
+   */
+  private void fail() {
+    if (!this.failed) {
+      this.failed = true;
+      this.invalid++;
+    }
+  }
+
+  /**
+   * Reset the parse state and the model for the next line of the file.
+   */
+  private void startLine() {
+    this.line++;
+    this.model.reset();
+    this.number = 0;
+    this.inNumber = false;
+    this.haveRow = false;
+    this.moves = 0;
+    this.comment = false;
+    this.blank = true;
+    this.failed = false;
+  }
+
+  /**
+   * Record the result of the line just finished.
+   */
+  private void endLine() {
+    this.endNumber();
+    if (this.comment || this.blank) {
+      return;
+    }
+    if (this.haveRow) {
+      this.malformed();
+    }
+    if (this.failed) {
+      this.flushIfFull();
+      return;
+    }
+
+    this.games++;
+    if (this.perGame) {
+      this.buffer.append(this.line).append(": ");
+    }
+    Player winner = this.model.getWinner();
+    if (!this.model.isGameOver()) {
+      this.unfinished++;
+      if (this.perGame) {
+        this.buffer.append("unfinished after ");
+      }
+    } else if (winner == null) {
+      this.draws++;
+      if (this.perGame) {
+        this.buffer.append("tie game in ");
+      }
+    } else {
+      if (winner == Player.X) {
+        this.xWins++;
+      } else {
+        this.oWins++;
+      }
+      if (this.perGame) {
+        this.buffer.append(winner).append(" wins in ");
+      }
+    }
+    if (this.perGame) {
+      this.buffer.append(this.moves).append(this.moves == 1 ? " move\n" : " moves\n");
+    }
+    this.flushIfFull();
+  }
+
+  /**
+   * Write the totals so far and the throughput.
+   */
+  private void summarize() {
+    this.buffer.append("Games: ").append(this.games)
+        .append(", X wins: ").append(this.xWins)
+        .append(", O wins: ").append(this.oWins)
+        .append(", draws: ").append(this.draws)
+        .append(", unfinished: ").append(this.unfinished)
+        .append(", invalid: ").append(this.invalid).append('\n');
+    this.buffer.append(String.format("Replayed %d bytes in %d ms (%.0f games/s, %.1f MB/s)%n",
+        this.bytes, this.elapsedNanos / 1_000_000, this.getGamesPerSecond(),
+        this.elapsedNanos == 0 ? 0 : this.bytes * 1e3 / this.elapsedNanos));
+  }
+
+  /**
+   * Write the buffered results once enough have been collected.
+   */
+  private void flushIfFull() {
+    if (this.buffer.length() >= FLUSH_THRESHOLD) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Write the buffered results to the Appendable in a single call and empty the buffer.
+   */
+  private void flush() {
+    try {
+      this.out.append(this.buffer);
+    } catch (IOException e) {
+      throw new IllegalStateException("Append failed.");
+    }
+    this.buffer.setLength(0);
+  }
+}
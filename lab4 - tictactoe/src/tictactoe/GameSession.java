@@ -0,0 +1,223 @@
+package tictactoe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One game played over a byte stream with the same text protocol as
+ * {@link TicTacToeConsoleController}: the client sends whitespace-separated tokens, a row then a
+ * column (both 1-based) for each move, {@code u} to take back a move or {@code q} to quit, and
+ * receives the same board, prompt and error text the console controller would write. Unlike the
+ * controller, a session does not block for input: bytes are pushed in as they arrive, possibly
+ * splitting tokens, and the response to each complete token is appended to a caller-supplied
+ * buffer. This lets one thread host many sessions, as {@link TicTacToeServer} does.
+ *
+ * <p>Bytes are read as ISO-8859-1 characters. To bound the memory a client can use, only the
+ * first {@value #MAX_TOKEN} characters of a token are kept, and an invalid token longer than
+ * that is echoed cut short. Numbers are parsed as their characters arrive, with the rules of
+ * {@link Tokenizer#parseInt(char[], int)}, so a valid number of any length, such as one with
+ * many leading zeros, is read just as the console controller reads it.
+ */
+public class GameSession {
+  /**
+   * The number of characters of a token that are kept for echoing.
+   */
+  public static final int MAX_TOKEN = 64;
+
+  private final TicTacToe model;
+  private char[] token;
+  private int length;
+  private boolean inToken;
+  private boolean negative;
+  private boolean hasDigit;
+  private boolean notAnInt;
+  private int value;
+  private int row;
+  private boolean haveRow;
+  private boolean finished;
+
+  /**
+   * Constructor for a session playing the given game.
+   *
+   * @param m the game to play.
+   * @throws IllegalArgumentException if m is null.
+   */
+  public GameSession(TicTacToe m) throws IllegalArgumentException {
+    if (m == null) {
+      throw new IllegalArgumentException("There is no model.");
+    }
+    this.model = m;
+    this.token = new char[8];
+  }
+
+  /**
+   * Write the opening board and prompt.
+   *
+   * @param out the buffer to append the response to.
+   */
+  public void start(StringBuilder out) {
+    if (this.model.isGameOver()) {
+      this.gameOver(out);
+    } else {
+      this.prompt(out);
+    }
+  }
+
+  /**
+   * Consume the bytes remaining in a buffer, responding to every token they complete. A token
+   * cut off at the end of the buffer is completed by the next call, or by
+   * {@link #endOfInput(StringBuilder)}.
+   *
+   * @param in  the bytes received.
+   * @param out the buffer to append the response to.
+   */
+  public void receive(ByteBuffer in, StringBuilder out) {
+    while (in.hasRemaining() && !this.finished) {
+      char ch = (char) (in.get() & 0xFF);
+      if (Character.isWhitespace(ch)) {
+        if (this.inToken) {
+          this.endToken(out);
+        }
+      } else {
+        this.accumulate(ch);
+        if (this.length < MAX_TOKEN) {
+          if (this.length == this.token.length) {
+            char[] larger = new char[Math.min(2 * this.length, MAX_TOKEN)];
+            System.arraycopy(this.token, 0, larger, 0, this.length);
+            this.token = larger;
+          }
+          this.token[this.length++] = ch;
+        }
+        this.inToken = true;
+      }
+    }
+    in.position(in.limit());
+  }
+
+  /**
+   * Respond to a token left unfinished when the client stopped sending. The game is then over
+   * for this session, whether or not it was finished.
+   *
+   * @param out the buffer to append the response to.
+   */
+  public void endOfInput(StringBuilder out) {
+    if (this.inToken && !this.finished) {
+      this.endToken(out);
+    }
+    this.finished = true;
+  }
+
+  /**
+   * Return whether the session has ended, because the game is over or the client quit.
+   *
+   * @return true if no further input will be accepted
+   */
+  public boolean isFinished() {
+    return this.finished;
+  }
+
+  /**
+   * Return the game played by this session.
+   *
+   * @return the game
+   */
+  public TicTacToe getModel() {
+    return this.model;
+  }
+
+  /**
+   * Act on the token just completed, following the console controller's rules.
+   */
+  private void endToken(StringBuilder out) {
+    int length = this.length;
+    boolean isInt = this.hasDigit && !this.notAnInt;
+    int number = this.negative ? this.value : -this.value;
+    this.length = 0;
+    this.inToken = false;
+    this.negative = false;
+    this.hasDigit = false;
+    this.notAnInt = false;
+    this.value = 0;
+    TicTacToe m = this.model;
+
+    if (Tokenizer.equalsIgnoreCase("q", this.token, length)) {
+      out.append("Game quit! Ending game state:\n").append(m).append('\n');
+      this.finished = true;
+      return;
+    }
+    if (Tokenizer.equalsIgnoreCase("u", this.token, length)) {
+      this.haveRow = false;
+      if (m.getMoveCount() == 0) {
+        out.append("Nothing to undo.\n");
+      } else {
+        m.undo();
+        this.prompt(out);
+      }
+      return;
+    }
+    if (!isInt) {
+      out.append("Not a valid number: ").append(this.token, 0, length).append('\n');
+      return;
+    }
+    if (!this.haveRow) {
+      this.row = number;
+      this.haveRow = true;
+      return;
+    }
+    this.haveRow = false;
+    int col = number;
+    try {
+      m.move(this.row - 1, col - 1);
+    } catch (IllegalArgumentException e) {
+      out.append("Not a valid move: ").append(this.row).append(", ").append(col).append('\n');
+      return;
+    }
+    if (m.isGameOver()) {
+      this.gameOver(out);
+    } else {
+      this.prompt(out);
+    }
+  }
+
+  /**
+   * Add one character to the number being parsed from the current token, with the same rules
+   * and overflow checks as {@link Tokenizer#parseInt(char[], int)}.
+   */
+  private void accumulate(char ch) {
+    if (this.notAnInt) {
+      return;
+    }
+    if (!this.inToken && (ch == '-' || ch == '+')) {
+      this.negative = ch == '-';
+      return;
+    }
+    // accumulate negatively, since the negative range is one larger
+    int limit = this.negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int digit = Character.digit(ch, 10);
+    if (digit < 0 || this.value < limit / 10) {
+      this.notAnInt = true;
+      return;
+    }
+    this.value *= 10;
+    if (this.value < limit + digit) {
+      this.notAnInt = true;
+      return;
+    }
+    this.value -= digit;
+    this.hasDigit = true;
+  }
+
+  private void prompt(StringBuilder out) {
+    out.append(this.model).append('\n');
+    out.append("Enter a move for ").append(this.model.getTurn()).append(":\n");
+  }
+
+  private void gameOver(StringBuilder out) {
+    out.append(this.model).append("\nGame is over! ");
+    if (this.model.getWinner() == null) {
+      out.append("Tie game.");
+    } else {
+      out.append(this.model.getWinner()).append(" wins.");
+    }
+    this.finished = true;
+  }
+}
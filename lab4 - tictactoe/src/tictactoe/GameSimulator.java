@@ -0,0 +1,208 @@
+package tictactoe;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays large numbers of standard three-by-three games without a controller, across several
+ * threads, and collects win, draw and game length statistics. Each thread owns a
+ * {@link SplittableRandom} split from a common seed and a single {@link BitboardTicTacToe} that
+ * it resets between games, so playing a game allocates nothing. Threads count their results
+ * locally and add them to the shared totals once at the end, so they never contend.
+ */
+public class GameSimulator {
+
+  /**
+   * How a simulated player chooses its moves.
+   */
+  public enum Strategy {
+    /**
+     * Play a uniformly random empty cell.
+     */
+    RANDOM,
+    /**
+     * Play a random one of the best moves from the {@link PerfectPlayTable}.
+     */
+    PERFECT
+  }
+
+  private final Strategy x;
+  private final Strategy o;
+  private final LongAdder xWins;
+  private final LongAdder oWins;
+  private final LongAdder draws;
+  private final LongAdder moves;
+  private final LongAdder[] lengths;
+  private long elapsedNanos;
+
+  /**
+   * Constructor for a simulator where each player uses the given strategy.
+   *
+   * @param x the strategy for X.
+   * @param o the strategy for O.
+   * @throws IllegalArgumentException if either strategy is null.
+   */
+  public GameSimulator(Strategy x, Strategy o) throws IllegalArgumentException {
+    if (x == null || o == null) {
+      throw new IllegalArgumentException("Strategies cannot be null.");
+    }
+    this.x = x;
+    this.o = o;
+    this.xWins = new LongAdder();
+    this.oWins = new LongAdder();
+    this.draws = new LongAdder();
+    this.moves = new LongAdder();
+    this.lengths = new LongAdder[10];
+    for (int i = 0; i < this.lengths.length; i++) {
+      this.lengths[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Play the given number of games, split evenly across the given number of threads, and add
+   * their results to this simulator's totals.
+   *
+   * @param games   the number of games to play.
+   * @param threads the number of threads to play them on.
+   * @param seed    the seed for the random number generators.
+   * @throws IllegalArgumentException if games is negative or threads is not positive.
+   * @throws IllegalStateException if the simulation is interrupted.
+   */
+  public void run(long games, int threads, long seed) throws IllegalArgumentException,
+      IllegalStateException {
+    if (games < 0 || threads <= 0) {
+      throw new IllegalArgumentException("Invalid number of games or threads.");
+    }
+    if (this.x == Strategy.PERFECT || this.o == Strategy.PERFECT) {
+      // build the table before the clock starts
+      PerfectPlayTable.positionCount();
+    }
+
+    long start = System.nanoTime();
+    SplittableRandom root = new SplittableRandom(seed);
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      long share = games / threads + (i < games % threads ? 1 : 0);
+      SplittableRandom random = root.split();
+      workers[i] = new Thread(() -> this.play(share, random), "simulator-" + i);
+      workers[i].start();
+    }
+    try {
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Simulation interrupted.");
+    }
+    this.elapsedNanos += System.nanoTime() - start;
+  }
+
+  /**
+   * Return the number of games played.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return this.xWins.sum() + this.oWins.sum() + this.draws.sum();
+  }
+
+  /**
+   * Return the number of games won by a player.
+   *
+   * @param p the player.
+   * @return the number of games that player won
+   */
+  public long getWins(Player p) {
+    return p == Player.X ? this.xWins.sum() : this.oWins.sum();
+  }
+
+  /**
+   * Return the number of games that ended in a tie.
+   *
+   * @return the number of draws
+   */
+  public long getDraws() {
+    return this.draws.sum();
+  }
+
+  /**
+   * Return the number of games that lasted exactly the given number of moves.
+   *
+   * @param length the number of moves, from 0 to 9.
+   * @return the number of games of that length
+   */
+  public long getGamesOfLength(int length) {
+    return this.lengths[length].sum();
+  }
+
+  /**
+   * Return the average number of moves per game.
+   *
+   * @return the mean game length
+   */
+  public double getAverageLength() {
+    long games = this.getGames();
+    return games == 0 ? 0 : (double) this.moves.sum() / games;
+  }
+
+  /**
+   * Return the throughput of all calls to {@link #run(long, int, long)} so far.
+   *
+   * @return the number of games played per second
+   */
+  public double getGamesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.getGames() * 1e9 / this.elapsedNanos;
+  }
+
+  /**
+   * Play games on the calling thread, then add the results to the shared totals.
+   */
+  private void play(long games, SplittableRandom random) {
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    long xWins = 0;
+    long oWins = 0;
+    long moves = 0;
+    long[] lengths = new long[this.lengths.length];
+    for (long game = 0; game < games; game++) {
+      m.reset();
+      int length = 0;
+      while (!m.isGameOver()) {
+        Strategy strategy = m.getTurn() == Player.X ? this.x : this.o;
+        int cell = this.choose(m, strategy, random);
+        m.move(cell / 3, cell % 3);
+        length++;
+      }
+      if (m.getWinner() == Player.X) {
+        xWins++;
+      } else if (m.getWinner() == Player.O) {
+        oWins++;
+      }
+      moves += length;
+      lengths[length]++;
+    }
+    this.xWins.add(xWins);
+    this.oWins.add(oWins);
+    this.draws.add(games - xWins - oWins);
+    this.moves.add(moves);
+    for (int i = 0; i < lengths.length; i++) {
+      this.lengths[i].add(lengths[i]);
+    }
+  }
+
+  /**
+   * Choose a cell for the player to move, uniformly among the candidates of the strategy.
+   */
+  private int choose(BitboardTicTacToe m, Strategy strategy, SplittableRandom random) {
+    int candidates;
+    if (strategy == Strategy.PERFECT) {
+      candidates = PerfectPlayTable.entry(m.getXMask(), m.getOMask()) & 0x1FF;
+    } else {
+      candidates = ~(m.getXMask() | m.getOMask()) & 0x1FF;
+    }
+    for (int skip = random.nextInt(Integer.bitCount(candidates)); skip > 0; skip--) {
+      candidates &= candidates - 1;
+    }
+    return Integer.numberOfTrailingZeros(candidates);
+  }
+}
@@ -0,0 +1,141 @@
+package tictactoe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds that any number of threads can record into without
+ * locking. Each power of two is split into eight buckets, so a percentile read back is within
+ * an eighth of the true value, from one nanosecond up to the largest long. Recording costs a
+ * few atomic additions and never allocates.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKETS = 8;
+  private static final int SUB_BITS = 3;
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final LongAdder count;
+  private final LongAdder total;
+  private final LongAccumulator max;
+
+  /**
+   * Constructor for an empty histogram.
+   */
+  public LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.total = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Record one duration. A negative duration, from a clock that stepped back, counts as zero.
+   *
+   * @param nanos the duration in nanoseconds.
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    this.counts.incrementAndGet(bucketOf(value));
+    this.count.increment();
+    this.total.add(value);
+    this.max.accumulate(value);
+  }
+
+  /**
+   * Return the number of durations recorded.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /**
+   * Return the mean of the durations recorded.
+   *
+   * @return the mean in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getMean() {
+    long n = this.count.sum();
+    return n == 0 ? 0 : this.total.sum() / n;
+  }
+
+  /**
+   * Return the longest duration recorded.
+   *
+   * @return the maximum in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getMax() {
+    return this.max.get();
+  }
+
+  /**
+   * Return the duration that the given fraction of recorded durations do not exceed, to within
+   * the width of its bucket. Reading while other threads record gives a value that is close to,
+   * but not exactly, that of any one moment.
+   *
+   * @param fraction the fraction, such as 0.5 for the median or 0.99.
+   * @return the percentile in nanoseconds, or 0 if nothing has been recorded
+   * @throws IllegalArgumentException if fraction is not between 0 and 1.
+   */
+  public long getPercentile(double fraction) throws IllegalArgumentException {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1.");
+    }
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += this.counts.get(i);
+    }
+    if (seen == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * seen));
+    long below = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      below += this.counts.get(i);
+      if (below >= rank) {
+        return Math.min(upperBound(i), this.max.get());
+      }
+    }
+    return this.max.get();
+  }
+
+  /**
+   * Forget everything recorded so far.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    }
+    this.count.reset();
+    this.total.reset();
+    this.max.reset();
+  }
+
+  /**
+   * Return the bucket of a value: values below eight have one each, and every power of two
+   * above that is split into eight.
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Return the largest value that falls in a bucket.
+   */
+  private static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    return lower + (1L << (exponent - SUB_BITS)) - 1;
+  }
+}
@@ -0,0 +1,109 @@
+package tictactoe;
+
+/**
+ * The listeners registered with one game, and the methods a model calls to notify them. The
+ * listeners are held in an array that is replaced, never modified, when one is added or removed,
+ * so firing an event is a plain loop over an array that allocates nothing, and with no listeners
+ * it costs a field read. Listeners may be added and removed from any thread, including from
+ * within an event, which only affects later events.
+ */
+final class ListenerList {
+  private static final TicTacToeListener[] NONE = new TicTacToeListener[0];
+
+  private volatile TicTacToeListener[] listeners = NONE;
+
+  /**
+   * Add a listener, which may be added more than once.
+   *
+   * @param listener the listener.
+   * @throws IllegalArgumentException if listener is null.
+   */
+  synchronized void add(TicTacToeListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null.");
+    }
+    TicTacToeListener[] current = this.listeners;
+    TicTacToeListener[] larger = new TicTacToeListener[current.length + 1];
+    System.arraycopy(current, 0, larger, 0, current.length);
+    larger[current.length] = listener;
+    this.listeners = larger;
+  }
+
+  /**
+   * Remove the most recently added registration of a listener, if it has one.
+   *
+   * @param listener the listener.
+   */
+  synchronized void remove(TicTacToeListener listener) {
+    TicTacToeListener[] current = this.listeners;
+    for (int i = current.length - 1; i >= 0; i--) {
+      if (current[i] == listener) {
+        TicTacToeListener[] smaller = current.length == 1 ? NONE
+            : new TicTacToeListener[current.length - 1];
+        System.arraycopy(current, 0, smaller, 0, i);
+        System.arraycopy(current, i + 1, smaller, i, current.length - i - 1);
+        this.listeners = smaller;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Return whether there are no listeners, so a model can skip work done only for them.
+   *
+   * @return true if no listener is registered
+   */
+  boolean isEmpty() {
+    return this.listeners.length == 0;
+  }
+
+  /**
+   * Notify the listeners of a move, then of the game ending or the turn passing to the other
+   * player.
+   *
+   * @param r        the row of the move.
+   * @param c        the column of the move.
+   * @param player   the player who moved.
+   * @param gameOver whether the move ended the game.
+   * @param winner   the winner if the move ended the game, otherwise ignored.
+   */
+  void fireMove(int r, int c, Player player, boolean gameOver, Player winner) {
+    TicTacToeListener[] current = this.listeners;
+    if (current.length == 0) {
+      return;
+    }
+    for (TicTacToeListener listener : current) {
+      listener.movePlaced(r, c, player);
+    }
+    if (gameOver) {
+      for (TicTacToeListener listener : current) {
+        listener.gameEnded(winner);
+      }
+    } else {
+      Player turn = player == Player.X ? Player.O : Player.X;
+      for (TicTacToeListener listener : current) {
+        listener.turnChanged(turn);
+      }
+    }
+  }
+
+  /**
+   * Notify the listeners of a move taken back, then of the turn passing back.
+   *
+   * @param r      the row of the move.
+   * @param c      the column of the move.
+   * @param player the player whose move was taken back, who is now to move.
+   */
+  void fireUndo(int r, int c, Player player) {
+    TicTacToeListener[] current = this.listeners;
+    if (current.length == 0) {
+      return;
+    }
+    for (TicTacToeListener listener : current) {
+      listener.moveUndone(r, c, player);
+    }
+    for (TicTacToeListener listener : current) {
+      listener.turnChanged(player);
+    }
+  }
+}
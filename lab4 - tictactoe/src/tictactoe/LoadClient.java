@@ -0,0 +1,259 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Puts load on a {@link TicTacToeServer}. The client holds the given number of connections
+ * open at once from a single thread, and on each plays random legal moves for both sides,
+ * sending a move as soon as the server's prompt arrives, until every connection has played its
+ * share of games. It reports the most connections held at once, the moves per second, and
+ * percentiles of the time from sending a move to receiving the server's complete response.
+ */
+public class LoadClient {
+  private static final int BUCKET_NANOS = 10_000;
+  private static final int BUCKETS = 100_000;
+
+  private final InetSocketAddress address;
+  private final int connections;
+  private final int gamesPerConnection;
+  private final SplittableRandom random;
+  private final long[] latencies;
+  private final ByteBuffer buffer;
+  private final byte[] move;
+  private int open;
+  private int peakConnections;
+  private long games;
+  private long moves;
+  private long elapsedNanos;
+
+  /**
+   * The state of one connection's games.
+   */
+  private static final class Game {
+    private final BitboardTicTacToe model = new BitboardTicTacToe();
+    private int gamesLeft;
+    private byte last;
+    private long sentAt;
+  }
+
+  /**
+   * Constructor for a load client.
+   *
+   * @param address            the server's address.
+   * @param connections        the number of connections to hold open at once.
+   * @param gamesPerConnection the number of games to play on each, one after another.
+   * @param seed               the seed for choosing moves.
+   * @throws IllegalArgumentException if address is null or a count is not positive.
+   */
+  public LoadClient(InetSocketAddress address, int connections, int gamesPerConnection,
+      long seed) throws IllegalArgumentException {
+    if (address == null || connections <= 0 || gamesPerConnection <= 0) {
+      throw new IllegalArgumentException("Invalid load.");
+    }
+    this.address = address;
+    this.connections = connections;
+    this.gamesPerConnection = gamesPerConnection;
+    this.random = new SplittableRandom(seed);
+    this.latencies = new long[BUCKETS + 1];
+    this.buffer = ByteBuffer.allocateDirect(1 << 14);
+    this.move = new byte[] {0, ' ', 0, '\n'};
+  }
+
+  /**
+   * Play every game and return once they have all ended.
+   *
+   * @throws IllegalStateException if a connection fails.
+   */
+  public void run() throws IllegalStateException {
+    long start = System.nanoTime();
+    try (Selector selector = Selector.open()) {
+      for (int i = 0; i < this.connections; i++) {
+        Game game = new Game();
+        game.gamesLeft = this.gamesPerConnection;
+        this.connect(selector, game);
+      }
+      while (this.open > 0) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isConnectable()) {
+            ((SocketChannel) key.channel()).finishConnect();
+            key.interestOps(SelectionKey.OP_READ);
+          } else if (key.isReadable()) {
+            this.read(selector, key);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Connection failed.");
+    }
+    this.elapsedNanos += System.nanoTime() - start;
+  }
+
+  /**
+   * Return the number of games played to the end.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return this.games;
+  }
+
+  /**
+   * Return the number of moves sent.
+   *
+   * @return the number of moves
+   */
+  public long getMoves() {
+    return this.moves;
+  }
+
+  /**
+   * Return the largest number of connections that were open at once.
+   *
+   * @return the peak number of connections
+   */
+  public int getPeakConnections() {
+    return this.peakConnections;
+  }
+
+  /**
+   * Return the rate at which moves were played.
+   *
+   * @return the number of moves per second
+   */
+  public double getMovesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.moves * 1e9 / this.elapsedNanos;
+  }
+
+  /**
+   * Return a percentile of move latency, the time from sending a move to receiving the server's
+   * full response, to a resolution of ten microseconds.
+   *
+   * @param percentile the percentile, from 0 to 100.
+   * @return the latency in nanoseconds at or below which that share of moves completed
+   */
+  public long getLatencyPercentile(double percentile) {
+    long total = 0;
+    for (long count : this.latencies) {
+      total += count;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int bucket = 0; bucket < this.latencies.length; bucket++) {
+      seen += this.latencies[bucket];
+      if (seen >= rank && seen > 0) {
+        return (bucket + 1L) * BUCKET_NANOS;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Run the load client against a server and print a report. The arguments are the host and
+   * port of the server (default localhost:4444), the number of connections (default 1000) and
+   * the number of games per connection (default 10).
+   *
+   * @param args command-line arguments.
+   */
+  public static void main(String[] args) {
+    String host = args.length > 0 ? args[0] : "localhost";
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : 4444;
+    int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+    int games = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+    LoadClient client = new LoadClient(new InetSocketAddress(host, port), connections, games,
+        System.nanoTime());
+    client.run();
+    System.out.println("Connections held: " + client.getPeakConnections());
+    System.out.println("Games: " + client.getGames() + ", moves: " + client.getMoves());
+    System.out.println(String.format("Throughput: %.0f moves/s", client.getMovesPerSecond()));
+    System.out.println(String.format("Move latency: p50 %.2f ms, p99 %.2f ms",
+        client.getLatencyPercentile(50) / 1e6, client.getLatencyPercentile(99) / 1e6));
+  }
+
+  private void connect(Selector selector, Game game) throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    channel.configureBlocking(false);
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    game.model.reset();
+    game.last = 0;
+    game.sentAt = 0;
+    if (channel.connect(this.address)) {
+      channel.register(selector, SelectionKey.OP_READ, game);
+    } else {
+      channel.register(selector, SelectionKey.OP_CONNECT, game);
+    }
+    this.open++;
+    this.peakConnections = Math.max(this.peakConnections, this.open);
+  }
+
+  private void read(Selector selector, SelectionKey key) throws IOException {
+    Game game = (Game) key.attachment();
+    SocketChannel channel = (SocketChannel) key.channel();
+    this.buffer.clear();
+    int count = channel.read(this.buffer);
+    if (count < 0) {
+      // the server closes the connection when the game ends
+      this.record(game);
+      key.cancel();
+      channel.close();
+      this.open--;
+      this.games++;
+      if (--game.gamesLeft > 0) {
+        this.connect(selector, game);
+      }
+      return;
+    }
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      byte b = this.buffer.get();
+      if (b == '\n' && game.last == ':') {
+        this.record(game);
+        this.play(channel, game);
+      }
+      game.last = b;
+    }
+  }
+
+  /**
+   * Send a random legal move, and play it on the client's copy of the game.
+   */
+  private void play(SocketChannel channel, Game game) throws IOException {
+    int free = ~(game.model.getXMask() | game.model.getOMask()) & 0x1FF;
+    for (int skip = this.random.nextInt(Integer.bitCount(free)); skip > 0; skip--) {
+      free &= free - 1;
+    }
+    int cell = Integer.numberOfTrailingZeros(free);
+    game.model.move(cell / 3, cell % 3);
+    this.move[0] = (byte) ('1' + cell / 3);
+    this.move[2] = (byte) ('1' + cell % 3);
+    ByteBuffer out = ByteBuffer.wrap(this.move);
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    game.sentAt = System.nanoTime();
+    this.moves++;
+  }
+
+  /**
+   * Record the latency of the move awaiting a response, if there is one.
+   */
+  private void record(Game game) {
+    if (game.sentAt != 0) {
+      long bucket = (System.nanoTime() - game.sentAt) / BUCKET_NANOS;
+      this.latencies[(int) Math.min(bucket, BUCKETS)]++;
+      game.sentAt = 0;
+    }
+  }
+}
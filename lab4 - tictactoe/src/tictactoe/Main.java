@@ -1,20 +1,41 @@
 package tictactoe;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
- * Run a TicTacToe game interactively on the console.
+ * Run a TicTacToe game interactively in a window.
  */
 public class Main {
-    /**
-     * Run a TicTacToe game interactively on the console.
-     *
-     * @param args not used
-     */
-    public static void main(String[] args) {
-      TicTacToe m = new TicTacToeModel();
-      TicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe");
-      TicTacToeController c = new SwingTicTacToeController(v, m);
-      c.playGame();
+  /**
+   * Run a TicTacToe game interactively in a window. Pass {@code -x} and/or {@code -o} to have
+   * the engine play that side, and {@code ROWS COLUMNS K} to play a larger m,n,k game, where
+   * the engine looks six moves ahead.
+   *
+   * @param args command-line arguments.
+   */
+  public static void main(String[] args) {
+    Set<Player> enginePlayers = EnumSet.noneOf(Player.class);
+    int[] size = {3, 3, 3};
+    int sizes = 0;
+    for (String arg : args) {
+      if ("-x".equalsIgnoreCase(arg)) {
+        enginePlayers.add(Player.X);
+      } else if ("-o".equalsIgnoreCase(arg)) {
+        enginePlayers.add(Player.O);
+      } else if (sizes < size.length) {
+        size[sizes++] = Integer.parseInt(arg);
+      }
+    }
+    boolean standard = size[0] == 3 && size[1] == 3 && size[2] == 3;
+    TicTacToe m = standard ? new TicTacToeModel() : new MnkTicTacToe(size[0], size[1], size[2]);
+    TicTacToeSolver engine = null;
+    if (!enginePlayers.isEmpty()) {
+      // a full search of a larger board would never finish, so look a few moves ahead instead
+      engine = standard ? new TicTacToeSolver() : new TicTacToeSolver(6, 20);
     }
+    SwingTicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe");
+    TicTacToeController c = new SwingTicTacToeController(v, engine, enginePlayers);
+    c.playGame(m);
   }
-
 }
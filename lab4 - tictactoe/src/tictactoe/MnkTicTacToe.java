@@ -0,0 +1,269 @@
+package tictactoe;
+
+/**
+ * This class represents a single generalized m,n,k game: two players take turns marking a board
+ * with a configurable number of rows and columns, and the first to place k markers in a row
+ * vertically, horizontally or diagonally wins. The board is stored as one byte per cell. After
+ * each move only the four directions through the placed marker are scanned, so detecting a win
+ * costs O(k) regardless of the board size.
+ */
+public class MnkTicTacToe implements TicTacToe {
+  private static final byte EMPTY = 0;
+  private static final Player[] MARKS = {null, Player.X, Player.O};
+
+  /**
+   * Row and column steps for the four line directions: horizontal, vertical, and the two
+   * diagonals. The opposite directions are covered by negating the steps.
+   */
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+  private final int rows;
+  private final int columns;
+  private final int winLength;
+  private final byte[] cells;
+  private final long[] keys;
+  private final BoardRenderer renderer;
+  private final ListenerList listeners;
+  private final int[] history;
+  private Player turn;
+  private Player winner;
+  private int moveCount;
+  private int historyLength;
+  private boolean gameOver;
+  private long hash;
+
+  /**
+   * Constructor to create a new m,n,k game with an empty board, X to move and no winner.
+   *
+   * @param rows      the number of rows on the board.
+   * @param columns   the number of columns on the board.
+   * @param winLength the number of markers in a row needed to win.
+   * @throws IllegalArgumentException if any dimension is not positive, or if the win length
+   *                                  does not fit on the board.
+   */
+  public MnkTicTacToe(int rows, int columns, int winLength) throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0 || winLength <= 0) {
+      throw new IllegalArgumentException("Board dimensions and win length must be positive.");
+    }
+    if (winLength > Math.max(rows, columns)) {
+      throw new IllegalArgumentException("Win length does not fit on the board.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.winLength = winLength;
+    this.cells = new byte[rows * columns];
+    this.keys = Zobrist.keys(rows * columns);
+    this.turn = Player.X;
+    this.winner = null;
+    this.moveCount = 0;
+    this.gameOver = false;
+    this.hash = 0;
+    this.renderer = new BoardRenderer(rows, columns);
+    this.listeners = new ListenerList();
+    this.history = new int[rows * columns];
+    this.historyLength = 0;
+  }
+
+  @Override
+  public void move(int r, int c) {
+    if (this.gameOver) {
+      throw new IllegalStateException("The game is over!");
+    }
+    if (this.checkOutOfBounds(r, c)) {
+      throw new IllegalArgumentException("Chosen position is out of bounds.");
+    }
+    int cell = r * this.columns + c;
+    if (this.cells[cell] != EMPTY) {
+      throw new IllegalArgumentException("The chosen position is occupied.");
+    }
+
+    byte mark = (byte) (this.turn.ordinal() + 1);
+    this.cells[cell] = mark;
+    this.renderer.set(r, c, this.turn);
+    this.hash ^= this.keys[2 * cell + this.turn.ordinal()] ^ Zobrist.SIDE;
+    this.history[this.moveCount] = cell;
+    this.moveCount++;
+    this.historyLength = this.moveCount;
+    if (this.checkWin(r, c, mark)) {
+      this.winner = this.turn;
+      this.gameOver = true;
+    } else if (this.moveCount == this.cells.length) {
+      this.gameOver = true;
+    }
+
+    this.turn = this.turn == Player.X ? Player.O : Player.X;
+    this.listeners.fireMove(r, c, MARKS[mark], this.gameOver, this.winner);
+  }
+
+  @Override
+  public Player getTurn() {
+    return this.turn;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.gameOver;
+  }
+
+  @Override
+  public Player getWinner() {
+    return this.winner;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] board = new Player[this.rows][this.columns];
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.columns; col++) {
+        board[row][col] = MARKS[this.cells[row * this.columns + col]];
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    if (this.checkOutOfBounds(r, c)) {
+      throw new IllegalArgumentException("Invalid row or column.");
+    }
+    return MARKS[this.cells[r * this.columns + c]];
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    for (int cell = 0; cell < this.cells.length; cell++) {
+      visitor.visit(cell / this.columns, cell % this.columns, MARKS[this.cells[cell]]);
+    }
+  }
+
+  @Override
+  public int getRows() {
+    return this.rows;
+  }
+
+  @Override
+  public int getColumns() {
+    return this.columns;
+  }
+
+  @Override
+  public int getWinLength() {
+    return this.winLength;
+  }
+
+  @Override
+  public long getHash() {
+    return this.hash;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("No moves to undo.");
+    }
+    this.moveCount--;
+    int cell = this.history[this.moveCount];
+    Player p = MARKS[this.cells[cell]];
+    this.cells[cell] = EMPTY;
+    this.renderer.set(cell / this.columns, cell % this.columns, null);
+    this.hash ^= this.keys[2 * cell + p.ordinal()] ^ Zobrist.SIDE;
+    this.turn = p;
+    this.winner = null;
+    this.gameOver = false;
+    this.listeners.fireUndo(cell / this.columns, cell % this.columns, p);
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historyLength) {
+      throw new IllegalStateException("No moves to redo.");
+    }
+    int length = this.historyLength;
+    int cell = this.history[this.moveCount];
+    this.move(cell / this.columns, cell % this.columns);
+    this.historyLength = length;
+  }
+
+  @Override
+  public int getMoveCount() {
+    return this.moveCount;
+  }
+
+  @Override
+  public int getMove(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= this.moveCount) {
+      throw new IllegalArgumentException("No such move.");
+    }
+    return this.history[index];
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  @Override
+  public String toString() {
+    return this.renderer.toString();
+  }
+
+  /**
+   * Checks if the given row and column are outside the bounds of the game board.
+   *
+   * @param row the row to check.
+   * @param col the column to check.
+   * @return true if the given row and column are out of bounds, false otherwise.
+   */
+  private boolean checkOutOfBounds(int row, int col) {
+    return row < 0 || row >= this.rows || col < 0 || col >= this.columns;
+  }
+
+  /**
+   * Checks if the mark just placed at the given row and column completes a run of the win
+   * length, by counting matching marks outward from that cell in each of the four directions.
+   *
+   * @param row  the row of the last move.
+   * @param col  the column of the last move.
+   * @param mark the mark that was placed.
+   * @return true if the last move won the game, false otherwise.
+   */
+  private boolean checkWin(int row, int col, byte mark) {
+    for (int[] dir : DIRECTIONS) {
+      int run = 1 + this.countRun(row, col, dir[0], dir[1], mark)
+          + this.countRun(row, col, -dir[0], -dir[1], mark);
+      if (run >= this.winLength) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts consecutive cells holding the given mark, starting next to the given cell and moving
+   * in one direction. Stops after {@code winLength - 1} cells since a longer run is not needed.
+   *
+   * @param row  the starting row.
+   * @param col  the starting column.
+   * @param dr   the row step.
+   * @param dc   the column step.
+   * @param mark the mark to match.
+   * @return the number of matching cells in that direction.
+   */
+  private int countRun(int row, int col, int dr, int dc, byte mark) {
+    int count = 0;
+    int r = row + dr;
+    int c = col + dc;
+    while (count < this.winLength - 1 && r >= 0 && r < this.rows && c >= 0 && c < this.columns
+        && this.cells[r * this.columns + c] == mark) {
+      count++;
+      r += dr;
+      c += dc;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,274 @@
+package tictactoe;
+
+/**
+ * The game-theoretic value and best moves of every position of the standard three-by-three game,
+ * so perfect play is a table lookup instead of a search. The table is built on first use by
+ * enumerating every position reachable from the empty board (5,478 of them) and is stored as one
+ * {@code short} per base-3 board key: cell {@code (r, c)} contributes {@code 3^(3r+c)} times 1
+ * for X or 2 for O.
+ *
+ * <p>Each entry holds a reachable flag, the value of the position for the player to move, and a
+ * 9-bit mask of every move that achieves that value.
+ */
+public final class PerfectPlayTable {
+  private static final int SIZE = 19683;
+  private static final int REACHABLE = 1 << 15;
+  private static final int VALUE_SHIFT = 9;
+  private static final int MOVES = 0x1FF;
+  private static final int WIN = 1;
+  private static final int LOSS = 2;
+
+  private static final int[] LINES = {
+    0x007, 0x038, 0x1C0,
+    0x049, 0x092, 0x124,
+    0x111, 0x054
+  };
+
+  /**
+   * The cells from the center outward, the order in which {@link TicTacToeSolver} tries moves.
+   */
+  private static final int[] CENTER_OUT = {4, 1, 3, 5, 7, 0, 2, 6, 8};
+
+  /**
+   * For every 9-bit mask, the base-3 key of a board with X on exactly those cells. The key of a
+   * full position is {@code TERNARY[xMask] + 2 * TERNARY[oMask]}.
+   */
+  private static final int[] TERNARY = new int[512];
+
+  static {
+    for (int mask = 0; mask < 512; mask++) {
+      int key = 0;
+      for (int cell = 8; cell >= 0; cell--) {
+        key = 3 * key + ((mask >> cell) & 1);
+      }
+      TERNARY[mask] = key;
+    }
+  }
+
+  private PerfectPlayTable() {
+  }
+
+  /**
+   * Holder for the table, so it is built the first time it is needed.
+   */
+  private static final class Table {
+    static final short[] ENTRIES = new short[SIZE];
+    static final long BUILD_NANOS;
+    static final int POSITIONS;
+
+    static {
+      long start = System.nanoTime();
+      solve(0, 0);
+      int count = 0;
+      for (short entry : ENTRIES) {
+        if ((entry & REACHABLE) != 0) {
+          count++;
+        }
+      }
+      POSITIONS = count;
+      BUILD_NANOS = System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Return the value of a position for the player whose turn it is.
+   *
+   * @param m a standard three-by-three game.
+   * @return 1 if the player to move can force a win, -1 if they lose against perfect play, and 0
+   *         if the game is drawn with perfect play or is already a tie
+   * @throws IllegalArgumentException if the game is not a three-by-three, three-in-a-row game,
+   *                                  or its position cannot arise in play.
+   */
+  public static int value(TicTacToe m) throws IllegalArgumentException {
+    int value = (entry(m) >> VALUE_SHIFT) & 3;
+    return value == WIN ? 1 : value == LOSS ? -1 : 0;
+  }
+
+  /**
+   * Return one of the best moves for the player whose turn it is.
+   *
+   * @param m a standard three-by-three game that is not over.
+   * @return the move as {@code {row, col}}, zero-based
+   * @throws IllegalArgumentException if the game is not a three-by-three, three-in-a-row game,
+   *                                  or its position cannot arise in play.
+   * @throws IllegalStateException if the game is over.
+   */
+  public static int[] bestMove(TicTacToe m) throws IllegalArgumentException,
+      IllegalStateException {
+    int cell = bestCell(entry(m));
+    if (cell < 0) {
+      throw new IllegalStateException("The game is over!");
+    }
+    return new int[] {cell / 3, cell % 3};
+  }
+
+  /**
+   * Return every best move for the player whose turn it is, as a mask in which cell
+   * {@code (r, c)} is bit {@code 3 * r + c}.
+   *
+   * @param m a standard three-by-three game.
+   * @return the mask of best moves, or 0 if the game is over
+   * @throws IllegalArgumentException if the game is not a three-by-three, three-in-a-row game,
+   *                                  or its position cannot arise in play.
+   */
+  public static int bestMoves(TicTacToe m) throws IllegalArgumentException {
+    return entry(m) & MOVES;
+  }
+
+  /**
+   * Return the number of reachable positions in the table, including finished games.
+   *
+   * @return the number of positions
+   */
+  public static int positionCount() {
+    return Table.POSITIONS;
+  }
+
+  /**
+   * Return the memory used by the table's entries.
+   *
+   * @return the size in bytes
+   */
+  public static long sizeInBytes() {
+    return 2L * Table.ENTRIES.length;
+  }
+
+  /**
+   * Return how long it took to build the table on first use.
+   *
+   * @return the build time in nanoseconds
+   */
+  public static long getBuildNanos() {
+    return Table.BUILD_NANOS;
+  }
+
+  /**
+   * Return the best cell for the player to move, chosen as {@link TicTacToeSolver} would: a
+   * best cell that wins at once if there is one, otherwise the best cell nearest the center.
+   *
+   * @return the cell, numbered row by row, or -1 if the game is over
+   * @throws IllegalArgumentException if the game is not a three-by-three, three-in-a-row game,
+   *                                  or its position cannot arise in play.
+   */
+  static int preferredCell(TicTacToe m) throws IllegalArgumentException {
+    int moves = entry(m) & MOVES;
+    Player turn = m.getTurn();
+    int mine = 0;
+    for (int cell = 0; cell < 9; cell++) {
+      if (m.getMarkAt(cell / 3, cell % 3) == turn) {
+        mine |= 1 << cell;
+      }
+    }
+    int best = -1;
+    for (int cell : CENTER_OUT) {
+      if ((moves & (1 << cell)) != 0) {
+        if (hasLine(mine | (1 << cell))) {
+          return cell;
+        }
+        if (best < 0) {
+          best = cell;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Return the table entry for a board given as X and O masks. No checks are made.
+   */
+  static int entry(int xMask, int oMask) {
+    return Table.ENTRIES[TERNARY[xMask] + 2 * TERNARY[oMask]];
+  }
+
+  /**
+   * Return the best cell of a table entry: the lowest cell in its move mask, or -1 if none.
+   */
+  static int bestCell(int entry) {
+    int moves = entry & MOVES;
+    return moves == 0 ? -1 : Integer.numberOfTrailingZeros(moves);
+  }
+
+  private static int entry(TicTacToe m) throws IllegalArgumentException {
+    int xMask;
+    int oMask;
+    if (m instanceof BitboardTicTacToe) {
+      xMask = ((BitboardTicTacToe) m).getXMask();
+      oMask = ((BitboardTicTacToe) m).getOMask();
+    } else {
+      if (m.getRows() != 3 || m.getColumns() != 3 || m.getWinLength() != 3) {
+        throw new IllegalArgumentException("Only the three-by-three game is tabled.");
+      }
+      xMask = 0;
+      oMask = 0;
+      for (int cell = 0; cell < 9; cell++) {
+        Player p = m.getMarkAt(cell / 3, cell % 3);
+        if (p == Player.X) {
+          xMask |= 1 << cell;
+        } else if (p == Player.O) {
+          oMask |= 1 << cell;
+        }
+      }
+    }
+    int entry = entry(xMask, oMask);
+    if ((entry & REACHABLE) == 0) {
+      throw new IllegalArgumentException("Position cannot arise in play.");
+    }
+    return entry;
+  }
+
+  /**
+   * Solve the position with the given masks, where the player to move owns {@code mine}, filling
+   * in its entry and those of every position reachable from it.
+   *
+   * @return the value of the position for the player to move
+   */
+  private static int solve(int mine, int theirs) {
+    boolean xToMove = Integer.bitCount(mine) == Integer.bitCount(theirs);
+    int key = xToMove
+        ? TERNARY[mine] + 2 * TERNARY[theirs]
+        : TERNARY[theirs] + 2 * TERNARY[mine];
+    short entry = Table.ENTRIES[key];
+    if ((entry & REACHABLE) != 0) {
+      return (entry >> VALUE_SHIFT) & 3;
+    }
+
+    int value;
+    int moves = 0;
+    if (hasLine(theirs)) {
+      value = LOSS;
+    } else if ((mine | theirs) == MOVES) {
+      value = 0;
+    } else {
+      value = LOSS;
+      for (int cell = 0; cell < 9; cell++) {
+        int bit = 1 << cell;
+        if (((mine | theirs) & bit) != 0) {
+          continue;
+        }
+        int reply = solve(theirs, mine | bit);
+        int result = reply == LOSS ? WIN : reply == WIN ? LOSS : 0;
+        if (rank(result) > rank(value)) {
+          value = result;
+          moves = bit;
+        } else if (result == value) {
+          moves |= bit;
+        }
+      }
+    }
+    Table.ENTRIES[key] = (short) (REACHABLE | (value << VALUE_SHIFT) | moves);
+    return value;
+  }
+
+  private static int rank(int value) {
+    return value == WIN ? 2 : value == LOSS ? 0 : 1;
+  }
+
+  private static boolean hasLine(int mask) {
+    for (int line : LINES) {
+      if ((mask & line) == line) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
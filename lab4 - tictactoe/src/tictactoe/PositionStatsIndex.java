@@ -0,0 +1,334 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A persistent index of how many recorded games passed through each position and how they
+ * ended. The index is a file holding an open-addressing hash table, memory-mapped for reading
+ * and writing, so it is loaded without parsing and every update goes straight to the mapping.
+ * Positions are keyed by their {@link BoardSymmetry#canonicalKey(TicTacToe) canonical key}, so
+ * rotations and reflections of a position share one entry.
+ *
+ * <p>The file starts with a 32-byte header: a magic number, the board's rows and columns, the
+ * base-2 logarithm of the number of slots and the number of slots in use. Each 32-byte slot
+ * then holds the canonical key with its lowest bit set (0 marks an empty slot), followed by the
+ * X win, O win and draw counts. Slots are found by linear probing from a mixed hash of the key.
+ * The index is not safe for use by several threads or processes at once.
+ */
+public class PositionStatsIndex implements Closeable {
+  private static final long MAGIC = 0x3130584449545454L; // "TTTIDX01"
+  private static final int HEADER_SIZE = 32;
+  private static final int SLOT_SIZE = 32;
+  private static final int USED_OFFSET = 24;
+  private static final int MAX_BITS = 25;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer map;
+  private final BoardSymmetry symmetry;
+  private final int mask;
+  private final long[] keys;
+  private final long[] path;
+  private final BitboardTicTacToe replay;
+  private long used;
+
+  /**
+   * Constructor for an index stored in the given file. If the file is empty or does not exist, a
+   * new index is created with {@code 2^capacityBits} slots; otherwise the existing index is
+   * opened and keeps its own capacity.
+   *
+   * @param file         the index file.
+   * @param rows         the number of rows of the indexed boards.
+   * @param columns      the number of columns of the indexed boards.
+   * @param capacityBits the base-2 logarithm of the number of slots of a new index.
+   * @throws IllegalArgumentException if an argument is invalid, or if the file is not an index
+   *                                  of boards with this shape.
+   * @throws IllegalStateException if the file cannot be opened.
+   */
+  public PositionStatsIndex(Path file, int rows, int columns, int capacityBits)
+      throws IllegalArgumentException, IllegalStateException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    if (capacityBits < 1 || capacityBits > MAX_BITS) {
+      throw new IllegalArgumentException("Capacity must be between 2^1 and 2^25 slots.");
+    }
+    this.symmetry = new BoardSymmetry(rows, columns);
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      boolean created = channel.size() == 0;
+      int bits = capacityBits;
+      if (!created) {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+            Math.min(HEADER_SIZE, channel.size()));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.limit() < HEADER_SIZE || header.getLong(0) != MAGIC) {
+          throw new IllegalArgumentException("Not a position index file.");
+        }
+        if (header.getInt(8) != rows || header.getInt(12) != columns) {
+          throw new IllegalArgumentException("Board shape does not match.");
+        }
+        bits = header.getInt(16);
+        if (bits < 1 || bits > MAX_BITS
+            || channel.size() != HEADER_SIZE + ((long) SLOT_SIZE << bits)) {
+          throw new IllegalArgumentException("Index file size does not match its header.");
+        }
+      }
+      this.channel = channel;
+      this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+          HEADER_SIZE + ((long) SLOT_SIZE << bits));
+      this.map.order(ByteOrder.LITTLE_ENDIAN);
+      if (created) {
+        this.map.putLong(0, MAGIC);
+        this.map.putInt(8, rows);
+        this.map.putInt(12, columns);
+        this.map.putInt(16, bits);
+      }
+      this.mask = (1 << bits) - 1;
+      this.used = this.map.getLong(USED_OFFSET);
+    } catch (IOException | IllegalArgumentException e) {
+      closeQuietly(channel);
+      if (e instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e;
+      }
+      throw new IllegalStateException("Open failed.");
+    }
+    this.keys = new long[this.symmetry.size()];
+    this.path = new long[rows * columns + 1];
+    this.replay = rows == 3 && columns == 3 ? new BitboardTicTacToe() : null;
+  }
+
+  /**
+   * Add one game's result to every position it passed through, from the empty board to the
+   * final position. Unfinished games are not counted. The whole game is replayed and checked
+   * for room in the index before anything is counted, so a game that is rejected leaves the
+   * index unchanged.
+   *
+   * @param record a {@link GameRecord game record}.
+   * @return true if the game was counted, false if it was unfinished
+   * @throws IllegalStateException if the index does not hold three-by-three boards, the record
+   *                               is not a legal game, the index is full, or the file is
+   *                               corrupt.
+   */
+  public boolean add(long record) throws IllegalStateException {
+    if (this.replay == null) {
+      throw new IllegalStateException("Records only hold three-by-three games.");
+    }
+    int result = GameRecord.result(record);
+    if (result == GameRecord.UNFINISHED) {
+      return false;
+    }
+    Arrays.fill(this.keys, 0);
+    this.replay.reset();
+    this.path[0] = this.symmetry.canonicalKey(this.keys);
+    int count = GameRecord.moveCount(record);
+    for (int i = 0; i < count; i++) {
+      int cell = GameRecord.move(record, i);
+      Player p = this.replay.getTurn();
+      try {
+        this.replay.move(cell / 3, cell % 3);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("Illegal game record.");
+      }
+      for (int t = 0; t < this.keys.length; t++) {
+        this.keys[t] = this.symmetry.place(this.keys[t], t, cell, p);
+      }
+      this.path[i + 1] = this.symmetry.canonicalKey(this.keys);
+    }
+
+    // positions in one game hold different numbers of marks, so their keys are all distinct
+    long added = 0;
+    for (int i = 0; i <= count; i++) {
+      if (this.find(this.path[i]) < 0) {
+        added++;
+      }
+    }
+    if (this.used + added > (this.mask + 1L) * 3 / 4) {
+      throw new IllegalStateException("Index is full.");
+    }
+    int counter = 8 * result;
+    for (int i = 0; i <= count; i++) {
+      this.increment(this.path[i], counter);
+    }
+    return true;
+  }
+
+  /**
+   * Add every finished game read from a record file.
+   *
+   * @param reader a reader positioned before the first record to add.
+   * @return the number of games counted
+   * @throws IllegalStateException if a record is malformed, the index is full, or the file is
+   *                               corrupt.
+   */
+  public long addAll(GameRecordReader reader) throws IllegalStateException {
+    long added = 0;
+    while (reader.next()) {
+      if (this.add(reader.record())) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Return the number of indexed games that passed through a position or any of its rotations
+   * and reflections.
+   *
+   * @param m a game in the position.
+   * @return the number of games
+   * @throws IllegalArgumentException if the board has a different shape.
+   * @throws IllegalStateException if the file is corrupt.
+   */
+  public long getGames(TicTacToe m) throws IllegalArgumentException, IllegalStateException {
+    int slot = this.find(this.symmetry.canonicalKey(m));
+    if (slot < 0) {
+      return 0;
+    }
+    int offset = HEADER_SIZE + slot * SLOT_SIZE;
+    return this.map.getLong(offset + 8) + this.map.getLong(offset + 16)
+        + this.map.getLong(offset + 24);
+  }
+
+  /**
+   * Return the number of indexed games through a position that a player went on to win.
+   *
+   * @param m a game in the position.
+   * @param p the player.
+   * @return the number of games won by that player
+   * @throws IllegalArgumentException if the board has a different shape.
+   * @throws IllegalStateException if the file is corrupt.
+   */
+  public long getWins(TicTacToe m, Player p)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.count(m, 8 * (p == Player.X ? GameRecord.X_WINS : GameRecord.O_WINS));
+  }
+
+  /**
+   * Return the number of indexed games through a position that went on to a tie.
+   *
+   * @param m a game in the position.
+   * @return the number of draws
+   * @throws IllegalArgumentException if the board has a different shape.
+   * @throws IllegalStateException if the file is corrupt.
+   */
+  public long getDraws(TicTacToe m) throws IllegalArgumentException, IllegalStateException {
+    return this.count(m, 8 * GameRecord.DRAW);
+  }
+
+  /**
+   * Return the number of distinct positions in the index.
+   *
+   * @return the number of occupied slots
+   */
+  public long getPositionCount() {
+    return this.used;
+  }
+
+  /**
+   * Return the size of the index file.
+   *
+   * @return the size in bytes
+   */
+  public long sizeInBytes() {
+    return this.map.capacity();
+  }
+
+  /**
+   * Write all changes to the file.
+   */
+  public void flush() {
+    this.map.force();
+  }
+
+  /**
+   * Write all changes to the file and close it.
+   *
+   * @throws IllegalStateException if closing fails.
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    if (!this.channel.isOpen()) {
+      return;
+    }
+    this.flush();
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      throw new IllegalStateException("Close failed.");
+    }
+  }
+
+  /**
+   * Return one counter of the entry for a game's position, or 0 if it is not in the index.
+   */
+  private long count(TicTacToe m, int counter) {
+    int slot = this.find(this.symmetry.canonicalKey(m));
+    return slot < 0 ? 0 : this.map.getLong(HEADER_SIZE + slot * SLOT_SIZE + counter);
+  }
+
+  /**
+   * Return the slot holding a key, or -1 if the key is not in the index. A table with no empty
+   * slot can only come from a corrupt file, so the search stops after visiting every slot.
+   */
+  private int find(long key) throws IllegalStateException {
+    long stored = key | 1;
+    int slot = (int) Zobrist.mix(key) & this.mask;
+    for (int probe = 0; probe <= this.mask; probe++) {
+      long found = this.map.getLong(HEADER_SIZE + slot * SLOT_SIZE);
+      if (found == stored) {
+        return slot;
+      }
+      if (found == 0) {
+        return -1;
+      }
+      slot = (slot + 1) & this.mask;
+    }
+    throw new IllegalStateException("Index file is corrupt.");
+  }
+
+  /**
+   * Add one to a counter of a key, inserting the key if it is new. The caller has checked that
+   * there is room for it, and the count of slots in use is written to the file with the key.
+   */
+  private void increment(long key, int counter) throws IllegalStateException {
+    long stored = key | 1;
+    int slot = (int) Zobrist.mix(key) & this.mask;
+    for (int probe = 0; probe <= this.mask; probe++) {
+      int offset = HEADER_SIZE + slot * SLOT_SIZE;
+      long found = this.map.getLong(offset);
+      if (found == stored) {
+        this.map.putLong(offset + counter, this.map.getLong(offset + counter) + 1);
+        return;
+      }
+      if (found == 0) {
+        this.map.putLong(offset, stored);
+        this.map.putLong(offset + counter, 1);
+        this.used++;
+        this.map.putLong(USED_OFFSET, this.used);
+        return;
+      }
+      slot = (slot + 1) & this.mask;
+    }
+    throw new IllegalStateException("Index file is corrupt.");
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // already failing
+    }
+  }
+}
@@ -0,0 +1,243 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * A mutable board used internally by {@link TicTacToeSolver} for make/unmake search. It mirrors
+ * a {@link TicTacToe} position as one byte per cell and keeps the {@link Zobrist} hash of the
+ * position under every {@link BoardSymmetry} transform up to date on every move, so the search
+ * never allocates or copies a model per node, and the smallest of those hashes identifies a
+ * position and all of its rotations and reflections.
+ */
+class SearchBoard {
+  static final byte EMPTY = 0;
+  static final byte X = 1;
+  static final byte O = 2;
+
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+  final int rows;
+  final int columns;
+  final int winLength;
+  final byte[] cells;
+
+  /**
+   * Cell indices ordered from the center of the board outward, used for move ordering.
+   */
+  final int[] centerOrder;
+
+  final BoardSymmetry symmetry;
+
+  private final long[] keys;
+  private final long sideKey;
+  private final long[] hashes;
+  private int transform;
+  private int moveCount;
+  private byte toMove;
+
+  /**
+   * Create a search board mirroring the given game.
+   *
+   * @param m the game to copy.
+   */
+  SearchBoard(TicTacToe m) {
+    this.rows = m.getRows();
+    this.columns = m.getColumns();
+    this.winLength = m.getWinLength();
+    this.cells = new byte[this.rows * this.columns];
+    this.centerOrder = centerOrder(this.rows, this.columns);
+    this.symmetry = new BoardSymmetry(this.rows, this.columns);
+    this.hashes = new long[this.symmetry.size()];
+
+    this.keys = Zobrist.keys(this.cells.length);
+    this.sideKey = Zobrist.SIDE;
+
+    m.forEachCell((r, c, p) -> {
+      if (p != null) {
+        this.set(r * this.columns + c, p == Player.X ? X : O);
+      }
+    });
+    this.toMove = m.getTurn() == Player.X ? X : O;
+    if (this.toMove == O) {
+      this.flipSide();
+    }
+  }
+
+  /**
+   * Create an independent copy of another search board, sharing its immutable tables.
+   *
+   * @param other the board to copy.
+   */
+  SearchBoard(SearchBoard other) {
+    this.rows = other.rows;
+    this.columns = other.columns;
+    this.winLength = other.winLength;
+    this.cells = other.cells.clone();
+    this.centerOrder = other.centerOrder;
+    this.symmetry = other.symmetry;
+    this.keys = other.keys;
+    this.sideKey = other.sideKey;
+    this.hashes = other.hashes.clone();
+    this.moveCount = other.moveCount;
+    this.toMove = other.toMove;
+  }
+
+  /**
+   * Place the side to move's mark in the given empty cell and pass the turn.
+   *
+   * @param cell the cell index, {@code row * columns + col}.
+   */
+  void make(int cell) {
+    this.set(cell, this.toMove);
+    this.toMove = (byte) (X + O - this.toMove);
+    this.flipSide();
+  }
+
+  /**
+   * Take back the mark in the given cell, which must have been the last one made.
+   *
+   * @param cell the cell index, {@code row * columns + col}.
+   */
+  void unmake(int cell) {
+    this.toMove = (byte) (X + O - this.toMove);
+    this.flipSide();
+    this.toggle(cell, this.cells[cell]);
+    this.cells[cell] = EMPTY;
+    this.moveCount--;
+  }
+
+  /**
+   * Return whether the mark in the given cell is part of a run of at least the win length.
+   *
+   * @param cell the cell index, {@code row * columns + col}.
+   * @return true if that mark wins the game.
+   */
+  boolean isWin(int cell) {
+    int row = cell / this.columns;
+    int col = cell % this.columns;
+    byte mark = this.cells[cell];
+    for (int[] dir : DIRECTIONS) {
+      int run = 1 + this.countRun(row, col, dir[0], dir[1], mark)
+          + this.countRun(row, col, -dir[0], -dir[1], mark);
+      if (run >= this.winLength) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return whether the given empty cell is within one step of an existing mark.
+   *
+   * @param cell the cell index, {@code row * columns + col}.
+   * @return true if a neighboring cell is marked.
+   */
+  boolean hasNeighbor(int cell) {
+    int row = cell / this.columns;
+    int col = cell % this.columns;
+    for (int r = Math.max(0, row - 1); r <= Math.min(this.rows - 1, row + 1); r++) {
+      for (int c = Math.max(0, col - 1); c <= Math.min(this.columns - 1, col + 1); c++) {
+        if (this.cells[r * this.columns + c] != EMPTY) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the canonical hash of the position: the smallest of its hashes over all symmetries.
+   * The transform that produced it is remembered for {@link #toCanonical(int)} and
+   * {@link #fromCanonical(int)}.
+   *
+   * @return the canonical hash.
+   */
+  long hash() {
+    long best = this.hashes[0];
+    int bestTransform = 0;
+    for (int t = 1; t < this.hashes.length; t++) {
+      if (this.hashes[t] < best) {
+        best = this.hashes[t];
+        bestTransform = t;
+      }
+    }
+    this.transform = bestTransform;
+    return best;
+  }
+
+  /**
+   * Map a cell of this board into the orientation of the last canonical hash.
+   */
+  int toCanonical(int cell) {
+    return this.symmetry.apply(this.transform, cell);
+  }
+
+  /**
+   * Map a cell in the orientation of the last canonical hash back onto this board.
+   */
+  int fromCanonical(int cell) {
+    return this.symmetry.invert(this.transform, cell);
+  }
+
+  int moveCount() {
+    return this.moveCount;
+  }
+
+  int emptyCount() {
+    return this.cells.length - this.moveCount;
+  }
+
+  byte toMove() {
+    return this.toMove;
+  }
+
+  private void set(int cell, byte mark) {
+    this.cells[cell] = mark;
+    this.toggle(cell, mark);
+    this.moveCount++;
+  }
+
+  private void toggle(int cell, byte mark) {
+    for (int t = 0; t < this.hashes.length; t++) {
+      this.hashes[t] ^= this.keys[2 * this.symmetry.apply(t, cell) + mark - 1];
+    }
+  }
+
+  private void flipSide() {
+    for (int t = 0; t < this.hashes.length; t++) {
+      this.hashes[t] ^= this.sideKey;
+    }
+  }
+
+  private int countRun(int row, int col, int dr, int dc, byte mark) {
+    int count = 0;
+    int r = row + dr;
+    int c = col + dc;
+    while (count < this.winLength - 1 && r >= 0 && r < this.rows && c >= 0 && c < this.columns
+        && this.cells[r * this.columns + c] == mark) {
+      count++;
+      r += dr;
+      c += dc;
+    }
+    return count;
+  }
+
+  /**
+   * Order all cells of a board by their distance from its center, nearest first.
+   */
+  private static int[] centerOrder(int rows, int columns) {
+    Integer[] order = new Integer[rows * columns];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(
+        distance(a, rows, columns), distance(b, rows, columns)));
+    return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int distance(int cell, int rows, int columns) {
+    int dr = 2 * (cell / columns) - (rows - 1);
+    int dc = 2 * (cell % columns) - (columns - 1);
+    return dr * dr + dc * dc;
+  }
+}
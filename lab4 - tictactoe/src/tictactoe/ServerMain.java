@@ -0,0 +1,21 @@
+package tictactoe;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Run a Tic Tac Toe server that hosts a game for every client that connects.
+ */
+public class ServerMain {
+  /**
+   * Run the server until the process is stopped. The only argument is the port to listen on
+   * (default 4444). Try it with {@code nc localhost 4444}, or load it with {@link LoadClient}.
+   *
+   * @param args command-line arguments.
+   */
+  public static void main(String[] args) {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4444;
+    TicTacToeServer server = new TicTacToeServer(new InetSocketAddress(port));
+    System.out.println("Listening on port " + server.getPort());
+    server.run();
+  }
+}
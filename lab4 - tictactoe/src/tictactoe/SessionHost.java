@@ -0,0 +1,239 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A TCP server that runs one unchanged, blocking {@link TicTacToeConsoleController} per client,
+ * each on a thread of its own, reading and writing the socket through {@link SocketReadable}
+ * and {@link SocketAppendable}. This is the thread-per-session counterpart of
+ * {@link TicTacToeServer}, which multiplexes sessions on one thread instead.
+ *
+ * <p>On a runtime with virtual threads (Java 21 and later) each session gets a virtual thread,
+ * so an idle session costs a few kilobytes of heap rather than a platform thread's stack, and
+ * very many can be held at once. On older runtimes, or when asked to, sessions run on daemon
+ * platform threads. Virtual threads are looked up reflectively so the class also builds and
+ * runs on older releases. Sessions can share one {@link ControllerMetrics}, to watch the host
+ * over JMX.
+ */
+public class SessionHost implements Runnable, Closeable {
+  private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+  private final Supplier<TicTacToe> games;
+  private final ServerSocket server;
+  private final ThreadFactory threads;
+  private final boolean virtual;
+  private final ControllerMetrics metrics;
+  private final Set<Socket> sockets;
+  private final AtomicInteger sessions;
+  private final AtomicLong gamesPlayed;
+  private volatile boolean running;
+
+  /**
+   * Constructor for a host of standard three-by-three games, on virtual threads if the runtime
+   * supports them.
+   *
+   * @param address the address to listen on; port 0 picks a free port.
+   * @throws IllegalStateException if the server socket cannot be opened.
+   */
+  public SessionHost(InetSocketAddress address) throws IllegalStateException {
+    this(address, BitboardTicTacToe::new, true);
+  }
+
+  /**
+   * Constructor for a host that starts each connection on a new game from the given supplier.
+   *
+   * @param address the address to listen on; port 0 picks a free port.
+   * @param games   supplies a new game for every connection.
+   * @param virtual whether to use virtual threads, if the runtime supports them.
+   * @throws IllegalArgumentException if address or games is null.
+   * @throws IllegalStateException if the server socket cannot be opened.
+   */
+  public SessionHost(InetSocketAddress address, Supplier<TicTacToe> games, boolean virtual)
+      throws IllegalArgumentException, IllegalStateException {
+    this(address, games, virtual, null);
+  }
+
+  /**
+   * Constructor for a host whose sessions record into the given metrics.
+   *
+   * @param address the address to listen on; port 0 picks a free port.
+   * @param games   supplies a new game for every connection.
+   * @param virtual whether to use virtual threads, if the runtime supports them.
+   * @param metrics the metrics every session records into, or null to record nothing.
+   * @throws IllegalArgumentException if address or games is null.
+   * @throws IllegalStateException if the server socket cannot be opened.
+   */
+  public SessionHost(InetSocketAddress address, Supplier<TicTacToe> games, boolean virtual,
+      ControllerMetrics metrics) throws IllegalArgumentException, IllegalStateException {
+    if (address == null || games == null) {
+      throw new IllegalArgumentException("Address and games cannot be null.");
+    }
+    this.games = games;
+    this.metrics = metrics;
+    this.virtual = virtual && VIRTUAL_THREADS != null;
+    this.threads = this.virtual ? VIRTUAL_THREADS : r -> {
+      Thread thread = new Thread(r, "session");
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.sockets = ConcurrentHashMap.newKeySet();
+    this.sessions = new AtomicInteger();
+    this.gamesPlayed = new AtomicLong();
+    try {
+      this.server = new ServerSocket();
+      this.server.bind(address, 1024);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not open server socket.");
+    }
+    this.running = true;
+  }
+
+  /**
+   * Return whether this runtime supports virtual threads.
+   *
+   * @return true if sessions can run on virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return VIRTUAL_THREADS != null;
+  }
+
+  /**
+   * Return whether this host runs its sessions on virtual threads.
+   *
+   * @return true for virtual threads, false for platform threads
+   */
+  public boolean isVirtual() {
+    return this.virtual;
+  }
+
+  /**
+   * Return the port the host is listening on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return this.server.getLocalPort();
+  }
+
+  /**
+   * Return the number of sessions currently running.
+   *
+   * @return the number of sessions
+   */
+  public int getSessionCount() {
+    return this.sessions.get();
+  }
+
+  /**
+   * Return the number of sessions that have ended, by being played out, quit or abandoned.
+   *
+   * @return the number of games
+   */
+  public long getGamesPlayed() {
+    return this.gamesPlayed.get();
+  }
+
+  /**
+   * Accept connections on the calling thread, starting a session for each, until
+   * {@link #close()} is called. A connection that fails before its session starts is closed on
+   * its own, and a failure to accept is retried, so only a closed server socket ends the loop.
+   *
+   * @throws IllegalStateException if the server socket is closed other than by close().
+   */
+  @Override
+  public void run() throws IllegalStateException {
+    while (this.running) {
+      Socket socket;
+      try {
+        socket = this.server.accept();
+      } catch (IOException e) {
+        if (this.server.isClosed()) {
+          break;
+        }
+        continue;
+      }
+      try {
+        socket.setTcpNoDelay(true);
+      } catch (IOException e) {
+        try {
+          socket.close();
+        } catch (IOException ignored) {
+          // the connection is gone either way
+        }
+        continue;
+      }
+      this.sockets.add(socket);
+      this.sessions.incrementAndGet();
+      this.threads.newThread(() -> this.serve(socket)).start();
+    }
+    if (this.running) {
+      throw new IllegalStateException("Server failed.");
+    }
+  }
+
+  /**
+   * Stop accepting connections and close every open session's socket, which ends its session.
+   */
+  @Override
+  public void close() {
+    this.running = false;
+    try {
+      this.server.close();
+    } catch (IOException ignored) {
+      // shutting down anyway
+    }
+    for (Socket socket : this.sockets) {
+      try {
+        socket.close();
+      } catch (IOException ignored) {
+        // shutting down anyway
+      }
+    }
+  }
+
+  /**
+   * Play one game with the client on the other end of the socket, then close it.
+   */
+  private void serve(Socket socket) {
+    try {
+      new TicTacToeConsoleController(new SocketReadable(socket.getInputStream()),
+          new SocketAppendable(socket.getOutputStream()), null, EnumSet.noneOf(Player.class),
+          false, this.metrics).playGame(this.games.get());
+    } catch (IOException | IllegalStateException e) {
+      // the client left before the game ended, or the socket failed
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException ignored) {
+        // the connection is gone either way
+      }
+      this.sockets.remove(socket);
+      this.sessions.decrementAndGet();
+      this.gamesPlayed.incrementAndGet();
+    }
+  }
+
+  /**
+   * Return a factory for virtual threads, or null if this runtime has none.
+   */
+  private static ThreadFactory virtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory")
+          .invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+}
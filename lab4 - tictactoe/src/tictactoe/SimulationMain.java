@@ -0,0 +1,47 @@
+package tictactoe;
+
+/**
+ * Run a large number of Tic Tac Toe games without a user, on every available processor, and
+ * print their outcome statistics and throughput.
+ */
+public class SimulationMain {
+  /**
+   * Run the simulation. The arguments are the number of games (default 10,000,000), then the
+   * strategy for X and for O, each {@code random} or {@code perfect} (default random), then the
+   * number of threads (default all processors).
+   *
+   * @param args command-line arguments.
+   */
+  public static void main(String[] args) {
+    long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+    GameSimulator.Strategy x = args.length > 1 ? strategy(args[1]) : GameSimulator.Strategy.RANDOM;
+    GameSimulator.Strategy o = args.length > 2 ? strategy(args[2]) : GameSimulator.Strategy.RANDOM;
+    int threads = args.length > 3
+        ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+    GameSimulator simulator = new GameSimulator(x, o);
+    simulator.run(games, threads, System.nanoTime());
+
+    long played = simulator.getGames();
+    System.out.println("Games: " + played + " (X " + x + ", O " + o + ", "
+        + threads + " threads)");
+    System.out.println("X wins: " + percent(simulator.getWins(Player.X), played));
+    System.out.println("O wins: " + percent(simulator.getWins(Player.O), played));
+    System.out.println("Draws:  " + percent(simulator.getDraws(), played));
+    System.out.println(String.format("Average length: %.3f moves",
+        simulator.getAverageLength()));
+    for (int length = 5; length <= 9; length++) {
+      System.out.println("  " + length + " moves: "
+          + percent(simulator.getGamesOfLength(length), played));
+    }
+    System.out.println(String.format("Throughput: %.0f games/s", simulator.getGamesPerSecond()));
+  }
+
+  private static GameSimulator.Strategy strategy(String name) {
+    return GameSimulator.Strategy.valueOf(name.toUpperCase());
+  }
+
+  private static String percent(long count, long total) {
+    return String.format("%d (%.2f%%)", count, total == 0 ? 0 : 100.0 * count / total);
+  }
+}
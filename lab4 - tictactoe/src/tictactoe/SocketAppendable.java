@@ -0,0 +1,69 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link Appendable} that writes characters to a socket's output stream as ISO-8859-1 bytes,
+ * so a {@link TicTacToeConsoleController} can write to a network client. Each append is sent
+ * straight away, in as few writes as its length allows; the controller already gathers each
+ * response into a single append. Like {@link SocketReadable} it holds no lock of its own, so it
+ * does not pin a virtual thread to its carrier while the socket blocks.
+ */
+public class SocketAppendable implements Appendable, Closeable {
+  private static final int BUFFER_SIZE = 1024;
+
+  private final OutputStream out;
+  private byte[] bytes;
+
+  /**
+   * Constructor for an appendable over the given stream.
+   *
+   * @param out the socket's output stream.
+   * @throws IllegalArgumentException if out is null.
+   */
+  public SocketAppendable(OutputStream out) throws IllegalArgumentException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null.");
+    }
+    this.out = out;
+  }
+
+  @Override
+  public Appendable append(CharSequence csq) throws IOException {
+    CharSequence text = csq == null ? "null" : csq;
+    return this.append(text, 0, text.length());
+  }
+
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence text = csq == null ? "null" : csq;
+    if (start < 0 || start > end || end > text.length()) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (this.bytes == null) {
+      this.bytes = new byte[BUFFER_SIZE];
+    }
+    while (start < end) {
+      int count = Math.min(end - start, this.bytes.length);
+      for (int i = 0; i < count; i++) {
+        this.bytes[i] = (byte) text.charAt(start + i);
+      }
+      this.out.write(this.bytes, 0, count);
+      start += count;
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) throws IOException {
+    this.out.write(c);
+    return this;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+}
@@ -0,0 +1,58 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+
+/**
+ * A {@link Readable} over the bytes of a socket's input stream, read as ISO-8859-1 characters,
+ * so a {@link TicTacToeConsoleController} can read from a network client. Unlike an
+ * {@link java.io.InputStreamReader} it holds no lock of its own, so a virtual thread blocked in
+ * {@link #read(CharBuffer)} only waits in the socket, which unmounts it from its carrier thread
+ * rather than pinning it. The byte buffer is allocated on the first read, so an idle session
+ * that has not yet been sent anything holds none.
+ */
+public class SocketReadable implements Readable, Closeable {
+  private static final int BUFFER_SIZE = 512;
+
+  private final InputStream in;
+  private byte[] bytes;
+
+  /**
+   * Constructor for a readable over the given stream.
+   *
+   * @param in the socket's input stream.
+   * @throws IllegalArgumentException if in is null.
+   */
+  public SocketReadable(InputStream in) throws IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream cannot be null.");
+    }
+    this.in = in;
+  }
+
+  /**
+   * Block until at least one byte arrives, then copy as many as are available and fit.
+   *
+   * @param cb the buffer to read characters into.
+   * @return the number of characters read, or -1 at the end of the stream
+   * @throws IOException if the socket fails.
+   */
+  @Override
+  public int read(CharBuffer cb) throws IOException {
+    if (this.bytes == null) {
+      this.bytes = new byte[BUFFER_SIZE];
+    }
+    int count = this.in.read(this.bytes, 0, Math.min(this.bytes.length, cb.remaining()));
+    for (int i = 0; i < count; i++) {
+      cb.put((char) (this.bytes[i] & 0xFF));
+    }
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+}
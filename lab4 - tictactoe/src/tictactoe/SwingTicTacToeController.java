@@ -1,7 +1,118 @@
 package tictactoe;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+/**
+ * A controller that plays Tic Tac Toe in a {@link SwingTicTacToeView}: clicking an empty cell
+ * moves there, and either or both players may instead be driven by a {@link TicTacToeSolver}.
+ * The game and the engine are only ever touched by one worker thread, never by the Event
+ * Dispatch Thread, so the window stays responsive while the engine searches a large board. The
+ * view learns of every change through the game's listener events, which it hands back to the
+ * Event Dispatch Thread itself. Clicks made while the engine is thinking are ignored.
+ */
 public class SwingTicTacToeController implements TicTacToeController {
-  public SwingTicTacToeController(TicTacToeView v, tictactoe.TicTacToe m) {
+  private final SwingTicTacToeView view;
+  private final TicTacToeSolver engine;
+  private final Set<Player> enginePlayers;
+  private final ExecutorService worker;
+  private volatile boolean thinking;
+
+  /**
+   * Constructor for a controller where both players click to move.
+   *
+   * @param v the view to play in.
+   * @throws IllegalArgumentException if v is null.
+   */
+  public SwingTicTacToeController(SwingTicTacToeView v) throws IllegalArgumentException {
+    this(v, null, EnumSet.noneOf(Player.class));
+  }
+
+  /**
+   * Constructor for a controller where some players are driven by an engine.
+   *
+   * @param v             the view to play in.
+   * @param engine        the engine that chooses moves for the engine players.
+   * @param enginePlayers the players whose moves are chosen by the engine.
+   * @throws IllegalArgumentException if v or enginePlayers is null, or if there are engine
+   *                                  players but no engine.
+   */
+  public SwingTicTacToeController(SwingTicTacToeView v, TicTacToeSolver engine,
+      Set<Player> enginePlayers) throws IllegalArgumentException {
+    if (v == null) {
+      throw new IllegalArgumentException("View cannot be null.");
+    }
+    if (enginePlayers == null || (engine == null && !enginePlayers.isEmpty())) {
+      throw new IllegalArgumentException("Engine players need an engine.");
+    }
+    this.view = v;
+    this.engine = engine;
+    this.enginePlayers = enginePlayers.isEmpty()
+        ? EnumSet.noneOf(Player.class) : EnumSet.copyOf(enginePlayers);
+    this.worker = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "game");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Show the game in the view and start play. Unlike the console controller this does not wait
+   * for the game to end: it returns at once, and the game is played as the user clicks.
+   *
+   * @param m a non-null Tic Tac Toe Model
+   * @throws IllegalArgumentException if m is null.
+   */
+  @Override
+  public void playGame(TicTacToe m) throws IllegalArgumentException {
+    if (m == null) {
+      throw new IllegalArgumentException("There is no model.");
+    }
+    this.view.setCellHandler((r, c, mark) -> {
+      if (!this.thinking) {
+        this.worker.execute(() -> this.play(m, r, c));
+      }
+    });
+    this.worker.execute(() -> {
+      this.view.displayBoard(m);
+      m.addListener(this.view);
+      this.engineMoves(m);
+    });
+    SwingUtilities.invokeLater(() -> this.view.setVisible(true));
+  }
+
+  /**
+   * Make the user's move, then any engine replies. Runs on the worker thread.
+   */
+  private void play(TicTacToe m, int r, int c) {
+    if (m.isGameOver() || this.enginePlayers.contains(m.getTurn())) {
+      return;
+    }
+    try {
+      m.move(r, c);
+    } catch (IllegalArgumentException e) {
+      this.view.showMessage("Not a valid move: " + (r + 1) + ", " + (c + 1));
+      return;
+    }
+    this.engineMoves(m);
+  }
 
+  /**
+   * Let the engine move for as long as it is an engine player's turn. Runs on the worker thread.
+   */
+  private void engineMoves(TicTacToe m) {
+    while (!m.isGameOver() && this.enginePlayers.contains(m.getTurn())) {
+      this.thinking = true;
+      this.view.showMessage(m.getTurn() + " is thinking...");
+      try {
+        int[] move = this.engine.bestMove(m);
+        m.move(move[0], move[1]);
+      } finally {
+        this.thinking = false;
+      }
+    }
   }
 }
@@ -1,6 +1,178 @@
 package tictactoe;
 
-public class SwingTicTacToeView implements TicTacToeView {
-  public SwingTicTacToeView(String s) {
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+/**
+ * A window showing a Tic Tac Toe board and a status line. The view keeps its own copy of the
+ * marks, taken by {@link #displayBoard(TicTacToe)} and then kept up to date from the game's
+ * {@link TicTacToeListener} events, so it never reads the game while painting and the game may
+ * be played on another thread. Events may arrive on any thread; they are handed to the Event
+ * Dispatch Thread, where each move repaints only the rectangle of the cell it changed. Clicks on
+ * the board are passed to the handler set with {@link #setCellHandler(CellVisitor)}.
+ */
+public class SwingTicTacToeView extends JFrame implements TicTacToeView {
+  private static final long serialVersionUID = 1L;
+  private static final int BOARD_PIXELS = 600;
+
+  private final BoardPanel board;
+  private final JLabel status;
+  private BoardPainter painter;
+  private Player[] marks;
+  private int columns;
+  private CellVisitor handler;
+
+  /**
+   * The component the board is painted on.
+   */
+  private final class BoardPanel extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    private BoardPanel() {
+      this.addMouseListener(new MouseAdapter() {
+        @Override
+        public void mouseClicked(MouseEvent e) {
+          SwingTicTacToeView view = SwingTicTacToeView.this;
+          if (view.painter == null || view.handler == null) {
+            return;
+          }
+          int cell = view.painter.cellAt(e.getX(), e.getY());
+          if (cell >= 0) {
+            view.handler.visit(cell / view.columns, cell % view.columns, view.marks[cell]);
+          }
+        }
+      });
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+      SwingTicTacToeView view = SwingTicTacToeView.this;
+      return view.painter == null ? new Dimension(BOARD_PIXELS, BOARD_PIXELS)
+          : new Dimension(view.painter.getWidth(), view.painter.getHeight());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      SwingTicTacToeView view = SwingTicTacToeView.this;
+      if (view.painter != null) {
+        view.painter.paintCells((Graphics2D) g, view.marks);
+      }
+    }
+  }
+
+  /**
+   * Constructor for a view in a new window with the given title. The window is not shown until
+   * {@link #setVisible(boolean)} is called.
+   *
+   * @param caption the window title.
+   */
+  public SwingTicTacToeView(String caption) {
+    super(caption);
+    this.board = new BoardPanel();
+    this.status = new JLabel(" ");
+    this.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    this.setLayout(new BorderLayout());
+    this.add(this.board, BorderLayout.CENTER);
+    this.add(this.status, BorderLayout.SOUTH);
+    this.pack();
+  }
+
+  /**
+   * Set the handler called, on the Event Dispatch Thread, with the row, column and shown mark of
+   * each cell the user clicks.
+   *
+   * @param handler the handler, or null to ignore clicks.
+   */
+  public void setCellHandler(CellVisitor handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Show a message in the status line.
+   *
+   * @param message the message.
+   */
+  public void showMessage(String message) {
+    onEventThread(() -> this.status.setText(message));
+  }
+
+  /**
+   * {@inheritDoc} The marks are copied on the calling thread, which should be the one playing
+   * the game, and the board is redrawn on the Event Dispatch Thread.
+   */
+  @Override
+  public void displayBoard(TicTacToe m) {
+    int rows = m.getRows();
+    int cols = m.getColumns();
+    Player[] copy = new Player[rows * cols];
+    m.forEachCell((r, c, mark) -> copy[r * cols + c] = mark);
+    String message = m.isGameOver() ? gameOverMessage(m.getWinner())
+        : "Enter a move for " + m.getTurn() + ".";
+    onEventThread(() -> {
+      if (this.painter == null || this.marks.length != copy.length || this.columns != cols) {
+        int cellSize = Math.max(16, Math.min(120, BOARD_PIXELS / Math.max(rows, cols)));
+        this.painter = new BoardPainter(rows, cols, cellSize);
+        this.columns = cols;
+      }
+      this.marks = copy;
+      this.status.setText(message);
+      this.board.revalidate();
+      this.pack();
+      this.board.repaint();
+    });
+  }
+
+  @Override
+  public void movePlaced(int r, int c, Player player) {
+    onEventThread(() -> this.setCell(r, c, player));
+  }
+
+  @Override
+  public void moveUndone(int r, int c, Player player) {
+    onEventThread(() -> this.setCell(r, c, null));
+  }
+
+  @Override
+  public void turnChanged(Player player) {
+    this.showMessage("Enter a move for " + player + ".");
+  }
+
+  @Override
+  public void gameEnded(Player winner) {
+    this.showMessage(gameOverMessage(winner));
+  }
+
+  /**
+   * Change one cell and repaint just its rectangle.
+   */
+  private void setCell(int r, int c, Player mark) {
+    if (this.painter == null) {
+      return;
+    }
+    this.marks[r * this.columns + c] = mark;
+    this.board.repaint(this.painter.cellBounds(r, c));
+  }
+
+  private static String gameOverMessage(Player winner) {
+    return "Game is over! " + (winner == null ? "Tie game." : winner + " wins.");
+  }
+
+  /**
+   * Run a task on the Event Dispatch Thread: now if already on it, otherwise later.
+   */
+  private static void onEventThread(Runnable task) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      task.run();
+    } else {
+      SwingUtilities.invokeLater(task);
+    }
   }
 }
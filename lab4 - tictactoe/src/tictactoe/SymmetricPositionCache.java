@@ -0,0 +1,150 @@
+package tictactoe;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed-size cache of position values and best moves for games of one board shape, keyed on
+ * the {@link BoardSymmetry} canonical key. All rotations and reflections of a position share a
+ * single slot, so the cache holds up to eight times as many distinct positions in the same
+ * memory, and a value computed for one position is found again for any of its mirror images.
+ * Moves are stored in the canonical orientation and mapped back onto the board being queried.
+ *
+ * <p>Each slot is one {@code long} key and one {@code int} entry; a newer position replaces an
+ * older one that hashes to the same slot.
+ */
+public class SymmetricPositionCache {
+  private static final long EMPTY = -1L;
+
+  private final BoardSymmetry symmetry;
+  private final int columns;
+  private final long[] keys;
+  private final int[] entries;
+  private final int mask;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructor for a cache of positions on a board of the given shape.
+   *
+   * @param rows         the number of rows.
+   * @param columns      the number of columns.
+   * @param capacityBits the base-2 logarithm of the number of slots.
+   * @throws IllegalArgumentException if a dimension is not positive, or the capacity is outside
+   *                                  2^1 to 2^30 slots.
+   */
+  public SymmetricPositionCache(int rows, int columns, int capacityBits)
+      throws IllegalArgumentException {
+    if (capacityBits < 1 || capacityBits > 30) {
+      throw new IllegalArgumentException("Capacity must be between 2^1 and 2^30 slots.");
+    }
+    this.symmetry = new BoardSymmetry(rows, columns);
+    this.columns = columns;
+    this.keys = new long[1 << capacityBits];
+    this.entries = new int[1 << capacityBits];
+    this.mask = (1 << capacityBits) - 1;
+    Arrays.fill(this.keys, EMPTY);
+  }
+
+  /**
+   * Store the value of a position and the best move in it.
+   *
+   * @param m     the position.
+   * @param value the value of the position, between -32768 and 32767.
+   * @param row   the row of the best move on m's board.
+   * @param col   the column of the best move on m's board.
+   * @throws IllegalArgumentException if the value is out of range or the board has a different
+   *                                  shape.
+   */
+  public void put(TicTacToe m, int value, int row, int col) throws IllegalArgumentException {
+    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Value out of range.");
+    }
+    long canonical = this.symmetry.canonicalize(m);
+    int slot = this.slot(canonical);
+    int cell = this.symmetry.apply(BoardSymmetry.transformOf(canonical),
+        row * this.columns + col);
+    this.keys[slot] = BoardSymmetry.keyOf(canonical);
+    this.entries[slot] = (value << 16) | cell;
+  }
+
+  /**
+   * Return whether the cache holds the given position or one of its rotations or reflections.
+   *
+   * @param m the position.
+   * @return true if the position is cached, false otherwise
+   */
+  public boolean contains(TicTacToe m) {
+    long canonical = this.symmetry.canonicalize(m);
+    if (this.keys[this.slot(canonical)] == BoardSymmetry.keyOf(canonical)) {
+      this.hits++;
+      return true;
+    }
+    this.misses++;
+    return false;
+  }
+
+  /**
+   * Return the cached value of a position.
+   *
+   * @param m the position.
+   * @return the value stored for it or a symmetric position
+   * @throws NoSuchElementException if the position is not cached.
+   */
+  public int getValue(TicTacToe m) throws NoSuchElementException {
+    return this.entry(this.symmetry.canonicalize(m)) >> 16;
+  }
+
+  /**
+   * Return the cached best move of a position, mapped onto the given board.
+   *
+   * @param m the position.
+   * @return the best move as {@code {row, col}}
+   * @throws NoSuchElementException if the position is not cached.
+   */
+  public int[] getMove(TicTacToe m) throws NoSuchElementException {
+    long canonical = this.symmetry.canonicalize(m);
+    int cell = this.symmetry.invert(BoardSymmetry.transformOf(canonical),
+        this.entry(canonical) & 0xFFFF);
+    return new int[] {cell / this.columns, cell % this.columns};
+  }
+
+  /**
+   * Return the number of lookups through {@link #contains(TicTacToe)} that found a position.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Return the number of lookups through {@link #contains(TicTacToe)} that found nothing.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Return the memory used by the cache's arrays.
+   *
+   * @return the size in bytes
+   */
+  public long sizeInBytes() {
+    return 12L * this.keys.length;
+  }
+
+  private int entry(long canonical) throws NoSuchElementException {
+    int slot = this.slot(canonical);
+    if (this.keys[slot] != BoardSymmetry.keyOf(canonical)) {
+      throw new NoSuchElementException("Position is not cached.");
+    }
+    return this.entries[slot];
+  }
+
+  private int slot(long canonical) {
+    return (int) Zobrist.mix(BoardSymmetry.keyOf(canonical)) & this.mask;
+  }
+}
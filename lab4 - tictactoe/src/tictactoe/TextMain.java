@@ -1,17 +1,44 @@
 package tictactoe;
 
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
- * Run a Tic Tac Toe game interactively on the console.
+ * Run a Tic Tac Toe game interactively on the console, or replay a file of recorded games.
  */
 public class TextMain {
   /**
-   * Run a Tic Tac Toe game interactively on the console.
+   * Run a Tic Tac Toe game interactively on the console. Pass {@code -x} and/or {@code -o} to
+   * have the engine play that side. Pass {@code --replay FILE} instead to replay every game in
+   * the file, one game of 1-based row and column pairs per line, and print each result and a
+   * summary; add {@code --summary} to print only the summary. See {@link GameReplayer}.
    * @param args command-line arguments.
    */
   public static void main(String[] args) {
-    new TicTacToeConsoleController(new InputStreamReader(System.in),
-        System.out).playGame(new TicTacToeModel());
+    Set<Player> enginePlayers = EnumSet.noneOf(Player.class);
+    String replayFile = null;
+    boolean perGame = true;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("--replay".equals(arg) && i + 1 < args.length) {
+        replayFile = args[++i];
+      } else if ("--summary".equals(arg)) {
+        perGame = false;
+      } else if ("-x".equalsIgnoreCase(arg)) {
+        enginePlayers.add(Player.X);
+      } else if ("-o".equalsIgnoreCase(arg)) {
+        enginePlayers.add(Player.O);
+      }
+    }
+    if (replayFile != null) {
+      new GameReplayer(System.out, perGame).replay(Paths.get(replayFile));
+      System.out.flush();
+      return;
+    }
+    TicTacToeSolver engine = enginePlayers.isEmpty() ? null : new TicTacToeSolver();
+    new TicTacToeConsoleController(new InputStreamReader(System.in), System.out, engine,
+        enginePlayers).playGame(new TicTacToeModel());
   }
 }
@@ -3,7 +3,8 @@ package tictactoe;
 /**
  * A single game of Tic Tac Toe, played on a three-by-three grid with two players,
  * with the object of the game to achieve three markers in a row either vertically,
- * horizontally, or diagonally. {@link Player} X goes first.
+ * horizontally, or diagonally. {@link Player} X goes first. Implementations may also play
+ * the generalized m,n,k game, on a board of any size with k markers in a row needed to win.
  */
 public interface TicTacToe {
 
@@ -58,4 +59,89 @@ public interface TicTacToe {
    */
   Player getMarkAt(int r, int c);
 
+  /**
+   * Pass every cell of the board to the given visitor, row by row from the top left. Unlike
+   * {@link #getBoard()}, this does not copy the board.
+   *
+   * @param visitor the visitor to receive each cell
+   */
+  void forEachCell(CellVisitor visitor);
+
+  /**
+   * Return the number of rows on the board.
+   *
+   * @return the number of rows
+   */
+  int getRows();
+
+  /**
+   * Return the number of columns on the board.
+   *
+   * @return the number of columns
+   */
+  int getColumns();
+
+  /**
+   * Return the number of markers in a row a player needs to win.
+   *
+   * @return the winning run length
+   */
+  int getWinLength();
+
+  /**
+   * Return a 64-bit Zobrist hash of the current position: the XOR of a fixed random key for each
+   * player's mark in each cell, and of a side-to-move key when O is to move. The same position on
+   * boards of the same shape has the same hash in every implementation.
+   *
+   * @return the hash of the current position
+   */
+  long getHash();
+
+  /**
+   * Take back the last move, restoring the position, turn and result from before it was made.
+   * The move can be replayed with {@link #redo()} until another move is made.
+   *
+   * @throws IllegalStateException if no moves have been made
+   */
+  void undo();
+
+  /**
+   * Replay the move most recently taken back with {@link #undo()}.
+   *
+   * @throws IllegalStateException if there is no move to replay
+   */
+  void redo();
+
+  /**
+   * Return the number of moves made so far, not counting moves that were taken back.
+   *
+   * @return the number of moves in the history
+   */
+  int getMoveCount();
+
+  /**
+   * Return a move from the history, as the cell index {@code row * getColumns() + column}.
+   *
+   * @param index the position of the move in the history, 0 for the first move
+   * @return the cell the move was made in
+   * @throws IllegalArgumentException if index is not less than {@link #getMoveCount()}
+   */
+  int getMove(int index);
+
+  /**
+   * Register a listener to be told of every later change to the game, as described in
+   * {@link TicTacToeListener}.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if listener is null
+   */
+  void addListener(TicTacToeListener listener);
+
+  /**
+   * Stop telling a listener of changes to the game. Does nothing if it is not registered.
+   *
+   * @param listener the listener to remove
+   */
+  void removeListener(TicTacToeListener listener);
+
 }
@@ -1,8 +1,9 @@
 package tictactoe;
 
 import java.io.IOException;
+import java.util.EnumSet;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.Set;
 
 /**
  * This class represents a controller for a Tic Tac Toe game. It takes in a Readable object to read
@@ -11,10 +12,22 @@ import java.util.Scanner;
  * the game to the user. It will continue to prompt the user for input until the game is over or
  * the user quits. When the game is over, it will display the final state of the game and the
  * winner. If the user quits, it will display the end state of the game and the game ends.
+ * Entering {@code u} takes back the last move, along with the engine's reply if there is one.
+ * Either or both players may instead be driven by a {@link TicTacToeSolver}, in which case the
+ * controller reports the engine's move and search statistics instead of prompting for input.
+ * Output is collected in a reusable buffer and written to the Appendable in one call each time
+ * the controller waits for input, or only once at the end of the game in quiet mode.
+ * Given {@link ControllerMetrics}, the controller counts games, moves and rejected input and
+ * times each move and game; without them it does neither.
  */
 public class TicTacToeConsoleController implements TicTacToeController {
   private final Readable in;
   private final Appendable out;
+  private final TicTacToeSolver engine;
+  private final Set<Player> enginePlayers;
+  private final boolean quiet;
+  private final StringBuilder buffer;
+  private final ControllerMetrics metrics;
 
   /**
    * Constructor for TicTacToeConsoleController. Initializes the Readable and Appendable objects
@@ -25,11 +38,76 @@ public class TicTacToeConsoleController implements TicTacToeController {
    * @throws IllegalArgumentException if either in or out is null.
    */
   public TicTacToeConsoleController(Readable in, Appendable out) throws IllegalArgumentException {
+    this(in, out, null, EnumSet.noneOf(Player.class));
+  }
+
+  /**
+   * Constructor for TicTacToeConsoleController where some players are driven by an engine.
+   * Initializes the Readable and Appendable objects that will be used to read input and write
+   * output, and the engine that will choose moves for the given players.
+   *
+   * @param in            the Readable object to read input from.
+   * @param out           the Appendable object to write output to.
+   * @param engine        the engine that chooses moves for the engine players.
+   * @param enginePlayers the players whose moves are chosen by the engine.
+   * @throws IllegalArgumentException if in, out or enginePlayers is null, or if there are
+   *                                  engine players but no engine.
+   */
+  public TicTacToeConsoleController(Readable in, Appendable out, TicTacToeSolver engine,
+      Set<Player> enginePlayers) throws IllegalArgumentException {
+    this(in, out, engine, enginePlayers, false);
+  }
+
+  /**
+   * Constructor for TicTacToeConsoleController with a choice of when output is written. In quiet
+   * mode nothing is written to the Appendable until the game ends, which suits scripted input
+   * where nobody reads the prompts as they appear.
+   *
+   * @param in            the Readable object to read input from.
+   * @param out           the Appendable object to write output to.
+   * @param engine        the engine that chooses moves for the engine players.
+   * @param enginePlayers the players whose moves are chosen by the engine.
+   * @param quiet         true to write all output once at the end of the game, false to write
+   *                      it before each read of input.
+   * @throws IllegalArgumentException if in, out or enginePlayers is null, or if there are
+   *                                  engine players but no engine.
+   */
+  public TicTacToeConsoleController(Readable in, Appendable out, TicTacToeSolver engine,
+      Set<Player> enginePlayers, boolean quiet) throws IllegalArgumentException {
+    this(in, out, engine, enginePlayers, quiet, null);
+  }
+
+  /**
+   * Constructor for TicTacToeConsoleController that records what happens in its games. The
+   * same metrics may be shared by many controllers.
+   *
+   * @param in            the Readable object to read input from.
+   * @param out           the Appendable object to write output to.
+   * @param engine        the engine that chooses moves for the engine players.
+   * @param enginePlayers the players whose moves are chosen by the engine.
+   * @param quiet         true to write all output once at the end of the game, false to write
+   *                      it before each read of input.
+   * @param metrics       the metrics to record into, or null to record nothing.
+   * @throws IllegalArgumentException if in, out or enginePlayers is null, or if there are
+   *                                  engine players but no engine.
+   */
+  public TicTacToeConsoleController(Readable in, Appendable out, TicTacToeSolver engine,
+      Set<Player> enginePlayers, boolean quiet, ControllerMetrics metrics)
+      throws IllegalArgumentException {
     if (in == null || out == null) {
       throw new IllegalArgumentException("Readable or Appendable cannot be null.");
     }
+    if (enginePlayers == null || (engine == null && !enginePlayers.isEmpty())) {
+      throw new IllegalArgumentException("Engine players need an engine.");
+    }
     this.in = in;
     this.out = out;
+    this.engine = engine;
+    this.enginePlayers = enginePlayers.isEmpty()
+        ? EnumSet.noneOf(Player.class) : EnumSet.copyOf(enginePlayers);
+    this.quiet = quiet;
+    this.buffer = new StringBuilder(256);
+    this.metrics = metrics;
   }
 
   @Override
@@ -38,65 +116,169 @@ public class TicTacToeConsoleController implements TicTacToeController {
       throw new IllegalArgumentException("There is no model.");
     }
 
-    Scanner scan = new Scanner(this.in);
-    Integer row = null;
-    Integer col = null;
-    int moveInput;
+    Tokenizer scan = new Tokenizer(this.in);
+    int row = 0;
+    int col = 0;
+    boolean haveRow = false;
     boolean prompt = true;
     boolean gameQuit = false;
-    String input = "";
+    long started = 0;
+    if (this.metrics != null) {
+      this.metrics.gameStarted();
+      started = System.nanoTime();
+    }
 
+    this.buffer.setLength(0);
     try {
       while (!m.isGameOver()) {
+        if (this.enginePlayers.contains(m.getTurn())) {
+          this.buffer.append(m).append('\n');
+          int[] move = this.engine.bestMove(m);
+          this.buffer.append(m.getTurn()).append(" plays ").append(move[0] + 1).append(", ")
+              .append(move[1] + 1).append(" (").append(this.engine.getNodesSearched())
+              .append(" nodes, ").append(this.engine.getNodesPerSecond()).append(" nodes/s)\n");
+          this.move(m, move[0], move[1]);
+          prompt = true;
+          continue;
+        }
+
         if (prompt) {
-          this.out.append(m.toString() + "\n");
-          this.out.append("Enter a move for " + m.getTurn().toString() + ":\n");
+          this.buffer.append(m).append('\n');
+          this.buffer.append("Enter a move for ").append(m.getTurn()).append(":\n");
           prompt = false;
         }
 
-        input = scan.next();
-        if ("q".equalsIgnoreCase(input)) {
+        if (!this.quiet) {
+          this.flush();
+        }
+        scan.next();
+        if (scan.equalsIgnoreCase("q")) {
           gameQuit = true;
           break;
         }
+        if (scan.equalsIgnoreCase("u")) {
+          haveRow = false;
+          if (m.getMoveCount() == 0) {
+            this.buffer.append("Nothing to undo.\n");
+            continue;
+          }
+          m.undo();
+          if (this.metrics != null) {
+            this.metrics.undo();
+          }
+          if (this.enginePlayers.contains(m.getTurn()) && m.getMoveCount() > 0) {
+            m.undo();
+          }
+          prompt = true;
+          continue;
+        }
+        if (!scan.isInt()) {
+          if (this.metrics != null) {
+            this.metrics.invalidNumber();
+          }
+          this.buffer.append("Not a valid number: ");
+          scan.appendTo(this.buffer);
+          this.buffer.append('\n');
+          continue;
+        }
 
+        if (!haveRow) {
+          row = scan.intValue();
+          haveRow = true;
+          continue;
+        }
+        col = scan.intValue();
+        haveRow = false;
         try {
-          moveInput = Integer.parseInt(input);
-          if (row == null) {
-            row = moveInput;
-          } else {
-            col = moveInput;
-            m.move(row - 1, col - 1);
-            prompt = true;
-            row = col = null;
-          }
-        } catch (NumberFormatException e) {
-          this.out.append("Not a valid number: " + input + "\n");
+          this.move(m, row - 1, col - 1);
+          prompt = true;
         } catch (IllegalArgumentException e) {
-          this.out.append("Not a valid move: " + row + ", " + col + "\n");
-          row = col = null;
+          if (this.metrics != null) {
+            this.metrics.invalidMove();
+          }
+          this.buffer.append("Not a valid move: ").append(row).append(", ").append(col)
+              .append('\n');
         }
       }
 
       if (m.isGameOver()) {
-        this.out.append(m.toString());
-        this.out.append("\nGame is over! ");
+        this.buffer.append(m);
+        this.buffer.append("\nGame is over! ");
         if (m.getWinner() == null) {
-          this.out.append("Tie game.");
+          this.buffer.append("Tie game.");
         } else {
-          this.out.append(m.getWinner() + " wins.");
+          this.buffer.append(m.getWinner()).append(" wins.");
         }
       } else if (gameQuit) {
-        this.out.append("Game quit! Ending game state:\n" + m.toString() + "\n");
+        this.buffer.append("Game quit! Ending game state:\n").append(m).append('\n');
+      }
+      this.flush();
+      if (this.metrics != null) {
+        if (gameQuit) {
+          this.metrics.gameQuit(System.nanoTime() - started);
+        } else {
+          this.metrics.gameFinished(System.nanoTime() - started);
+        }
       }
 
     } catch (IOException e) {
+      this.abandoned(started);
       throw new IllegalStateException("Append failed.");
     } catch (NoSuchElementException e) {
+      this.abandoned(started);
+      this.flushOrFail();
       throw new IllegalStateException("No input.");
     }
     scan.close();
   }
-}
 
+  /**
+   * Place a move, timing it if there are metrics.
+   *
+   * @throws IllegalArgumentException if the model rejects the move.
+   */
+  private void move(TicTacToe m, int r, int c) throws IllegalArgumentException {
+    if (this.metrics == null) {
+      m.move(r, c);
+      return;
+    }
+    long start = System.nanoTime();
+    m.move(r, c);
+    this.metrics.movePlaced(System.nanoTime() - start);
+  }
 
+  /**
+   * Record a game that ended because input ran out or output failed.
+   */
+  private void abandoned(long started) {
+    if (this.metrics != null) {
+      this.metrics.gameAbandoned(System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Write the buffered output, reporting a failure as the controller reports other output
+   * failures.
+   *
+   * @throws IllegalStateException if writing fails.
+   */
+  private void flushOrFail() throws IllegalStateException {
+    try {
+      this.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Append failed.");
+    }
+  }
+
+  /**
+   * Write the buffered output to the Appendable in a single call and empty the buffer.
+   *
+   * @throws IOException if writing fails.
+   */
+  private void flush() throws IOException {
+    if (this.buffer.length() > 0) {
+      this.out.append(this.buffer);
+      this.buffer.setLength(0);
+    }
+  }
+}
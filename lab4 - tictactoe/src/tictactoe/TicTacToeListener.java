@@ -0,0 +1,53 @@
+package tictactoe;
+
+/**
+ * Receives the changes made to a {@link TicTacToe} game as they happen, each event carrying
+ * only what changed, so a view can update the cells that changed instead of redrawing the whole
+ * board. Register with {@link TicTacToe#addListener(TicTacToeListener)}. Every method does
+ * nothing by default, so a listener need only override the events it cares about.
+ *
+ * <p>A move fires {@link #movePlaced(int, int, Player)} followed by either
+ * {@link #gameEnded(Player)} or {@link #turnChanged(Player)}; taking a move back fires
+ * {@link #moveUndone(int, int, Player)} followed by {@link #turnChanged(Player)}. Events are
+ * delivered on the thread that changed the game, after the change is complete, so a listener
+ * may read the game but must not change it.
+ */
+public interface TicTacToeListener {
+
+  /**
+   * Called after a mark is placed.
+   *
+   * @param r      the row of the cell
+   * @param c      the column of the cell
+   * @param player the player whose mark was placed
+   */
+  default void movePlaced(int r, int c, Player player) {
+  }
+
+  /**
+   * Called after a mark is removed by taking back a move, leaving its cell empty.
+   *
+   * @param r      the row of the cell
+   * @param c      the column of the cell
+   * @param player the player whose mark was removed
+   */
+  default void moveUndone(int r, int c, Player player) {
+  }
+
+  /**
+   * Called when a different player is to move, after a move that did not end the game or after
+   * a move is taken back.
+   *
+   * @param player the player to move
+   */
+  default void turnChanged(Player player) {
+  }
+
+  /**
+   * Called after the move that ends the game.
+   *
+   * @param winner the winner, or {@code null} for a tie
+   */
+  default void gameEnded(Player winner) {
+  }
+}
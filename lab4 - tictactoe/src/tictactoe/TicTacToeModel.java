@@ -1,7 +1,6 @@
 package tictactoe;
 
 import java.util.Arrays;
-import java.util.stream.Collectors;
 
 /**
  * This class represents a single game of Tic Tac Toe, played on a standard three-by-three grid
@@ -10,9 +9,18 @@ import java.util.stream.Collectors;
  * and provides the current state of the game.
  */
 public class TicTacToeModel implements TicTacToe {
+  private static final long[] KEYS = Zobrist.keys(9);
+
+  private final BoardRenderer renderer;
+  private final ListenerList listeners;
+  private final int[] history;
   private Player[][] board;
   private Player turn;
   private Player winner;
+  private int moveCount;
+  private int historyLength;
+  private boolean gameOver;
+  private long hash;
 
   /**
    * Constructor to create a new Tic Tac Toe game. It initializes an empty game board and
@@ -25,11 +33,18 @@ public class TicTacToeModel implements TicTacToe {
     }
     this.turn = Player.X;
     this.winner = null;
+    this.moveCount = 0;
+    this.gameOver = false;
+    this.hash = 0;
+    this.renderer = new BoardRenderer(3, 3);
+    this.listeners = new ListenerList();
+    this.history = new int[9];
+    this.historyLength = 0;
   }
 
   @Override
   public void move(int r, int c) {
-    if (this.isGameOver()) {
+    if (this.gameOver) {
       throw new IllegalStateException("The game is over!");
     }
     if (this.checkOutOfBounds(r, c)) {
@@ -40,12 +55,24 @@ public class TicTacToeModel implements TicTacToe {
     }
 
     this.board[r][c] = this.getTurn();
+    this.renderer.set(r, c, this.getTurn());
+    this.hash ^= KEYS[2 * (3 * r + c) + this.getTurn().ordinal()] ^ Zobrist.SIDE;
+    this.history[this.moveCount] = 3 * r + c;
+    this.moveCount++;
+    this.historyLength = this.moveCount;
+    if (this.checkWin(r, c)) {
+      this.winner = this.getTurn();
+      this.gameOver = true;
+    } else if (this.moveCount == 9) {
+      this.gameOver = true;
+    }
 
     if (this.getTurn() == Player.X) {
       this.turn = Player.O;
     } else {
       this.turn = Player.X;
     }
+    this.listeners.fireMove(r, c, this.board[r][c], this.gameOver, this.winner);
   }
 
   @Override
@@ -55,18 +82,7 @@ public class TicTacToeModel implements TicTacToe {
 
   @Override
   public boolean isGameOver() {
-    if (checkWin()) {
-      return true;
-    }
-
-    for (int row = 0; row < 3; row++) {
-      for (int col = 0; col < 3; col++) {
-        if (this.getMarkAt(row, col) == null) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return this.gameOver;
   }
 
   @Override
@@ -90,29 +106,88 @@ public class TicTacToeModel implements TicTacToe {
   }
 
   @Override
-  public String toString() {
-    // Using Java stream API to save code:
-    return Arrays.stream(getBoard()).map(
-      row -> " " + Arrays.stream(row).map(
-        p -> p == null ? " " : p.toString()).collect(Collectors.joining(" | ")))
-          .collect(Collectors.joining("\n-----------\n"));
-    // This is the equivalent code as above, but using iteration, and still using 
-    // the helpful built-in String.join method.
-    /*
-    List<String> rows = new ArrayList<>();
-    for(Player[] row : getBoard()) {
-      List<String> rowStrings = new ArrayList<>();
-      for(Player p : row) {
-        if(p == null) {
-          rowStrings.add(" ");
-        } else {
-          rowStrings.add(p.toString());
-        }
+  public void forEachCell(CellVisitor visitor) {
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        visitor.visit(row, col, this.board[row][col]);
       }
-      rows.add(" " + String.join(" | ", rowStrings));
     }
-    return String.join("\n-----------\n", rows);
-    */
+  }
+
+  @Override
+  public int getRows() {
+    return 3;
+  }
+
+  @Override
+  public int getColumns() {
+    return 3;
+  }
+
+  @Override
+  public int getWinLength() {
+    return 3;
+  }
+
+  @Override
+  public long getHash() {
+    return this.hash;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("No moves to undo.");
+    }
+    this.moveCount--;
+    int cell = this.history[this.moveCount];
+    Player p = this.board[cell / 3][cell % 3];
+    this.board[cell / 3][cell % 3] = null;
+    this.renderer.set(cell / 3, cell % 3, null);
+    this.hash ^= KEYS[2 * cell + p.ordinal()] ^ Zobrist.SIDE;
+    this.turn = p;
+    this.winner = null;
+    this.gameOver = false;
+    this.listeners.fireUndo(cell / 3, cell % 3, p);
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historyLength) {
+      throw new IllegalStateException("No moves to redo.");
+    }
+    int length = this.historyLength;
+    int cell = this.history[this.moveCount];
+    this.move(cell / 3, cell % 3);
+    this.historyLength = length;
+  }
+
+  @Override
+  public int getMoveCount() {
+    return this.moveCount;
+  }
+
+  @Override
+  public int getMove(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= this.moveCount) {
+      throw new IllegalArgumentException("No such move.");
+    }
+    return this.history[index];
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  @Override
+  public String toString() {
+    return this.renderer.toString();
   }
 
   /**
@@ -127,34 +202,26 @@ public class TicTacToeModel implements TicTacToe {
   }
 
   /**
-   * Checks if a player has won the game of Tic Tac Toe.
-   * @return true if there is a winner, false otherwise.
+   * Checks if the mark just placed at the given row and column completes a line. Only the row,
+   * the column and (if the cell lies on one) the diagonals through that cell are examined.
+   *
+   * @param row the row of the last move.
+   * @param col the column of the last move.
+   * @return true if the last move won the game, false otherwise.
    */
-  private boolean checkWin() {
-    for (int row = 0; row < 3; row++) {
-      if (this.board[row][0] != null && this.board[row][0] == this.board[row][1]
-          && this.board[row][1] == this.board[row][2]) {
-        this.winner = this.getMarkAt(row, 0);
-        return true;
-      }
-    }
-    for (int col = 0; col < 3; col++) {
-      if (this.board[0][col] != null && this.board[0][col] == this.board[1][col]
-          && this.board[1][col] == this.board[2][col]) {
-        this.winner = this.getMarkAt(0, col);
-        return true;
-      }
+  private boolean checkWin(int row, int col) {
+    Player p = this.board[row][col];
+    if (this.board[row][0] == p && this.board[row][1] == p && this.board[row][2] == p) {
+      return true;
     }
-    if (this.board[0][0] != null && this.board[0][0] == this.board[1][1]
-        && this.board[1][1] == this.board[2][2]) {
-      this.winner = this.getMarkAt(0, 0);
+    if (this.board[0][col] == p && this.board[1][col] == p && this.board[2][col] == p) {
       return true;
     }
-    if (this.board[0][2] != null && this.board[0][2] == this.board[1][1]
-        && this.board[1][1] == this.board[2][0]) {
-      this.winner = this.getMarkAt(0, 2);
+    if (row == col
+        && this.board[0][0] == p && this.board[1][1] == p && this.board[2][2] == p) {
       return true;
     }
-    return false;
+    return row + col == 2
+        && this.board[0][2] == p && this.board[1][1] == p && this.board[2][0] == p;
   }
 }
@@ -0,0 +1,311 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * A TCP server that hosts many independent games on one thread. Every connection plays its own
+ * game through a {@link GameSession}, so clients speak the same text protocol as the console
+ * controller, and the connection is closed once the game ends or the client quits.
+ *
+ * <p>All sockets are non-blocking and served by a single {@link Selector} loop. The read and
+ * write buffers and the response text buffer are shared by all connections, so an idle
+ * connection holds only its session and game; a connection only gets a buffer of its own while
+ * the client is too slow to accept a response in full. The server stops reading from such a
+ * client until that buffer has been written, so a client that sends without reading cannot
+ * make it grow beyond the responses to one read.
+ */
+public class TicTacToeServer implements Runnable, Closeable {
+  private static final int BUFFER_SIZE = 1 << 14;
+
+  private final Supplier<TicTacToe> games;
+  private final Selector selector;
+  private final ServerSocketChannel server;
+  private final ByteBuffer input;
+  private final ByteBuffer output;
+  private final StringBuilder text;
+  private volatile boolean running;
+  private volatile int connections;
+  private volatile long gamesPlayed;
+
+  /**
+   * The state kept for one client connection.
+   */
+  private static final class Connection {
+    private final GameSession session;
+    private ByteBuffer pending;
+
+    private Connection(GameSession session) {
+      this.session = session;
+    }
+  }
+
+  /**
+   * Constructor for a server of standard three-by-three games.
+   *
+   * @param address the address to listen on; port 0 picks a free port.
+   * @throws IllegalStateException if the server socket cannot be opened.
+   */
+  public TicTacToeServer(InetSocketAddress address) throws IllegalStateException {
+    this(address, BitboardTicTacToe::new);
+  }
+
+  /**
+   * Constructor for a server that starts each connection on a new game from the given supplier.
+   *
+   * @param address the address to listen on; port 0 picks a free port.
+   * @param games   supplies a new game for every connection.
+   * @throws IllegalArgumentException if either argument is null.
+   * @throws IllegalStateException if the server socket cannot be opened.
+   */
+  public TicTacToeServer(InetSocketAddress address, Supplier<TicTacToe> games)
+      throws IllegalArgumentException, IllegalStateException {
+    if (address == null || games == null) {
+      throw new IllegalArgumentException("Address and games cannot be null.");
+    }
+    this.games = games;
+    this.input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.text = new StringBuilder(BUFFER_SIZE);
+    try {
+      this.selector = Selector.open();
+      this.server = ServerSocketChannel.open();
+      this.server.bind(address, 1024);
+      this.server.configureBlocking(false);
+      this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not open server socket.");
+    }
+    this.running = true;
+  }
+
+  /**
+   * Return the port the server is listening on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return this.server.socket().getLocalPort();
+  }
+
+  /**
+   * Return the number of connections currently open.
+   *
+   * @return the number of connections
+   */
+  public int getConnectionCount() {
+    return this.connections;
+  }
+
+  /**
+   * Return the number of games that have ended, by being played out, quit or abandoned.
+   *
+   * @return the number of games
+   */
+  public long getGamesPlayed() {
+    return this.gamesPlayed;
+  }
+
+  /**
+   * Serve connections on the calling thread until {@link #close()} is called.
+   *
+   * @throws IllegalStateException if the server socket fails.
+   */
+  @Override
+  public void run() throws IllegalStateException {
+    try {
+      while (this.running) {
+        this.selector.select();
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            this.accept();
+            continue;
+          }
+          try {
+            if (key.isReadable()) {
+              this.read(key);
+            }
+            if (key.isValid() && key.isWritable()) {
+              this.write(key);
+            }
+          } catch (IOException e) {
+            this.disconnect(key);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Server failed.");
+    } finally {
+      for (SelectionKey key : this.selector.keys()) {
+        try {
+          key.channel().close();
+        } catch (IOException ignored) {
+          // shutting down anyway
+        }
+      }
+      try {
+        this.selector.close();
+      } catch (IOException ignored) {
+        // shutting down anyway
+      }
+    }
+  }
+
+  /**
+   * Stop serving. The loop in {@link #run()} closes every connection and returns.
+   */
+  @Override
+  public void close() {
+    this.running = false;
+    this.selector.wakeup();
+  }
+
+  /**
+   * Accept every pending connection. A connection that cannot be set up is closed on its own,
+   * and a failure to accept, such as running out of file descriptors, is retried on the next
+   * select, so neither affects the games already being played.
+   *
+   * @throws IOException if the server socket has been closed.
+   */
+  private void accept() throws IOException {
+    while (true) {
+      SocketChannel channel;
+      try {
+        channel = this.server.accept();
+      } catch (IOException e) {
+        if (!this.server.isOpen()) {
+          throw e;
+        }
+        return;
+      }
+      if (channel == null) {
+        return;
+      }
+      Connection connection;
+      SelectionKey key;
+      try {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        connection = new Connection(new GameSession(this.games.get()));
+        key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+      } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // the connection is gone either way
+        }
+        continue;
+      }
+      this.connections++;
+      connection.session.start(this.text);
+      try {
+        this.send(key, connection);
+      } catch (IOException e) {
+        this.disconnect(key);
+      }
+    }
+  }
+
+  private void read(SelectionKey key) throws IOException {
+    Connection connection = (Connection) key.attachment();
+    this.input.clear();
+    int count = ((SocketChannel) key.channel()).read(this.input);
+    if (count < 0) {
+      connection.session.endOfInput(this.text);
+    } else {
+      this.input.flip();
+      connection.session.receive(this.input, this.text);
+    }
+    this.send(key, connection);
+  }
+
+  /**
+   * Write the pending response text to a connection, keeping whatever the socket does not accept
+   * for later, and close the connection once its game has ended and everything is written.
+   */
+  private void send(SelectionKey key, Connection connection) throws IOException {
+    SocketChannel channel = (SocketChannel) key.channel();
+    try {
+      int start = 0;
+      while (start < this.text.length()) {
+        int end = Math.min(this.text.length(), start + this.output.capacity());
+        this.output.clear();
+        for (int i = start; i < end; i++) {
+          this.output.put((byte) this.text.charAt(i));
+        }
+        this.output.flip();
+        start = end;
+        if (connection.pending == null) {
+          channel.write(this.output);
+        }
+        if (this.output.hasRemaining()) {
+          connection.pending = append(connection.pending, this.output);
+        }
+      }
+    } finally {
+      this.text.setLength(0);
+    }
+
+    if (connection.pending != null) {
+      key.interestOps(SelectionKey.OP_WRITE);
+    } else if (connection.session.isFinished()) {
+      this.disconnect(key);
+    }
+  }
+
+  private void write(SelectionKey key) throws IOException {
+    Connection connection = (Connection) key.attachment();
+    ((SocketChannel) key.channel()).write(connection.pending);
+    if (!connection.pending.hasRemaining()) {
+      connection.pending = null;
+      key.interestOps(SelectionKey.OP_READ);
+      if (connection.session.isFinished()) {
+        this.disconnect(key);
+      }
+    }
+  }
+
+  private void disconnect(SelectionKey key) {
+    if (!key.channel().isOpen()) {
+      return;
+    }
+    key.cancel();
+    try {
+      key.channel().close();
+    } catch (IOException ignored) {
+      // the connection is gone either way
+    }
+    this.connections--;
+    this.gamesPlayed++;
+  }
+
+  /**
+   * Return a buffer holding the remaining bytes of the first buffer followed by those of the
+   * second, ready to be written.
+   */
+  private static ByteBuffer append(ByteBuffer first, ByteBuffer second) {
+    int size = (first == null ? 0 : first.remaining()) + second.remaining();
+    ByteBuffer joined = ByteBuffer.allocate(size);
+    if (first != null) {
+      joined.put(first);
+    }
+    joined.put(second);
+    joined.flip();
+    return joined;
+  }
+}
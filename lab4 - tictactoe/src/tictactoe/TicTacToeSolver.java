@@ -0,0 +1,478 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A computer player for any {@link TicTacToe} game. It searches the position with negamax and
+ * alpha-beta pruning, ordering moves by the transposition table's best move first and then from
+ * the center of the board outward. Results are cached in a hash-keyed transposition table that
+ * is kept between calls; positions are keyed on their symmetry-canonical hash, so rotations and
+ * reflections of a position share one entry. By default the search runs to the end of the game
+ * and so plays perfectly; a depth limit can be given for boards too large to solve, in which
+ * case unresolved positions score as even and only cells next to existing marks are considered.
+ * The standard three-by-three game needs no search when it would be solved: its moves are looked
+ * up in the {@link PerfectPlayTable}.
+ *
+ * <p>With more than one thread the solver searches in parallel on a {@link ForkJoinPool}, in the
+ * young-brothers-wait style: at every node with enough depth left, the first move is searched
+ * alone to establish a bound, then its younger brothers are searched as parallel tasks, each on
+ * its own copy of the board. All workers share one transposition table, which is lock-free: a
+ * torn or racing write is detected on probe and treated as a miss. Close a parallel solver when
+ * it is no longer needed, to stop its threads.
+ *
+ * <p>After every call to {@link #bestMove(TicTacToe)} the solver reports the number of nodes it
+ * searched and the time it took, so its speed can be tracked.
+ */
+public class TicTacToeSolver implements Closeable {
+  private static final int WIN = 1_000_000;
+  private static final int WIN_BOUND = WIN - 100_000;
+  private static final int INFINITY = WIN + 1;
+  private static final int NOT_TERMINAL = Integer.MIN_VALUE;
+
+  /**
+   * The least remaining depth at which a node is split among parallel tasks. Shallower subtrees
+   * are searched serially, since they are too small to repay the cost of a task.
+   */
+  private static final int SPLIT_DEPTH = 5;
+
+  /**
+   * Nodes are only split this close to the root. Deeper nodes are searched serially, with the
+   * full benefit of the table's cutoffs and without copying boards.
+   */
+  private static final int SPLIT_PLIES = 3;
+
+  private final int maxDepth;
+  private final TranspositionTable table;
+  private final ForkJoinPool pool;
+  private final LongAdder nodeCounter;
+  private int rows;
+  private int columns;
+  private int winLength;
+  private int rootBest;
+  private int score;
+  private long nodes;
+  private long elapsedNanos;
+
+  /**
+   * Constructor for a solver that searches every position to the end of the game, with a
+   * transposition table of 2^16 slots.
+   */
+  public TicTacToeSolver() {
+    this(Integer.MAX_VALUE, 16);
+  }
+
+  /**
+   * Constructor for a solver with the given search depth and transposition table size.
+   *
+   * @param maxDepth  the maximum number of moves to look ahead.
+   * @param tableBits the base-2 logarithm of the number of transposition table slots.
+   * @throws IllegalArgumentException if maxDepth is not positive or the table size is invalid.
+   */
+  public TicTacToeSolver(int maxDepth, int tableBits) throws IllegalArgumentException {
+    this(maxDepth, tableBits, 1);
+  }
+
+  /**
+   * Constructor for a solver with the given search depth, transposition table size and number
+   * of search threads.
+   *
+   * @param maxDepth  the maximum number of moves to look ahead.
+   * @param tableBits the base-2 logarithm of the number of transposition table slots.
+   * @param threads   the number of threads to search with; 1 searches on the calling thread.
+   * @throws IllegalArgumentException if maxDepth or threads is not positive or the table size
+   *                                  is invalid.
+   */
+  public TicTacToeSolver(int maxDepth, int tableBits, int threads)
+      throws IllegalArgumentException {
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+    this.maxDepth = maxDepth;
+    this.table = new TranspositionTable(tableBits);
+    this.pool = threads == 1 ? null : new ForkJoinPool(threads);
+    this.nodeCounter = new LongAdder();
+  }
+
+  /**
+   * Find the best move for the player whose turn it is.
+   *
+   * @param m a non-null game that is not over.
+   * @return the chosen move as {@code {row, col}}, zero-based.
+   * @throws IllegalArgumentException if the game is null.
+   * @throws IllegalStateException if the game is over.
+   */
+  public int[] bestMove(TicTacToe m) throws IllegalArgumentException, IllegalStateException {
+    if (m == null) {
+      throw new IllegalArgumentException("There is no model.");
+    }
+    if (m.isGameOver()) {
+      throw new IllegalStateException("The game is over!");
+    }
+
+    long start = System.nanoTime();
+    if (m.getRows() == 3 && m.getColumns() == 3 && m.getWinLength() == 3
+        && this.maxDepth >= 9 - m.getMoveCount()) {
+      try {
+        int cell = PerfectPlayTable.preferredCell(m);
+        this.score = PerfectPlayTable.value(m) * WIN_BOUND;
+        this.nodes = 1;
+        this.elapsedNanos = System.nanoTime() - start;
+        return new int[] {cell / 3, cell % 3};
+      } catch (IllegalArgumentException e) {
+        // a position no game reaches, which only the search can handle
+      }
+    }
+
+    SearchBoard board = new SearchBoard(m);
+    this.prepare(board);
+    this.nodeCounter.reset();
+
+    int target = Math.min(this.maxDepth, board.emptyCount());
+    for (int depth = 1; depth <= target; depth++) {
+      if (this.pool == null) {
+        this.score = new Search(board, depth, 0).run(depth, -INFINITY, INFINITY);
+      } else {
+        this.score = this.pool.invoke(new SplitTask(board, depth, 0, -INFINITY, INFINITY));
+      }
+    }
+
+    this.nodes = this.nodeCounter.sum();
+    this.elapsedNanos = System.nanoTime() - start;
+    return new int[] {this.rootBest / board.columns, this.rootBest % board.columns};
+  }
+
+  /**
+   * Return the value of the position searched by the last call to {@link #bestMove(TicTacToe)},
+   * from the perspective of the player to move: positive if they can force a win, negative if
+   * they will lose against perfect play, and zero for a draw or an unresolved position.
+   *
+   * @return the score of the last search
+   */
+  public int getScore() {
+    return this.score;
+  }
+
+  /**
+   * Return the number of positions visited by the last call to {@link #bestMove(TicTacToe)}. A
+   * move looked up in the {@link PerfectPlayTable} visits one.
+   *
+   * @return the number of nodes searched
+   */
+  public long getNodesSearched() {
+    return this.nodes;
+  }
+
+  /**
+   * Return the time taken by the last call to {@link #bestMove(TicTacToe)}.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Return the search speed of the last call to {@link #bestMove(TicTacToe)}.
+   *
+   * @return the number of nodes searched per second
+   */
+  public long getNodesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.nodes * 1_000_000_000L / this.elapsedNanos;
+  }
+
+  /**
+   * Shut down the threads of a parallel solver. A closed parallel solver cannot search again;
+   * closing a solver that searches on the calling thread has no effect.
+   */
+  @Override
+  public void close() {
+    if (this.pool != null) {
+      this.pool.shutdown();
+    }
+  }
+
+  /**
+   * Clear the table if the board shape differs from the previous search, since cached results
+   * are only meaningful for one shape of board.
+   */
+  private void prepare(SearchBoard board) {
+    if (board.rows != this.rows || board.columns != this.columns
+        || board.winLength != this.winLength) {
+      this.table.clear();
+      this.rows = board.rows;
+      this.columns = board.columns;
+      this.winLength = board.winLength;
+    }
+  }
+
+  /**
+   * Store a node's result in the table, with the best cell in the canonical orientation.
+   */
+  private void store(SearchBoard board, long key, int best, int alphaOrig, int beta, int depth,
+      int ply, int bestCell) {
+    int flag;
+    if (best <= alphaOrig) {
+      flag = TranspositionTable.UPPER;
+    } else if (best >= beta) {
+      flag = TranspositionTable.LOWER;
+    } else {
+      flag = TranspositionTable.EXACT;
+    }
+    board.hash();
+    this.table.store(key, toTable(best, ply), depth, flag, board.toCanonical(bestCell));
+    if (ply == 0) {
+      this.rootBest = bestCell;
+    }
+  }
+
+  /**
+   * A serial search of one subtree on one thread. It owns its board and per-ply move buffers, and
+   * adds its node count to the solver's total when it finishes.
+   */
+  private final class Search {
+    private final SearchBoard board;
+    private final int basePly;
+    private final int[][] moveBuffers;
+    private long nodes;
+
+    Search(SearchBoard board, int depth, int ply) {
+      this.board = board;
+      this.basePly = ply;
+      this.moveBuffers = new int[depth + 1][board.cells.length];
+    }
+
+    /**
+     * Search the subtree and report its node count.
+     */
+    int run(int depth, int alpha, int beta) {
+      int value = this.negamax(depth, this.basePly, alpha, beta);
+      TicTacToeSolver.this.nodeCounter.add(this.nodes);
+      return value;
+    }
+
+    /**
+     * Search a position, returning its score from the side to move's perspective. Wins score
+     * {@code WIN - plies}, so that quicker wins and slower losses are preferred.
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+      this.nodes++;
+      SearchBoard board = this.board;
+      depth = Math.min(depth, board.emptyCount());
+      long key = board.hash();
+      int ttCell = -1;
+      long entry = TicTacToeSolver.this.table.probe(key);
+      if (entry != 0) {
+        ttCell = board.fromCanonical(TranspositionTable.cell(entry));
+        if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+          int stored = fromTable(TranspositionTable.score(entry), ply);
+          int flag = TranspositionTable.flag(entry);
+          if (flag == TranspositionTable.EXACT) {
+            return stored;
+          } else if (flag == TranspositionTable.LOWER) {
+            alpha = Math.max(alpha, stored);
+          } else {
+            beta = Math.min(beta, stored);
+          }
+          if (alpha >= beta) {
+            return stored;
+          }
+        }
+      }
+      if (depth == 0) {
+        return 0;
+      }
+
+      int alphaOrig = alpha;
+      int[] moves = this.moveBuffers[ply - this.basePly];
+      int count = generateMoves(board, ttCell, depth < board.emptyCount(), moves);
+      int best = -INFINITY;
+      int bestCell = moves[0];
+      for (int i = 0; i < count; i++) {
+        int cell = moves[i];
+        board.make(cell);
+        int value = terminalValue(board, cell, ply);
+        if (value == NOT_TERMINAL) {
+          value = -this.negamax(depth - 1, ply + 1, -beta, -alpha);
+        }
+        board.unmake(cell);
+
+        if (value > best) {
+          best = value;
+          bestCell = cell;
+        }
+        if (best > alpha) {
+          alpha = best;
+        }
+        if (alpha >= beta) {
+          break;
+        }
+      }
+
+      TicTacToeSolver.this.store(board, key, best, alphaOrig, beta, depth, ply, bestCell);
+      return best;
+    }
+  }
+
+  /**
+   * A node searched in parallel, young-brothers-wait style: the first move is searched on this
+   * thread, then the remaining moves are forked as tasks with the bound it established. Nodes
+   * with less than {@link #SPLIT_DEPTH} left, or more than {@link #SPLIT_PLIES} from the root, are
+   * searched serially. The task may make and unmake moves on its board but leaves it as it found
+   * it.
+   */
+  private final class SplitTask extends RecursiveTask<Integer> {
+    private static final long serialVersionUID = 1L;
+
+    private final SearchBoard board;
+    private final int depth;
+    private final int ply;
+    private final int alpha;
+    private final int beta;
+
+    SplitTask(SearchBoard board, int depth, int ply, int alpha, int beta) {
+      this.board = board;
+      this.depth = Math.min(depth, board.emptyCount());
+      this.ply = ply;
+      this.alpha = alpha;
+      this.beta = beta;
+    }
+
+    @Override
+    protected Integer compute() {
+      SearchBoard board = this.board;
+      if (this.depth < SPLIT_DEPTH || this.ply >= SPLIT_PLIES) {
+        return new Search(board, this.depth, this.ply).run(this.depth, this.alpha, this.beta);
+      }
+      TicTacToeSolver.this.nodeCounter.increment();
+
+      long key = board.hash();
+      long entry = TicTacToeSolver.this.table.probe(key);
+      int ttCell = -1;
+      if (entry != 0) {
+        ttCell = board.fromCanonical(TranspositionTable.cell(entry));
+        if (this.ply > 0 && TranspositionTable.depth(entry) >= this.depth) {
+          int stored = fromTable(TranspositionTable.score(entry), this.ply);
+          int flag = TranspositionTable.flag(entry);
+          if (flag == TranspositionTable.EXACT
+              || flag == TranspositionTable.LOWER && stored >= this.beta
+              || flag == TranspositionTable.UPPER && stored <= this.alpha) {
+            return stored;
+          }
+        }
+      }
+      int[] moves = new int[board.cells.length];
+      int count = generateMoves(board, ttCell, this.depth < board.emptyCount(), moves);
+
+      int alpha = this.alpha;
+      int bestCell = moves[0];
+      board.make(bestCell);
+      int best = terminalValue(board, bestCell, this.ply);
+      if (best == NOT_TERMINAL) {
+        best = -new SplitTask(board, this.depth - 1, this.ply + 1, -this.beta, -alpha).compute();
+      }
+      board.unmake(bestCell);
+      alpha = Math.max(alpha, best);
+
+      if (alpha < this.beta) {
+        List<SplitTask> tasks = new ArrayList<>();
+        int[] taskCells = new int[count];
+        for (int i = 1; i < count; i++) {
+          int cell = moves[i];
+          SearchBoard child = new SearchBoard(board);
+          child.make(cell);
+          int value = terminalValue(child, cell, this.ply);
+          if (value == NOT_TERMINAL) {
+            taskCells[tasks.size()] = cell;
+            tasks.add(new SplitTask(child, this.depth - 1, this.ply + 1, -this.beta, -alpha));
+          } else if (value > best) {
+            best = value;
+            bestCell = cell;
+          }
+        }
+        invokeAll(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+          int value = -tasks.get(i).join();
+          if (value > best) {
+            best = value;
+            bestCell = taskCells[i];
+          }
+        }
+      }
+
+      TicTacToeSolver.this.store(board, key, best, this.alpha, this.beta, this.depth, this.ply,
+          bestCell);
+      return best;
+    }
+  }
+
+  /**
+   * Return the score of the position just reached by playing the given cell, from the point of
+   * view of the player who played it, if the game ended with that move.
+   *
+   * @return the score, or {@link #NOT_TERMINAL} if the game continues
+   */
+  private static int terminalValue(SearchBoard board, int cell, int ply) {
+    if (board.isWin(cell)) {
+      return WIN - (ply + 1);
+    } else if (board.emptyCount() == 0) {
+      return 0;
+    }
+    return NOT_TERMINAL;
+  }
+
+  /**
+   * Fill the buffer with the legal moves to search, the table's best move first and the rest
+   * from the center outward. When the search will not reach the end of the game and the board
+   * is not empty, only cells next to an existing mark are generated.
+   *
+   * @return the number of moves generated
+   */
+  static int generateMoves(SearchBoard board, int ttCell, boolean limited, int[] moves) {
+    int count = 0;
+    if (ttCell >= 0 && ttCell < board.cells.length
+        && board.cells[ttCell] == SearchBoard.EMPTY) {
+      moves[count++] = ttCell;
+    }
+    boolean nearOnly = limited && board.moveCount() > 0;
+    for (int cell : board.centerOrder) {
+      if (cell != ttCell && board.cells[cell] == SearchBoard.EMPTY
+          && (!nearOnly || board.hasNeighbor(cell))) {
+        moves[count++] = cell;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Convert a win or loss score measured from the root into one measured from this node, so it
+   * stays correct when the position is reached at a different ply.
+   */
+  static int toTable(int score, int ply) {
+    if (score > WIN_BOUND) {
+      return score + ply;
+    } else if (score < -WIN_BOUND) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  /**
+   * Inverse of {@link #toTable(int, int)}.
+   */
+  static int fromTable(int score, int ply) {
+    if (score > WIN_BOUND) {
+      return score - ply;
+    } else if (score < -WIN_BOUND) {
+      return score + ply;
+    }
+    return score;
+  }
+}
@@ -1,6 +1,18 @@
 package tictactoe;
 
-public interface TicTacToeView {
-  void displayBoard(TicTacToeModel m);
-  
+/**
+ * A view of a Tic Tac Toe game. A view draws the whole board once with
+ * {@link #displayBoard(TicTacToe)}, then subscribes to the game with
+ * {@link TicTacToe#addListener(TicTacToeListener)} and keeps itself up to date from the
+ * {@link TicTacToeListener} events, redrawing only the cell each move changes.
+ */
+public interface TicTacToeView extends TicTacToeListener {
+
+  /**
+   * Draw the whole board of the given game, replacing whatever was shown before.
+   *
+   * @param m the game to show
+   */
+  void displayBoard(TicTacToe m);
+
 }
@@ -0,0 +1,222 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits the characters of a {@link Readable} into whitespace-separated tokens, as
+ * {@link java.util.Scanner#next()} does with its default delimiter, without regular expressions
+ * or exceptions for ordinary input. Characters are read through one reusable {@link CharBuffer}
+ * and each token is copied into a reusable character array, where it is parsed as an integer
+ * with the same rules as {@link Integer#parseInt(String)}. Reading and parsing a token allocates
+ * nothing unless it is longer than any token before it.
+ *
+ * <p>As with Scanner, an {@link IOException} from the Readable is treated as the end of input.
+ */
+public class Tokenizer {
+  /**
+   * The value returned by {@link #parseInt(char[], int)} for a token that is not an int.
+   */
+  static final long NOT_AN_INT = Long.MIN_VALUE;
+  private static final int BUFFER_SIZE = 1024;
+
+  private final Readable in;
+  private final CharBuffer buffer;
+  private char[] token;
+  private int length;
+  private boolean isInt;
+  private int intValue;
+  private boolean endOfInput;
+
+  /**
+   * Constructor for a tokenizer reading from the given source.
+   *
+   * @param in the source of characters.
+   * @throws IllegalArgumentException if in is null.
+   */
+  public Tokenizer(Readable in) throws IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException("Readable cannot be null.");
+    }
+    this.in = in;
+    this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+    this.buffer.flip();
+    this.token = new char[16];
+  }
+
+  /**
+   * Advance to the next token, blocking until it is complete.
+   *
+   * @throws NoSuchElementException if the input ends before another token.
+   */
+  public void next() throws NoSuchElementException {
+    int ch = this.read();
+    while (ch >= 0 && Character.isWhitespace((char) ch)) {
+      ch = this.read();
+    }
+    if (ch < 0) {
+      this.length = 0;
+      this.isInt = false;
+      throw new NoSuchElementException();
+    }
+    this.length = 0;
+    while (ch >= 0 && !Character.isWhitespace((char) ch)) {
+      if (this.length == this.token.length) {
+        char[] larger = new char[2 * this.length];
+        System.arraycopy(this.token, 0, larger, 0, this.length);
+        this.token = larger;
+      }
+      this.token[this.length++] = (char) ch;
+      ch = this.read();
+    }
+    long value = parseInt(this.token, this.length);
+    this.isInt = value != NOT_AN_INT;
+    this.intValue = (int) value;
+  }
+
+  /**
+   * Return whether the current token is a valid decimal integer that fits in an int.
+   *
+   * @return true if {@link #intValue()} holds the token's value
+   */
+  public boolean isInt() {
+    return this.isInt;
+  }
+
+  /**
+   * Return the value of the current token as an integer.
+   *
+   * @return the parsed value
+   * @throws IllegalStateException if the current token is not an integer.
+   */
+  public int intValue() throws IllegalStateException {
+    if (!this.isInt) {
+      throw new IllegalStateException("The token is not an integer.");
+    }
+    return this.intValue;
+  }
+
+  /**
+   * Return whether the current token equals the given word, ignoring case.
+   *
+   * @param word the word to compare against.
+   * @return true if the token matches
+   */
+  public boolean equalsIgnoreCase(String word) {
+    return equalsIgnoreCase(word, this.token, this.length);
+  }
+
+  /**
+   * Append the text of the current token.
+   *
+   * @param sb the destination.
+   */
+  public void appendTo(StringBuilder sb) {
+    sb.append(this.token, 0, this.length);
+  }
+
+  /**
+   * Close the underlying Readable, if it can be closed.
+   */
+  public void close() {
+    if (this.in instanceof Closeable) {
+      try {
+        ((Closeable) this.in).close();
+      } catch (IOException ignored) {
+        // as with Scanner, a failure to close is not reported
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new String(this.token, 0, this.length);
+  }
+
+  /**
+   * Return the next character of input, refilling the buffer as needed.
+   *
+   * @return the character, or -1 at the end of input.
+   */
+  private int read() {
+    while (!this.buffer.hasRemaining()) {
+      if (this.endOfInput) {
+        return -1;
+      }
+      this.buffer.clear();
+      int count;
+      try {
+        count = this.in.read(this.buffer);
+      } catch (IOException e) {
+        count = -1;
+      }
+      this.buffer.flip();
+      if (count < 0) {
+        this.endOfInput = true;
+      }
+    }
+    return this.buffer.get();
+  }
+
+  /**
+   * Return whether a token equals the given word, ignoring case as
+   * {@link String#equalsIgnoreCase(String)} does.
+   *
+   * @param word   the word to compare against.
+   * @param chars  the characters of the token.
+   * @param length the length of the token.
+   * @return true if the token matches
+   */
+  static boolean equalsIgnoreCase(String word, char[] chars, int length) {
+    if (word.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      char a = Character.toUpperCase(word.charAt(i));
+      char b = Character.toUpperCase(chars[i]);
+      if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse a token following the rules of {@link Integer#parseInt(String)}: an optional sign
+   * followed by at least one decimal digit, with overflow making the token invalid.
+   *
+   * @param chars  the characters of the token.
+   * @param length the length of the token, at least 1.
+   * @return the value, or {@link #NOT_AN_INT} if the token is not a valid int
+   */
+  static long parseInt(char[] chars, int length) {
+    int i = 0;
+    boolean negative = false;
+    char first = chars[0];
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      i++;
+      if (length == 1) {
+        return NOT_AN_INT;
+      }
+    }
+    // accumulate negatively, since the negative range is one larger
+    int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int multiplyLimit = limit / 10;
+    int result = 0;
+    for (; i < length; i++) {
+      int digit = Character.digit(chars[i], 10);
+      if (digit < 0 || result < multiplyLimit) {
+        return NOT_AN_INT;
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        return NOT_AN_INT;
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+}
@@ -0,0 +1,106 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, hash-keyed table of search results used by {@link TicTacToeSolver}. Each slot
+ * holds the 64-bit position hash and one packed {@code long} with the score, the searched
+ * depth, the bound type and the best cell, so a probe is two array loads and nothing is
+ * allocated once the table is built. Newer results always replace older ones in the same slot.
+ *
+ * <p>The table is shared by parallel search threads without locks. The key word of a slot is
+ * stored XOR-ed with its data word, so a probe that sees a key from one write and data from
+ * another no longer matches its hash and is treated as a miss.
+ */
+class TranspositionTable {
+  static final int EXACT = 1;
+  static final int LOWER = 2;
+  static final int UPPER = 3;
+
+  private final long[] keys;
+  private final long[] data;
+  private final int mask;
+
+  /**
+   * Create a table with {@code 2^bits} slots.
+   *
+   * @param bits the base-2 logarithm of the number of slots.
+   * @throws IllegalArgumentException if bits is outside 1 to 30.
+   */
+  TranspositionTable(int bits) throws IllegalArgumentException {
+    if (bits < 1 || bits > 30) {
+      throw new IllegalArgumentException("Table size must be between 2^1 and 2^30 slots.");
+    }
+    this.keys = new long[1 << bits];
+    this.data = new long[1 << bits];
+    this.mask = (1 << bits) - 1;
+  }
+
+  /**
+   * Look up a position.
+   *
+   * @param key the position hash.
+   * @return the packed entry, or 0 if the position is not in the table.
+   */
+  long probe(long key) {
+    int slot = (int) key & this.mask;
+    long entry = this.data[slot];
+    return (this.keys[slot] ^ entry) == key ? entry : 0;
+  }
+
+  /**
+   * Store the result of searching a position.
+   *
+   * @param key   the position hash.
+   * @param score the score, from the side to move's perspective.
+   * @param depth the remaining depth the score was searched to.
+   * @param flag  {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+   * @param cell  the best cell found, or -1 if none.
+   */
+  void store(long key, int score, int depth, int flag, int cell) {
+    int slot = (int) key & this.mask;
+    long entry = pack(score, depth, flag, cell);
+    this.keys[slot] = key ^ entry;
+    this.data[slot] = entry;
+  }
+
+  /**
+   * Remove every entry.
+   */
+  void clear() {
+    Arrays.fill(this.keys, 0);
+    Arrays.fill(this.data, 0);
+  }
+
+  /**
+   * Return the memory used by the table's arrays.
+   *
+   * @return the size in bytes.
+   */
+  long sizeInBytes() {
+    return 16L * this.keys.length;
+  }
+
+  static long pack(int score, int depth, int flag, int cell) {
+    return (score & 0xFFFFFFFFL)
+        | ((long) (depth & 0xFFFF) << 32)
+        | ((long) flag << 48)
+        | ((long) (cell + 1) << 50);
+  }
+
+  static int score(long entry) {
+    return (int) entry;
+  }
+
+  static int depth(long entry) {
+    return (int) (entry >>> 32) & 0xFFFF;
+  }
+
+  static int flag(long entry) {
+    return (int) (entry >>> 48) & 0x3;
+  }
+
+  static int cell(long entry) {
+    return (int) (entry >>> 50) - 1;
+  }
+}
@@ -0,0 +1,59 @@
+package tictactoe;
+
+/**
+ * Zobrist hashing keys shared by every {@link TicTacToe} implementation. Each (cell, player)
+ * pair has a fixed pseudo-random 64-bit key, and a position's hash is the XOR of the keys of
+ * its marks, XOR-ed with {@link #SIDE} when O is to move. Placing or removing a mark is then a
+ * single XOR. Keys are derived from the cell index alone, so the same position on boards of the
+ * same shape hashes identically in every implementation and every run.
+ */
+final class Zobrist {
+  private static final long SEED = 0x6A09E667F3BCC909L;
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+  /**
+   * The key XOR-ed into a hash when O is to move.
+   */
+  static final long SIDE = mix(SEED);
+
+  private Zobrist() {
+  }
+
+  /**
+   * Return the key for a player's mark in a cell.
+   *
+   * @param cell   the cell index, {@code row * columns + col}.
+   * @param player the player.
+   * @return the key
+   */
+  static long key(int cell, Player player) {
+    return mix(SEED + (2L * cell + player.ordinal() + 1) * GOLDEN);
+  }
+
+  /**
+   * Return the keys for every cell of a board, indexed by {@code 2 * cell + player.ordinal()}.
+   *
+   * @param cells the number of cells on the board.
+   * @return a new array of keys
+   */
+  static long[] keys(int cells) {
+    long[] keys = new long[2 * cells];
+    for (int cell = 0; cell < cells; cell++) {
+      keys[2 * cell] = key(cell, Player.X);
+      keys[2 * cell + 1] = key(cell, Player.O);
+    }
+    return keys;
+  }
+
+  /**
+   * The SplitMix64 finalizer, used to derive well-mixed keys from a counter.
+   *
+   * @param z the value to mix.
+   * @return the mixed value
+   */
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
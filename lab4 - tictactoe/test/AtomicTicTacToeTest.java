@@ -0,0 +1,146 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import tictactoe.AtomicTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Test cases for the lock-free Tic Tac Toe model. Runs the full model test suite against
+ * {@link AtomicTicTacToe}, plus checks of snapshots and of concurrent players and spectators.
+ */
+public class AtomicTicTacToeTest extends TicTacToeModelTest {
+
+  @Override
+  protected TicTacToe makeModel() {
+    return new AtomicTicTacToe();
+  }
+
+  /**
+   * Test that a snapshot keeps the position it was taken at and cannot be changed.
+   */
+  @Test
+  public void testSnapshot() {
+    AtomicTicTacToe m = new AtomicTicTacToe();
+    m.move(1, 1);
+    AtomicTicTacToe.Snapshot before = m.snapshot();
+    m.move(0, 0);
+    assertEquals(1, before.getMoveCount());
+    assertEquals(Player.O, before.getTurn());
+    assertNull(before.getMarkAt(0, 0));
+    assertEquals(Player.O, m.getMarkAt(0, 0));
+    assertTrue(before.getState() != m.getState());
+    m.undo();
+    assertEquals(before.getHash(), m.getHash());
+    assertEquals(before.toString(), m.toString());
+    try {
+      before.move(0, 1);
+      assertTrue(false);
+    } catch (IllegalStateException e) {
+      assertEquals(1, before.getMoveCount());
+    }
+  }
+
+  /**
+   * Test that several threads playing the same game never lose or duplicate a move, while
+   * spectators polling snapshots only ever see positions that could have been played.
+   */
+  @Test
+  public void testConcurrentPlayersAndSpectators() throws InterruptedException {
+    for (int game = 0; game < 200; game++) {
+      AtomicTicTacToe m = new AtomicTicTacToe();
+      AtomicInteger played = new AtomicInteger();
+      AtomicReference<String> error = new AtomicReference<>();
+      Thread[] threads = new Thread[6];
+      for (int t = 0; t < threads.length; t++) {
+        final boolean player = t < 4;
+        final SplittableRandom random = new SplittableRandom(31L * game + t);
+        threads[t] = new Thread(() -> {
+          while (!m.isGameOver()) {
+            if (player) {
+              int cell = random.nextInt(9);
+              try {
+                m.move(cell / 3, cell % 3);
+                played.incrementAndGet();
+              } catch (IllegalArgumentException | IllegalStateException e) {
+                // taken by another player, or the game just ended
+              }
+            } else {
+              String problem = check(m.snapshot());
+              if (problem != null) {
+                error.compareAndSet(null, problem);
+              }
+            }
+          }
+        });
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertNull(error.get());
+      assertTrue(m.isGameOver());
+      assertEquals(played.get(), m.getMoveCount());
+      assertNull(check(m.snapshot()));
+    }
+  }
+
+  /**
+   * Return what is wrong with a snapshot, or null if it is a position reachable in play whose
+   * history matches its marks.
+   */
+  private static String check(AtomicTicTacToe.Snapshot s) {
+    int x = 0;
+    int o = 0;
+    for (int i = 0; i < s.getMoveCount(); i++) {
+      int bit = 1 << s.getMove(i);
+      if (((x | o) & bit) != 0) {
+        return "cell played twice";
+      }
+      if (i % 2 == 0) {
+        x |= bit;
+      } else {
+        o |= bit;
+      }
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      Player mark = s.getMarkAt(cell / 3, cell % 3);
+      Player expected = (x >> cell & 1) != 0 ? Player.X : (o >> cell & 1) != 0 ? Player.O : null;
+      if (mark != expected) {
+        return "board does not match history";
+      }
+    }
+    if (s.getTurn() != (s.getMoveCount() % 2 == 0 ? Player.X : Player.O)) {
+      return "wrong turn";
+    }
+    if (s.getWinner() != null && !s.isGameOver()) {
+      return "winner while in play";
+    }
+    return null;
+  }
+
+  /**
+   * Test that undo and redo from different threads see each other's changes.
+   */
+  @Test
+  public void testUndoRedoAcrossThreads() throws InterruptedException {
+    AtomicTicTacToe m = new AtomicTicTacToe();
+    m.move(0, 0);
+    m.move(1, 1);
+    Thread undo = new Thread(m::undo);
+    undo.start();
+    undo.join();
+    assertEquals(1, m.getMoveCount());
+    Thread redo = new Thread(m::redo);
+    redo.start();
+    redo.join();
+    assertEquals(Player.O, m.getMarkAt(1, 1));
+    assertFalse(m.isGameOver());
+  }
+}
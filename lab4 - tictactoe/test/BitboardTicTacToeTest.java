@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Test cases for the bitboard Tic Tac Toe model. Runs the full model test suite against
+ * {@link BitboardTicTacToe}, plus checks of the exposed masks.
+ */
+public class BitboardTicTacToeTest extends TicTacToeModelTest {
+
+  @Override
+  protected TicTacToe makeModel() {
+    return new BitboardTicTacToe();
+  }
+
+  /**
+   * Test that each player's marks are reflected in the corresponding mask.
+   */
+  @Test
+  public void testMasks() {
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    m.move(0, 0);
+    m.move(1, 1);
+    m.move(2, 2);
+    assertEquals(0x101, m.getXMask());
+    assertEquals(0x010, m.getOMask());
+  }
+
+  /**
+   * Test that a move completing two lines at once still produces a single winner.
+   */
+  @Test
+  public void testDoubleLineWin() {
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    m.move(0, 0); // X
+    m.move(1, 0); // O
+    m.move(0, 2); // X
+    m.move(1, 2); // O
+    m.move(2, 0); // X
+    m.move(2, 1); // O
+    m.move(2, 2); // X
+    m.move(0, 1); // O
+    m.move(1, 1); // X completes both diagonals
+    assertTrue(m.isGameOver());
+    assertEquals(Player.X, m.getWinner());
+  }
+
+  /**
+   * Test that resetting the game tells listeners of every cell it clears.
+   */
+  @Test
+  public void testResetNotifiesListeners() {
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    m.move(0, 0);
+    m.move(2, 2);
+    RecordingListener listener = new RecordingListener();
+    m.addListener(listener);
+    m.reset();
+    assertEquals("undone O 2 2\nturn O\nundone X 0 0\nturn X\n", listener.toString());
+    assertEquals(0, m.getMoveCount());
+  }
+}
@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+import tictactoe.BoardPainter;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the board painter, drawing into images without a display.
+ */
+public class BoardPainterTest {
+  private static final int WHITE = 0xFFFFFF;
+
+  /**
+   * Test the board's size and the mapping between cells and pixels.
+   */
+  @Test
+  public void testGeometry() {
+    BoardPainter painter = new BoardPainter(4, 5, 20);
+    assertEquals(100, painter.getWidth());
+    assertEquals(80, painter.getHeight());
+    assertEquals(new Rectangle(40, 20, 20, 20), painter.cellBounds(1, 2));
+    assertEquals(0, painter.cellAt(0, 0));
+    assertEquals(7, painter.cellAt(59, 39));
+    assertEquals(19, painter.cellAt(99, 79));
+    assertEquals(-1, painter.cellAt(100, 10));
+    assertEquals(-1, painter.cellAt(10, -1));
+  }
+
+  /**
+   * Test that each mark is drawn once and then reused.
+   */
+  @Test
+  public void testMarkImagesCached() {
+    BoardPainter painter = new BoardPainter(3, 3, 40);
+    assertSame(painter.getMarkImage(Player.X), painter.getMarkImage(Player.X));
+    assertEquals(40, painter.getMarkImage(Player.O).getWidth());
+    assertEquals(40, painter.getMarkImage(Player.O).getHeight());
+  }
+
+  /**
+   * Test that a rendered board shows the marks in their cells and leaves empty cells blank.
+   */
+  @Test
+  public void testRender() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(1, 1);
+    m.move(0, 2);
+    BoardPainter painter = new BoardPainter(3, 3, 40);
+    BufferedImage image = painter.render(m);
+    assertEquals(120, image.getWidth());
+    // the strokes of X cross at the centre of its cell
+    assertNotEquals(WHITE, image.getRGB(60, 60) & 0xFFFFFF);
+    // O is a ring, with an empty centre
+    assertNotEquals(WHITE, image.getRGB(80 + 8, 20) & 0xFFFFFF);
+    assertEquals(WHITE, image.getRGB(100, 20) & 0xFFFFFF);
+    assertEquals(WHITE, image.getRGB(20, 100) & 0xFFFFFF);
+  }
+
+  /**
+   * Test that only the cells meeting the clip are painted.
+   */
+  @Test
+  public void testPaintOnlyClippedCells() {
+    BoardPainter painter = new BoardPainter(30, 30, 10);
+    Player[] marks = new Player[900];
+    marks[31] = Player.X;
+    BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    assertEquals(900, painter.paintCells(g, marks));
+    g.setClip(painter.cellBounds(1, 1));
+    assertEquals(1, painter.paintCells(g, marks));
+    g.setClip(15, 15, 10, 1);
+    assertEquals(2, painter.paintCells(g, marks));
+    g.dispose();
+  }
+
+  /**
+   * Test that a game of another size is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRenderWrongSize() {
+    new BoardPainter(3, 3, 40).render(new MnkTicTacToe(4, 4, 3));
+  }
+
+  /**
+   * Test that a board must have a positive size.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new BoardPainter(3, 3, 0);
+  }
+}
@@ -0,0 +1,95 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.BoardRenderer;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Test cases for the cached board renderer.
+ */
+public class BoardRendererTest {
+
+  /**
+   * Test that an empty board renders the same as the original stream-based toString.
+   */
+  @Test
+  public void testEmptyBoard() {
+    BoardRenderer renderer = new BoardRenderer(3, 3);
+    assertEquals("   |   |  \n-----------\n   |   |  \n-----------\n   |   |  ",
+        renderer.toString());
+    assertEquals(56, renderer.length());
+  }
+
+  /**
+   * Test that the rendered text is reused until a cell changes.
+   */
+  @Test
+  public void testCachedUntilChanged() {
+    BoardRenderer renderer = new BoardRenderer(3, 3);
+    String first = renderer.toString();
+    assertSame(first, renderer.toString());
+    renderer.set(1, 2, Player.O);
+    String second = renderer.toString();
+    assertNotSame(first, second);
+    assertEquals("   |   |  \n-----------\n   |   | O\n-----------\n   |   |  ", second);
+    renderer.set(1, 2, null);
+    assertEquals(first, renderer.toString());
+  }
+
+  /**
+   * Test that clearing leaves the separators in place.
+   */
+  @Test
+  public void testClear() {
+    BoardRenderer renderer = new BoardRenderer(2, 4);
+    String empty = renderer.toString();
+    renderer.set(0, 0, Player.X);
+    renderer.set(1, 3, Player.O);
+    renderer.clear();
+    assertEquals(empty, renderer.toString());
+  }
+
+  /**
+   * Test that rendering a non-square board matches the model, and that a full redraw agrees with
+   * incremental updates.
+   */
+  @Test
+  public void testNonSquareBoard() throws IOException {
+    TicTacToe m = new MnkTicTacToe(2, 4, 3);
+    m.move(0, 0); // X
+    m.move(1, 3); // O
+    assertEquals(" X |   |   |  \n---------------\n   |   |   | O", m.toString());
+
+    BoardRenderer renderer = new BoardRenderer(2, 4);
+    renderer.render(m);
+    StringBuilder out = new StringBuilder();
+    renderer.appendTo(out);
+    assertEquals(m.toString(), out.toString());
+  }
+
+  /**
+   * Test that a reset bitboard renders as empty again.
+   */
+  @Test
+  public void testBitboardReset() {
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    String empty = m.toString();
+    m.move(1, 1);
+    m.reset();
+    assertEquals(empty, m.toString());
+  }
+
+  /**
+   * Test that dimensions must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDimensions() {
+    new BoardRenderer(0, 3);
+  }
+}
@@ -0,0 +1,142 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+import tictactoe.ControllerMetrics;
+import tictactoe.Player;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+/**
+ * Test cases for the console controller's metrics and their JMX interface.
+ */
+public class ControllerMetricsTest {
+  private static String play(String input, ControllerMetrics metrics) {
+    StringBuilder log = new StringBuilder();
+    try {
+      new TicTacToeConsoleController(new StringReader(input), log, null,
+          EnumSet.noneOf(Player.class), false, metrics).playGame(new TicTacToeModel());
+    } catch (IllegalStateException e) {
+      // out of input before the game ended
+    }
+    return log.toString();
+  }
+
+  /**
+   * Test that a game is counted with its moves, rejected input and undos.
+   */
+  @Test
+  public void testCountsGame() {
+    ControllerMetrics metrics = new ControllerMetrics();
+    play("a 2 2 9 9 1 1 u 1 1 1 2 2 1 1 3 3 1\n", metrics);
+    assertEquals(1, metrics.getGamesStarted());
+    assertEquals(1, metrics.getGamesFinished());
+    assertEquals(0, metrics.getGamesInProgress());
+    // the move taken back was still placed
+    assertEquals(7, metrics.getMoves());
+    assertEquals(1, metrics.getInvalidNumbers());
+    assertEquals(1, metrics.getInvalidMoves());
+    assertEquals(1, metrics.getUndos());
+    assertEquals(1, metrics.getGameDuration().getCount());
+    assertTrue(metrics.getMoveLatencyMaxNanos() >= metrics.getMoveLatencyMedianNanos());
+    assertTrue(metrics.getMovesPerSecond() > 0);
+  }
+
+  /**
+   * Test that games quit or left without input are told apart, and that one set of metrics
+   * totals several controllers.
+   */
+  @Test
+  public void testQuitAndAbandoned() {
+    ControllerMetrics metrics = new ControllerMetrics();
+    play("2 2 q\n", metrics);
+    play("2 2 1\n", metrics);
+    play("1 1 2 1 1 2 2 2 1 3\n", metrics);
+    assertEquals(3, metrics.getGamesStarted());
+    assertEquals(1, metrics.getGamesQuit());
+    assertEquals(1, metrics.getGamesAbandoned());
+    assertEquals(1, metrics.getGamesFinished());
+    assertEquals(0, metrics.getGamesInProgress());
+  }
+
+  /**
+   * Test that engine moves are counted.
+   */
+  @Test
+  public void testEngineMoves() {
+    ControllerMetrics metrics = new ControllerMetrics();
+    new TicTacToeConsoleController(new StringReader(""), new StringBuilder(),
+        new TicTacToeSolver(), EnumSet.allOf(Player.class), true, metrics)
+        .playGame(new TicTacToeModel());
+    assertEquals(9, metrics.getMoves());
+    assertEquals(1, metrics.getGamesFinished());
+  }
+
+  /**
+   * Test that the output is the same with metrics and without.
+   */
+  @Test
+  public void testOutputUnchanged() {
+    String input = "a 2 2 9 9 1 1 u 1 1 1 2 2 1 1 3 3 1 q\n";
+    assertEquals(play(input, null), play(input, new ControllerMetrics()));
+  }
+
+  /**
+   * Test that reset sets every count back to zero.
+   */
+  @Test
+  public void testReset() {
+    ControllerMetrics metrics = new ControllerMetrics();
+    play("2 2 1 1 a q\n", metrics);
+    metrics.reset();
+    assertEquals(0, metrics.getGamesStarted());
+    assertEquals(0, metrics.getMoves());
+    assertEquals(0, metrics.getInvalidNumbers());
+    assertEquals(0, metrics.getGameDurationMedianMillis());
+  }
+
+  /**
+   * Test that the metrics can be read and dumped through the platform MBean server.
+   */
+  @Test
+  public void testJmx() throws Exception {
+    ControllerMetrics metrics = new ControllerMetrics();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = metrics.register("test");
+    try {
+      assertEquals("tictactoe", name.getDomain());
+      play("2 2 1 1 x q\n", metrics);
+      assertEquals(2L, server.getAttribute(name, "Moves"));
+      assertEquals(1L, server.getAttribute(name, "GamesQuit"));
+      String dump = (String) server.invoke(name, "dump", null, null);
+      assertTrue(dump.contains("1 quit"));
+      assertTrue(dump.contains("1 invalid numbers"));
+      server.invoke(name, "reset", null, null);
+      assertEquals(0L, server.getAttribute(name, "Moves"));
+    } finally {
+      metrics.unregister();
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+  /**
+   * Test that two sets of metrics cannot share a name.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testDuplicateName() {
+    ControllerMetrics first = new ControllerMetrics();
+    first.register("duplicate");
+    try {
+      new ControllerMetrics().register("duplicate");
+    } finally {
+      first.unregister();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * A mock that records everything written to it and counts how many times it was written to.
+ */
+public class CountingAppendable implements Appendable {
+  private final StringBuilder log = new StringBuilder();
+  private int appends;
+
+  @Override
+  public Appendable append(CharSequence csq) {
+    this.appends++;
+    this.log.append(csq);
+    return this;
+  }
+
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) {
+    this.appends++;
+    this.log.append(csq, start, end);
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) {
+    this.appends++;
+    this.log.append(c);
+    return this;
+  }
+
+  /**
+   * Return the number of calls to append.
+   *
+   * @return the number of writes
+   */
+  public int getAppends() {
+    return this.appends;
+  }
+
+  @Override
+  public String toString() {
+    return this.log.toString();
+  }
+}
@@ -0,0 +1,251 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import tictactoe.AtomicTicTacToe;
+import tictactoe.GameBroadcaster;
+import tictactoe.GameDelta;
+import tictactoe.GameRecord;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for broadcasting a game's changes to spectators.
+ */
+public class GameBroadcasterTest {
+  /**
+   * Runs delivery tasks on the publishing thread, so tests are deterministic.
+   */
+  private static final Executor DIRECT = Runnable::run;
+
+  private static Player[] board(TicTacToe m) {
+    Player[] board = new Player[m.getRows() * m.getColumns()];
+    m.forEachCell((r, c, mark) -> board[r * m.getColumns() + c] = mark);
+    return board;
+  }
+
+  /**
+   * Test that a subscriber gets a snapshot of the board, then one message per move.
+   */
+  @Test
+  public void testSnapshotThenMoves() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(1, 1);
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 16, DIRECT);
+    RecordingSubscriber spectator = new RecordingSubscriber(Long.MAX_VALUE);
+    broadcaster.subscribe(spectator);
+    m.move(0, 0);
+    m.move(0, 1);
+    m.move(2, 2);
+    m.move(2, 1);
+
+    List<ByteBuffer> messages = spectator.getMessages();
+    assertEquals(5, messages.size());
+    ByteBuffer snapshot = messages.get(0);
+    assertEquals(GameDelta.SNAPSHOT, GameDelta.type(snapshot));
+    assertEquals(0, GameDelta.sequence(snapshot));
+    assertEquals(Player.O, GameDelta.player(snapshot));
+    assertEquals(Player.X, GameDelta.markAt(snapshot, 1, 1));
+    assertNull(GameDelta.markAt(snapshot, 0, 0));
+
+    ByteBuffer first = messages.get(1);
+    assertEquals(GameDelta.MOVE, GameDelta.type(first));
+    assertEquals(1, GameDelta.sequence(first));
+    assertEquals(Player.O, GameDelta.player(first));
+    assertEquals(0, GameDelta.row(first));
+    assertEquals(0, GameDelta.column(first));
+    assertEquals(GameRecord.UNFINISHED, GameDelta.result(first));
+    assertEquals(GameRecord.X_WINS, GameDelta.result(messages.get(4)));
+
+    assertFalse(spectator.isOutOfOrder());
+    assertArrayEquals(board(m), spectator.getBoard());
+  }
+
+  /**
+   * Test that taking a move back is sent as the cell it clears.
+   */
+  @Test
+  public void testUndo() {
+    TicTacToe m = new MnkTicTacToe(4, 5, 3);
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 16, DIRECT);
+    RecordingSubscriber spectator = new RecordingSubscriber(Long.MAX_VALUE);
+    broadcaster.subscribe(spectator);
+    m.move(3, 4);
+    m.undo();
+    ByteBuffer undo = spectator.getMessages().get(2);
+    assertEquals(GameDelta.UNDO, GameDelta.type(undo));
+    assertEquals(Player.X, GameDelta.player(undo));
+    assertEquals(3, GameDelta.row(undo));
+    assertEquals(4, GameDelta.column(undo));
+    assertArrayEquals(new Player[20], spectator.getBoard());
+  }
+
+  /**
+   * Test that a subscriber that falls behind has its backlog replaced by one snapshot, and then
+   * continues from there, while the players are never held up.
+   */
+  @Test
+  public void testSlowSubscriberIsConflated() {
+    TicTacToe m = new TicTacToeModel();
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 3, DIRECT);
+    RecordingSubscriber slow = new RecordingSubscriber(1);
+    RecordingSubscriber fast = new RecordingSubscriber(Long.MAX_VALUE);
+    broadcaster.subscribe(slow);
+    broadcaster.subscribe(fast);
+    m.move(0, 0);
+    m.move(1, 1);
+    m.move(2, 2);
+    m.move(0, 2);
+    assertEquals(1, slow.getMessages().size());
+    assertEquals(1, broadcaster.getConflationCount());
+
+    slow.request(Long.MAX_VALUE);
+    m.move(2, 0);
+    List<ByteBuffer> messages = slow.getMessages();
+    assertEquals(3, messages.size());
+    ByteBuffer snapshot = messages.get(1);
+    assertEquals(GameDelta.SNAPSHOT, GameDelta.type(snapshot));
+    assertEquals(4, GameDelta.sequence(snapshot));
+    assertEquals(Player.O, GameDelta.markAt(snapshot, 0, 2));
+    assertEquals(5, GameDelta.sequence(messages.get(2)));
+    assertFalse(slow.isOutOfOrder());
+    assertArrayEquals(board(m), slow.getBoard());
+    assertEquals(6, fast.getMessages().size());
+  }
+
+  /**
+   * Test that every subscriber is sent a view of the same bytes, which it cannot change.
+   */
+  @Test
+  public void testMessagesShared() {
+    TicTacToe m = new TicTacToeModel();
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 4, DIRECT);
+    RecordingSubscriber a = new RecordingSubscriber(Long.MAX_VALUE);
+    RecordingSubscriber b = new RecordingSubscriber(Long.MAX_VALUE);
+    broadcaster.subscribe(a);
+    broadcaster.subscribe(b);
+    m.move(1, 2);
+    ByteBuffer first = a.getMessages().get(1);
+    ByteBuffer second = b.getMessages().get(1);
+    assertTrue(first.isReadOnly());
+    assertEquals(first, second);
+    first.get();
+    assertEquals(GameDelta.MOVE, GameDelta.type(second));
+  }
+
+  /**
+   * Test that closing completes subscribers after what is queued, and that a late subscriber
+   * gets the final board and completes.
+   */
+  @Test
+  public void testClose() {
+    TicTacToe m = new TicTacToeModel();
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 8, DIRECT);
+    RecordingSubscriber spectator = new RecordingSubscriber(1);
+    broadcaster.subscribe(spectator);
+    m.move(0, 0);
+    broadcaster.close();
+    m.move(1, 1);
+    assertFalse(spectator.isCompleted());
+    spectator.request(5);
+    assertTrue(spectator.isCompleted());
+    assertEquals(2, spectator.getMessages().size());
+
+    RecordingSubscriber late = new RecordingSubscriber(1);
+    broadcaster.subscribe(late);
+    assertTrue(late.isCompleted());
+    assertEquals(Player.X, GameDelta.markAt(late.getMessages().get(0), 0, 0));
+    assertEquals(0, broadcaster.getSubscriberCount());
+  }
+
+  /**
+   * Test that a cancelled subscriber is sent nothing more.
+   */
+  @Test
+  public void testCancel() {
+    TicTacToe m = new TicTacToeModel();
+    GameBroadcaster broadcaster = new GameBroadcaster(m, 8, DIRECT);
+    RecordingSubscriber spectator = new RecordingSubscriber(Long.MAX_VALUE);
+    broadcaster.subscribe(spectator);
+    assertEquals(1, broadcaster.getSubscriberCount());
+    spectator.cancel();
+    m.move(0, 0);
+    assertEquals(1, spectator.getMessages().size());
+    assertEquals(0, broadcaster.getSubscriberCount());
+  }
+
+  /**
+   * Test that a request for no messages ends the subscription with an error.
+   */
+  @Test
+  public void testInvalidRequest() {
+    GameBroadcaster broadcaster = new GameBroadcaster(new TicTacToeModel(), 8, DIRECT);
+    RecordingSubscriber spectator = new RecordingSubscriber(0);
+    broadcaster.subscribe(spectator);
+    spectator.request(0);
+    assertTrue(spectator.getError() instanceof IllegalArgumentException);
+    assertEquals(0, broadcaster.getSubscriberCount());
+  }
+
+  /**
+   * Test that many spectators on a thread pool, consuming at different speeds while the game is
+   * played on another thread, all end up with the final board.
+   */
+  @Test
+  public void testManySpectators() throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      for (int game = 0; game < 20; game++) {
+        AtomicTicTacToe m = new AtomicTicTacToe();
+        GameBroadcaster broadcaster = new GameBroadcaster(m, 2, pool);
+        List<RecordingSubscriber> spectators = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          RecordingSubscriber spectator = new RecordingSubscriber(i % 2 == 0 ? Long.MAX_VALUE : 1);
+          spectators.add(spectator);
+          broadcaster.subscribe(spectator);
+        }
+        SplittableRandom random = new SplittableRandom(game);
+        Thread player = new Thread(() -> {
+          while (!m.isGameOver()) {
+            int cell = random.nextInt(9);
+            if (m.getMarkAt(cell / 3, cell % 3) == null) {
+              m.move(cell / 3, cell % 3);
+            }
+          }
+        });
+        player.start();
+        player.join();
+        broadcaster.close();
+        for (RecordingSubscriber spectator : spectators) {
+          spectator.request(Long.MAX_VALUE);
+          assertTrue(spectator.await());
+          assertTrue(spectator.isCompleted());
+          assertFalse(spectator.isOutOfOrder());
+          assertArrayEquals(board(m), spectator.getBoard());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test that the buffer size must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBufferSize() {
+    new GameBroadcaster(new TicTacToeModel(), 0, DIRECT);
+  }
+}
@@ -0,0 +1,170 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.GameRecord;
+import tictactoe.GameRecordReader;
+import tictactoe.GameRecordWriter;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the binary game record format and its reader and writer.
+ */
+public class GameRecordTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Play a random game on the given model, stopping early after the given number of moves.
+   */
+  private static TicTacToe play(TicTacToe m, SplittableRandom random, int maxMoves) {
+    while (!m.isGameOver() && m.getMoveCount() < maxMoves) {
+      int cell = random.nextInt(9);
+      if (m.getMarkAt(cell / 3, cell % 3) == null) {
+        m.move(cell / 3, cell % 3);
+      }
+    }
+    return m;
+  }
+
+  /**
+   * Test that a record holds the moves and result of a game, and replays to the same position.
+   */
+  @Test
+  public void testEncodeAndReplay() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(0, 0); // X
+    m.move(1, 1); // O
+    m.move(0, 1); // X
+    m.move(2, 2); // O
+    m.move(0, 2); // X wins
+    long record = GameRecord.encode(m);
+    assertEquals(5, GameRecord.moveCount(record));
+    assertEquals(4, GameRecord.move(record, 1));
+    assertEquals(GameRecord.X_WINS, GameRecord.result(record));
+    assertEquals(Player.X, GameRecord.winner(record));
+    assertFalse(GameRecord.isExtended(record));
+
+    TicTacToe copy = new BitboardTicTacToe();
+    GameRecord.replay(record, copy);
+    assertEquals(m.toString(), copy.toString());
+    assertEquals(record, GameRecord.encode(copy));
+  }
+
+  /**
+   * Test that every model encodes the same game to the same record.
+   */
+  @Test
+  public void testModelsAgree() {
+    SplittableRandom random = new SplittableRandom(7);
+    for (int game = 0; game < 200; game++) {
+      long seed = random.nextLong();
+      long a = GameRecord.encode(play(new TicTacToeModel(), new SplittableRandom(seed), 9));
+      long b = GameRecord.encode(play(new BitboardTicTacToe(), new SplittableRandom(seed), 9));
+      long c = GameRecord.encode(play(new MnkTicTacToe(3, 3, 3), new SplittableRandom(seed), 9));
+      assertEquals(a, b);
+      assertEquals(a, c);
+    }
+  }
+
+  /**
+   * Test that records written across many buffer flushes and two sessions are read back in
+   * order, with extensions, across several mapping windows.
+   */
+  @Test
+  public void testWriteAndRead() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("games.rec");
+    int games = 5000;
+    long[] expected = new long[games];
+    SplittableRandom random = new SplittableRandom(11);
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    try (GameRecordWriter writer = new GameRecordWriter(file, 64)) {
+      for (int i = 0; i < games / 2; i++) {
+        m.reset();
+        expected[i] = GameRecord.encode(play(m, random, 3 + i % 7));
+        if (i % 3 == 0) {
+          writer.write(m, 1000L + i, i, -i);
+        } else {
+          writer.write(m);
+        }
+      }
+    }
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      for (int i = games / 2; i < games; i++) {
+        m.reset();
+        expected[i] = GameRecord.encode(play(m, random, 9));
+        writer.write(expected[i]);
+      }
+      assertEquals(games - games / 2, writer.getRecordCount());
+    }
+
+    try (GameRecordReader reader = new GameRecordReader(file, 100)) {
+      for (int i = 0; i < games; i++) {
+        assertTrue(reader.next());
+        boolean extended = i < games / 2 && i % 3 == 0;
+        assertEquals(extended, GameRecord.isExtended(reader.record()));
+        assertEquals(expected[i], reader.record() & ~(1L << 42));
+        assertEquals(extended ? 1000L + i : 0, reader.getTimestamp());
+        assertEquals(extended ? i : 0, reader.getXPlayerId());
+        assertEquals(extended ? -i : 0, reader.getOPlayerId());
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test that an empty record file has no records.
+   */
+  @Test
+  public void testEmptyFile() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("empty.rec");
+    new GameRecordWriter(file).close();
+    assertEquals(8, Files.size(file));
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test that a file that is not a record file is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotARecordFile() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, "1 1 2 2 3 3\n".getBytes());
+    new GameRecordReader(file);
+  }
+
+  /**
+   * Test that only three-by-three games can be recorded.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testLargeBoardRejected() {
+    GameRecord.encode(new MnkTicTacToe(4, 4, 3));
+  }
+
+  /**
+   * Test the result of an unfinished game.
+   */
+  @Test
+  public void testUnfinished() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(1, 1);
+    long record = GameRecord.encode(m);
+    assertEquals(GameRecord.UNFINISHED, GameRecord.result(record));
+    assertNull(GameRecord.winner(record));
+  }
+}
@@ -0,0 +1,107 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tictactoe.GameReplayer;
+import tictactoe.Player;
+
+/**
+ * Test cases for replaying files of recorded games.
+ */
+public class GameReplayerTest {
+  private static final String GAMES = "# archived games\n"
+      + "1 1 2 2 1 2 3 3 1 3\n"
+      + "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 3 2\n"
+      + "\n"
+      + "1,1,2,1,1,2,2,2,3,3,2,3\r\n"
+      + "2 2 2 2\n"
+      + "1 1 x\n"
+      + "3 3 1\n"
+      + "1 1 2 2";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path write(String contents) throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+    return file;
+  }
+
+  /**
+   * Test that each game is scored and reported by its line number.
+   */
+  @Test
+  public void testReplay() throws IOException {
+    StringBuilder out = new StringBuilder();
+    GameReplayer replayer = new GameReplayer(out, true);
+    replayer.replay(this.write(GAMES));
+
+    String[] lines = out.toString().split("\n");
+    assertEquals("2: X wins in 5 moves", lines[0]);
+    assertEquals("3: tie game in 9 moves", lines[1]);
+    assertEquals("5: O wins in 6 moves", lines[2]);
+    assertEquals("6: invalid move 2, 2 at move 2", lines[3]);
+    assertEquals("7: malformed line", lines[4]);
+    assertEquals("8: malformed line", lines[5]);
+    assertEquals("9: unfinished after 2 moves", lines[6]);
+    assertEquals("Games: 4, X wins: 1, O wins: 1, draws: 1, unfinished: 1, invalid: 3",
+        lines[7]);
+    assertTrue(lines[8].startsWith("Replayed " + GAMES.length() + " bytes"));
+
+    assertEquals(4, replayer.getGames());
+    assertEquals(1, replayer.getWins(Player.X));
+    assertEquals(1, replayer.getWins(Player.O));
+    assertEquals(1, replayer.getDraws());
+    assertEquals(1, replayer.getUnfinished());
+    assertEquals(3, replayer.getInvalid());
+  }
+
+  /**
+   * Test that games split across mapped chunks are parsed the same as in a single chunk.
+   */
+  @Test
+  public void testChunkBoundaries() throws IOException {
+    Path file = this.write(GAMES);
+    StringBuilder whole = new StringBuilder();
+    new GameReplayer(whole, true).replay(file);
+    for (int chunkSize = 1; chunkSize < 12; chunkSize++) {
+      StringBuilder chunked = new StringBuilder();
+      new GameReplayer(chunked, true, chunkSize).replay(file);
+      assertEquals(results(whole), results(chunked));
+    }
+  }
+
+  /**
+   * Test that summary mode writes only the totals.
+   */
+  @Test
+  public void testSummaryOnly() throws IOException {
+    StringBuilder out = new StringBuilder();
+    new GameReplayer(out, false).replay(this.write(GAMES));
+    assertTrue(out.toString().startsWith("Games: 4,"));
+    assertEquals(2, out.toString().split("\n").length);
+  }
+
+  /**
+   * Test that a missing file is reported as a read failure.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testMissingFile() {
+    new GameReplayer(new StringBuilder(), true)
+        .replay(folder.getRoot().toPath().resolve("missing.txt"));
+  }
+
+  /**
+   * Return the output without the timing line, which differs between runs.
+   */
+  private static String results(StringBuilder out) {
+    return out.substring(0, out.indexOf("Replayed"));
+  }
+}
@@ -0,0 +1,58 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import tictactoe.GameSimulator;
+import tictactoe.Player;
+
+/**
+ * Test cases for the multi-threaded game simulator.
+ */
+public class GameSimulatorTest {
+
+  /**
+   * Test that every game is counted exactly once across threads, and that random play produces
+   * the expected mix of outcomes.
+   */
+  @Test
+  public void testRandomGamesCounted() {
+    GameSimulator simulator = new GameSimulator(GameSimulator.Strategy.RANDOM,
+        GameSimulator.Strategy.RANDOM);
+    simulator.run(100_001, 3, 1);
+    assertEquals(100_001, simulator.getGames());
+    long byLength = 0;
+    for (int length = 0; length <= 9; length++) {
+      byLength += simulator.getGamesOfLength(length);
+    }
+    assertEquals(100_001, byLength);
+    assertEquals(0, simulator.getGamesOfLength(4));
+    // X wins about 58% of random games, O about 29%
+    assertTrue(simulator.getWins(Player.X) > simulator.getWins(Player.O));
+    assertTrue(simulator.getWins(Player.O) > simulator.getDraws());
+    assertTrue(simulator.getGamesPerSecond() > 0);
+  }
+
+  /**
+   * Test that perfect players always draw, in nine moves.
+   */
+  @Test
+  public void testPerfectGamesDraw() {
+    GameSimulator simulator = new GameSimulator(GameSimulator.Strategy.PERFECT,
+        GameSimulator.Strategy.PERFECT);
+    simulator.run(10_000, 2, 7);
+    assertEquals(10_000, simulator.getDraws());
+    assertEquals(9.0, simulator.getAverageLength(), 1e-9);
+  }
+
+  /**
+   * Test that a perfect player never loses to a random one.
+   */
+  @Test
+  public void testPerfectNeverLoses() {
+    GameSimulator simulator = new GameSimulator(GameSimulator.Strategy.RANDOM,
+        GameSimulator.Strategy.PERFECT);
+    simulator.run(10_000, 2, 3);
+    assertEquals(0, simulator.getWins(Player.X));
+    assertTrue(simulator.getWins(Player.O) > 0);
+  }
+}
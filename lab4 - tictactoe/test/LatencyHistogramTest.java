@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import tictactoe.LatencyHistogram;
+
+/**
+ * Test cases for the lock-free latency histogram.
+ */
+public class LatencyHistogramTest {
+  /**
+   * Test that small values are recorded exactly.
+   */
+  @Test
+  public void testSmallValuesExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 4; i++) {
+      histogram.record(i);
+    }
+    assertEquals(4, histogram.getCount());
+    assertEquals(2, histogram.getPercentile(0.5));
+    assertEquals(4, histogram.getPercentile(1));
+    assertEquals(1, histogram.getPercentile(0));
+    assertEquals(2, histogram.getMean());
+    assertEquals(4, histogram.getMax());
+  }
+
+  /**
+   * Test that percentiles of large values are within an eighth of the true value.
+   */
+  @Test
+  public void testPercentilesWithinBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000);
+    }
+    long median = histogram.getPercentile(0.5);
+    long p99 = histogram.getPercentile(0.99);
+    assertTrue(median >= 5_000_000 && median <= 5_000_000 * 9 / 8);
+    assertTrue(p99 >= 9_900_000 && p99 <= 10_000_000);
+    assertEquals(10_000_000, histogram.getMax());
+    assertEquals(10_000_000, histogram.getPercentile(1));
+  }
+
+  /**
+   * Test the extremes: negative durations count as zero, and the largest long fits.
+   */
+  @Test
+  public void testExtremes() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    assertEquals(0, histogram.getPercentile(1));
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.getPercentile(1));
+    assertEquals(2, histogram.getCount());
+  }
+
+  /**
+   * Test that reset empties the histogram.
+   */
+  @Test
+  public void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(0.99));
+  }
+
+  /**
+   * Test that threads recording at once lose nothing.
+   */
+  @Test
+  public void testConcurrentRecording() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10000; i++) {
+          histogram.record(i);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, histogram.getCount());
+    assertEquals(9999, histogram.getMax());
+  }
+
+  /**
+   * Test that a percentile must be a fraction.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFraction() {
+    new LatencyHistogram().getPercentile(1.5);
+  }
+}
@@ -0,0 +1,123 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import org.junit.Test;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the m,n,k model. Runs the full model test suite against a 3,3,3 board, plus
+ * checks on larger boards.
+ */
+public class MnkTicTacToeTest extends TicTacToeModelTest {
+
+  @Override
+  protected TicTacToe makeModel() {
+    return new MnkTicTacToe(3, 3, 3);
+  }
+
+  /**
+   * Test that a five-in-a-row win on a Gomoku-sized board is detected, including when the final
+   * stone is placed in the middle of the run.
+   */
+  @Test
+  public void testGomokuWin() {
+    TicTacToe m = new MnkTicTacToe(15, 15, 5);
+    int[] xCols = {3, 4, 6, 7};
+    for (int col : xCols) {
+      m.move(7, col);
+      m.move(0, col);
+    }
+    assertFalse(m.isGameOver());
+    m.move(7, 5);
+    assertTrue(m.isGameOver());
+    assertEquals(Player.X, m.getWinner());
+  }
+
+  /**
+   * Test that an anti-diagonal win is detected and a run shorter than k is not.
+   */
+  @Test
+  public void testAntiDiagonalWin() {
+    TicTacToe m = new MnkTicTacToe(4, 4, 4);
+    m.move(0, 3);
+    m.move(0, 0);
+    m.move(1, 2);
+    m.move(1, 0);
+    m.move(2, 1);
+    assertFalse(m.isGameOver());
+    m.move(2, 0);
+    m.move(3, 0);
+    assertTrue(m.isGameOver());
+    assertEquals(Player.X, m.getWinner());
+  }
+
+  /**
+   * Test that a non-square board reports its dimensions and renders every column.
+   */
+  @Test
+  public void testNonSquareBoard() {
+    TicTacToe m = new MnkTicTacToe(2, 4, 3);
+    assertEquals(2, m.getRows());
+    assertEquals(4, m.getColumns());
+    assertEquals(3, m.getWinLength());
+    m.move(1, 3);
+    assertEquals(Player.X, m.getMarkAt(1, 3));
+    assertEquals(4, m.getBoard()[0].length);
+    assertEquals("   |   |   |  \n"
+        + "---------------\n"
+        + "   |   |   | X", m.toString());
+  }
+
+  /**
+   * Test that a full board with no run of k ends in a tie.
+   */
+  @Test
+  public void testTieOnSmallBoard() {
+    TicTacToe m = new MnkTicTacToe(1, 2, 2);
+    m.move(0, 0);
+    m.move(0, 1);
+    assertTrue(m.isGameOver());
+    assertNull(m.getWinner());
+  }
+
+  /**
+   * Test that the console controller plays on a larger board unchanged.
+   */
+  @Test
+  public void testConsoleControllerOnLargerBoard() {
+    TicTacToe m = new MnkTicTacToe(5, 5, 4);
+    StringBuilder gameLog = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader("5 5 1 1 4 4 1 2 3 3 1 3 2 2"), gameLog)
+        .playGame(m);
+    assertTrue(gameLog.toString().endsWith("Game is over! X wins."));
+  }
+
+  /**
+   * Test that invalid dimensions are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testWinLengthTooLong() {
+    new MnkTicTacToe(3, 3, 4);
+  }
+
+  /**
+   * Test that a 3,3,3 game hashes the same as the standard model after the same moves.
+   */
+  @Test
+  public void testHashMatchesStandardModel() {
+    TicTacToe mnk = new MnkTicTacToe(3, 3, 3);
+    TicTacToe standard = new TicTacToeModel();
+    mnk.move(1, 1);
+    standard.move(1, 1);
+    mnk.move(0, 2);
+    standard.move(0, 2);
+    assertEquals(standard.getHash(), mnk.getHash());
+  }
+}
@@ -0,0 +1,111 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.MnkTicTacToe;
+import tictactoe.PerfectPlayTable;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+/**
+ * Test cases for the precomputed perfect-play table.
+ */
+public class PerfectPlayTableTest {
+
+  /**
+   * Test that the table holds exactly the reachable positions and reports its cost.
+   */
+  @Test
+  public void testSize() {
+    assertEquals(5478, PerfectPlayTable.positionCount());
+    assertEquals(2 * 19683, PerfectPlayTable.sizeInBytes());
+    assertTrue(PerfectPlayTable.getBuildNanos() > 0);
+  }
+
+  /**
+   * Test that the empty board is a draw where every opening move keeps the draw.
+   */
+  @Test
+  public void testEmptyBoard() {
+    TicTacToe m = new TicTacToeModel();
+    assertEquals(0, PerfectPlayTable.value(m));
+    assertEquals(0x1FF, PerfectPlayTable.bestMoves(m));
+  }
+
+  /**
+   * Test that the table finds the only winning move, and agrees on the bitboard model.
+   */
+  @Test
+  public void testWinningMove() {
+    TicTacToe m = new BitboardTicTacToe();
+    m.move(0, 0); // X
+    m.move(1, 0); // O
+    m.move(0, 1); // X
+    m.move(1, 1); // O
+    assertEquals(1, PerfectPlayTable.value(m));
+    assertArrayEquals(new int[] {0, 2}, PerfectPlayTable.bestMove(m));
+  }
+
+  /**
+   * Test that two table players always draw.
+   */
+  @Test
+  public void testSelfPlayIsDraw() {
+    TicTacToe m = new TicTacToeModel();
+    while (!m.isGameOver()) {
+      int[] move = PerfectPlayTable.bestMove(m);
+      m.move(move[0], move[1]);
+    }
+    assertNull(m.getWinner());
+  }
+
+  /**
+   * Test that the table agrees with the search engine on positions from random games.
+   */
+  @Test
+  public void testAgreesWithSolver() {
+    Random random = new Random(42);
+    TicTacToeSolver solver = new TicTacToeSolver();
+    for (int game = 0; game < 50; game++) {
+      TicTacToe m = new TicTacToeModel();
+      while (!m.isGameOver()) {
+        solver.bestMove(m);
+        assertEquals(Integer.signum(solver.getScore()), PerfectPlayTable.value(m));
+        int r;
+        int c;
+        do {
+          r = random.nextInt(3);
+          c = random.nextInt(3);
+        } while (m.getMarkAt(r, c) != null);
+        m.move(r, c);
+      }
+    }
+  }
+
+  /**
+   * Test that other board sizes are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsLargerBoard() {
+    PerfectPlayTable.value(new MnkTicTacToe(4, 4, 3));
+  }
+
+  /**
+   * Test that asking for a move in a finished game is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testBestMoveWhenOver() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(0, 0);
+    m.move(1, 0);
+    m.move(0, 1);
+    m.move(1, 1);
+    m.move(0, 2);
+    PerfectPlayTable.bestMove(m);
+  }
+}
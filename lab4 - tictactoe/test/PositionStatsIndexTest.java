@@ -0,0 +1,279 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.BoardSymmetry;
+import tictactoe.GameRecord;
+import tictactoe.GameRecordReader;
+import tictactoe.GameRecordWriter;
+import tictactoe.Player;
+import tictactoe.PositionStatsIndex;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the memory-mapped position statistics index.
+ */
+public class PositionStatsIndexTest {
+  private static final int GAMES = 3000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Write a file of random games, some of them unfinished, and return its path.
+   */
+  private Path writeGames() {
+    Path file = folder.getRoot().toPath().resolve("games.rec");
+    SplittableRandom random = new SplittableRandom(3);
+    BitboardTicTacToe m = new BitboardTicTacToe();
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      for (int game = 0; game < GAMES; game++) {
+        m.reset();
+        int stop = game % 10 == 0 ? 4 : 9;
+        while (!m.isGameOver() && m.getMoveCount() < stop) {
+          int cell = random.nextInt(9);
+          if (m.getMarkAt(cell / 3, cell % 3) == null) {
+            m.move(cell / 3, cell % 3);
+          }
+        }
+        writer.write(m);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Test that the counts for every position match a direct count over the same games, that
+   * symmetric positions share counts, and that the index survives being reopened.
+   */
+  @Test
+  public void testIngestAndLookup() throws IOException {
+    Path records = this.writeGames();
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+
+    long added;
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 12);
+         GameRecordReader reader = new GameRecordReader(records)) {
+      added = index.addAll(reader);
+    }
+    assertEquals(GAMES - GAMES / 10, added);
+
+    // count the same games position by position with a map
+    BoardSymmetry symmetry = new BoardSymmetry(3, 3);
+    Map<Long, long[]> expected = new HashMap<>();
+    try (GameRecordReader reader = new GameRecordReader(records)) {
+      while (reader.next()) {
+        long record = reader.record();
+        if (GameRecord.result(record) == GameRecord.UNFINISHED) {
+          continue;
+        }
+        TicTacToe m = new TicTacToeModel();
+        expected.computeIfAbsent(symmetry.canonicalKey(m), k -> new long[4])
+            [GameRecord.result(record)]++;
+        for (int i = 0; i < GameRecord.moveCount(record); i++) {
+          int cell = GameRecord.move(record, i);
+          m.move(cell / 3, cell % 3);
+          expected.computeIfAbsent(symmetry.canonicalKey(m), k -> new long[4])
+              [GameRecord.result(record)]++;
+        }
+      }
+    }
+
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 4)) {
+      assertEquals(expected.size(), index.getPositionCount());
+      assertEquals(added, index.getGames(new TicTacToeModel()));
+      try (GameRecordReader reader = new GameRecordReader(records)) {
+        while (reader.next()) {
+          TicTacToe m = new TicTacToeModel();
+          GameRecord.replay(reader.record(), m);
+          long[] counts = expected.get(symmetry.canonicalKey(m));
+          if (counts == null) {
+            assertEquals(0, index.getGames(m));
+            continue;
+          }
+          assertEquals(counts[GameRecord.X_WINS], index.getWins(m, Player.X));
+          assertEquals(counts[GameRecord.O_WINS], index.getWins(m, Player.O));
+          assertEquals(counts[GameRecord.DRAW], index.getDraws(m));
+        }
+      }
+
+      TicTacToe corner = new TicTacToeModel();
+      corner.move(0, 0);
+      TicTacToe otherCorner = new TicTacToeModel();
+      otherCorner.move(2, 2);
+      assertTrue(index.getGames(corner) > 0);
+      assertEquals(index.getGames(corner), index.getGames(otherCorner));
+    }
+  }
+
+  /**
+   * Test that an unfinished game is not counted.
+   */
+  @Test
+  public void testUnfinishedNotCounted() {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 8)) {
+      TicTacToe m = new TicTacToeModel();
+      m.move(1, 1);
+      assertFalse(index.add(GameRecord.encode(m)));
+      assertEquals(0, index.getGames(m));
+      assertEquals(0, index.getPositionCount());
+    }
+  }
+
+  /**
+   * Test that an index of another board shape is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testShapeMismatch() {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    new PositionStatsIndex(indexFile, 3, 3, 8).close();
+    new PositionStatsIndex(indexFile, 4, 4, 8);
+  }
+
+  /**
+   * Test that adding more positions than the table holds is reported.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testFull() {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 2)) {
+      TicTacToe m = new TicTacToeModel();
+      int[] moves = {0, 1, 2, 4, 3, 5, 7, 6, 8};
+      for (int cell : moves) {
+        m.move(cell / 3, cell % 3);
+      }
+      index.add(GameRecord.encode(m));
+    }
+  }
+
+  /**
+   * Test that a game the index has no room for is not partly counted.
+   */
+  @Test
+  public void testFullLeavesIndexUnchanged() {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 4)) {
+      TicTacToe win = new TicTacToeModel();
+      int[] moves = {0, 3, 1, 4, 2};
+      for (int cell : moves) {
+        win.move(cell / 3, cell % 3);
+      }
+      assertTrue(index.add(GameRecord.encode(win)));
+      assertEquals(6, index.getPositionCount());
+
+      TicTacToe draw = new TicTacToeModel();
+      moves = new int[] {4, 0, 8, 2, 1, 7, 6, 3, 5};
+      for (int cell : moves) {
+        draw.move(cell / 3, cell % 3);
+      }
+      try {
+        index.add(GameRecord.encode(draw));
+        fail("The index should be full.");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      assertEquals(6, index.getPositionCount());
+      assertEquals(1, index.getGames(new TicTacToeModel()));
+      assertEquals(0, index.getDraws(new TicTacToeModel()));
+    }
+  }
+
+  /**
+   * Test that an illegal record is rejected without counting the moves before the illegal one.
+   */
+  @Test
+  public void testIllegalRecordLeavesIndexUnchanged() {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    // X and O both play the center
+    long record = 4L | (0L << 4) | (4L << 8) | (3L << 36) | ((long) GameRecord.DRAW << 40);
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 8)) {
+      try {
+        index.add(record);
+        fail("The record should be rejected.");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      assertEquals(0, index.getPositionCount());
+      assertEquals(0, index.getGames(new TicTacToeModel()));
+    }
+  }
+
+  /**
+   * Test that a truncated index file is rejected rather than extended.
+   */
+  @Test
+  public void testTruncatedFile() throws IOException {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    new PositionStatsIndex(indexFile, 3, 3, 8).close();
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+      channel.truncate(1000);
+    }
+    try {
+      new PositionStatsIndex(indexFile, 3, 3, 8);
+      fail("The truncated file should be rejected.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(1000, Files.size(indexFile));
+  }
+
+  /**
+   * Test that the number of positions is in the file as soon as a game is added, so an index
+   * that is never closed still opens with the right count.
+   */
+  @Test
+  public void testPositionCountWrittenOnAdd() throws IOException {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 8);
+    TicTacToe win = new TicTacToeModel();
+    int[] moves = {0, 3, 1, 4, 2};
+    for (int cell : moves) {
+      win.move(cell / 3, cell % 3);
+    }
+    assertTrue(index.add(GameRecord.encode(win)));
+    ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+      channel.read(header, 0);
+    }
+    assertEquals(6, header.getLong(24));
+    index.close();
+  }
+
+  /**
+   * Test that a file whose table has no empty slot fails a lookup rather than searching it
+   * forever.
+   */
+  @Test(timeout = 10000)
+  public void testNoEmptySlot() throws IOException {
+    Path indexFile = folder.getRoot().toPath().resolve("positions.idx");
+    new PositionStatsIndex(indexFile, 3, 3, 1).close();
+    ByteBuffer slots = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    slots.putLong(0, 3).putLong(32, 5);
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+      channel.write(slots, 32);
+    }
+    try (PositionStatsIndex index = new PositionStatsIndex(indexFile, 3, 3, 1)) {
+      index.getGames(new TicTacToeModel());
+      fail("The corrupt file should be rejected.");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+}
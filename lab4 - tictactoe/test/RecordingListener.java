@@ -0,0 +1,36 @@
+import tictactoe.Player;
+import tictactoe.TicTacToeListener;
+
+/**
+ * A mock listener that records every event it receives as one line of text.
+ */
+public class RecordingListener implements TicTacToeListener {
+  private final StringBuilder log = new StringBuilder();
+
+  @Override
+  public void movePlaced(int r, int c, Player player) {
+    this.log.append("placed ").append(player).append(' ').append(r).append(' ').append(c)
+        .append('\n');
+  }
+
+  @Override
+  public void moveUndone(int r, int c, Player player) {
+    this.log.append("undone ").append(player).append(' ').append(r).append(' ').append(c)
+        .append('\n');
+  }
+
+  @Override
+  public void turnChanged(Player player) {
+    this.log.append("turn ").append(player).append('\n');
+  }
+
+  @Override
+  public void gameEnded(Player winner) {
+    this.log.append("ended ").append(winner).append('\n');
+  }
+
+  @Override
+  public String toString() {
+    return this.log.toString();
+  }
+}
@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import tictactoe.GameDelta;
+import tictactoe.Player;
+
+/**
+ * A mock subscriber that records the game messages it receives and rebuilds the board from them.
+ */
+public class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+  private final long initialRequest;
+  private final List<ByteBuffer> messages = new ArrayList<>();
+  private final CountDownLatch done = new CountDownLatch(1);
+  private Flow.Subscription subscription;
+  private Player[] board;
+  private int columns;
+  private long lastSequence = -1;
+  private boolean outOfOrder;
+  private volatile boolean completed;
+  private volatile Throwable error;
+
+  /**
+   * Create a subscriber that requests the given number of messages when it subscribes.
+   *
+   * @param initialRequest the first request, or 0 to request nothing yet.
+   */
+  public RecordingSubscriber(long initialRequest) {
+    this.initialRequest = initialRequest;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    if (this.initialRequest > 0) {
+      subscription.request(this.initialRequest);
+    }
+  }
+
+  @Override
+  public synchronized void onNext(ByteBuffer message) {
+    this.messages.add(message);
+    long sequence = GameDelta.sequence(message);
+    int type = GameDelta.type(message);
+    if (type == GameDelta.SNAPSHOT) {
+      this.outOfOrder |= sequence < this.lastSequence;
+      this.columns = GameDelta.column(message);
+      this.board = new Player[GameDelta.row(message) * this.columns];
+      for (int cell = 0; cell < this.board.length; cell++) {
+        this.board[cell] = GameDelta.markAt(message, cell / this.columns, cell % this.columns);
+      }
+    } else {
+      this.outOfOrder |= sequence != this.lastSequence + 1 || this.board == null;
+      this.board[GameDelta.row(message) * this.columns + GameDelta.column(message)] =
+          type == GameDelta.MOVE ? GameDelta.player(message) : null;
+    }
+    this.lastSequence = sequence;
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    this.error = throwable;
+    this.done.countDown();
+  }
+
+  @Override
+  public void onComplete() {
+    this.completed = true;
+    this.done.countDown();
+  }
+
+  /**
+   * Request more messages.
+   *
+   * @param n the number of messages.
+   */
+  public void request(long n) {
+    this.subscription.request(n);
+  }
+
+  /**
+   * Cancel the subscription.
+   */
+  public void cancel() {
+    this.subscription.cancel();
+  }
+
+  /**
+   * Wait up to ten seconds for the stream to complete or fail.
+   *
+   * @return true if it ended in time
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public boolean await() throws InterruptedException {
+    return this.done.await(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Return the messages received so far.
+   *
+   * @return a copy of the list of messages
+   */
+  public synchronized List<ByteBuffer> getMessages() {
+    return new ArrayList<>(this.messages);
+  }
+
+  /**
+   * Return the board rebuilt from the messages received so far.
+   *
+   * @return the mark in each cell, row by row
+   */
+  public synchronized Player[] getBoard() {
+    return this.board.clone();
+  }
+
+  /**
+   * Return whether a change arrived that did not follow on from the message before it.
+   *
+   * @return true if the sequence numbers were out of order
+   */
+  public synchronized boolean isOutOfOrder() {
+    return this.outOfOrder;
+  }
+
+  /**
+   * Return whether the stream completed normally.
+   *
+   * @return true once onComplete has been called
+   */
+  public boolean isCompleted() {
+    return this.completed;
+  }
+
+  /**
+   * Return the error the stream ended with.
+   *
+   * @return the error, or null
+   */
+  public Throwable getError() {
+    return this.error;
+  }
+}
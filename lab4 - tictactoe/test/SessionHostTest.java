@@ -0,0 +1,188 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.SessionHost;
+import tictactoe.SocketAppendable;
+import tictactoe.SocketReadable;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the thread-per-session host and its socket adapters, on localhost.
+ */
+public class SessionHostTest {
+  private SessionHost host;
+  private Thread thread;
+
+  @Before
+  public void setUp() {
+    host = new SessionHost(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    thread = new Thread(host, "acceptor");
+    thread.start();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    host.close();
+    thread.join(5000);
+  }
+
+  private static String console(String input) {
+    StringBuilder log = new StringBuilder();
+    try {
+      new TicTacToeConsoleController(new StringReader(input), log)
+          .playGame(new TicTacToeModel());
+    } catch (IllegalStateException e) {
+      // out of input before the game ended
+    }
+    return log.toString();
+  }
+
+  private static String readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int count;
+    while ((count = in.read(buffer)) >= 0) {
+      received.write(buffer, 0, count);
+    }
+    return received.toString("ISO-8859-1");
+  }
+
+  private Socket connect() throws IOException {
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), host.getPort());
+    socket.setSoTimeout(10_000);
+    return socket;
+  }
+
+  /**
+   * Test that a session over a socket writes exactly what the console controller writes.
+   */
+  @Test
+  public void testSameProtocolAsConsole() throws IOException {
+    String[] inputs = {
+        "2 2 q\n",
+        "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 3 2\n",
+        "2 2 2 2 a 1 1 u 4 1 -1 1 3 Q\n",
+    };
+    for (String input : inputs) {
+      try (Socket socket = this.connect()) {
+        socket.getOutputStream().write(input.getBytes(StandardCharsets.ISO_8859_1));
+        assertEquals(console(input), readAll(socket.getInputStream()));
+      }
+    }
+  }
+
+  /**
+   * Test that a client closing its end mid-game ends the session.
+   */
+  @Test
+  public void testClientLeaves() throws IOException, InterruptedException {
+    try (Socket socket = this.connect()) {
+      socket.getOutputStream().write("2 2\n".getBytes(StandardCharsets.ISO_8859_1));
+      socket.shutdownOutput();
+      assertEquals(console("2 2\n"), readAll(socket.getInputStream()));
+    }
+    for (int i = 0; i < 500 && host.getGamesPlayed() < 1; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, host.getGamesPlayed());
+    assertEquals(0, host.getSessionCount());
+  }
+
+  /**
+   * Test that many sessions wait for input at once, and each finishes independently.
+   */
+  @Test
+  public void testManyIdleSessions() throws IOException, InterruptedException {
+    List<Socket> clients = new ArrayList<>();
+    try {
+      for (int i = 0; i < 200; i++) {
+        Socket socket = this.connect();
+        clients.add(socket);
+        socket.getInputStream().read();
+      }
+      assertEquals(200, host.getSessionCount());
+      for (Socket socket : clients) {
+        socket.getOutputStream().write("q\n".getBytes(StandardCharsets.ISO_8859_1));
+        assertTrue(readAll(socket.getInputStream()).contains("Game quit!"));
+      }
+    } finally {
+      for (Socket socket : clients) {
+        socket.close();
+      }
+    }
+    for (int i = 0; i < 500 && host.getSessionCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, host.getSessionCount());
+    assertEquals(200, host.getGamesPlayed());
+  }
+
+  /**
+   * Test that the host falls back to platform threads when virtual threads are unavailable.
+   */
+  @Test
+  public void testThreadKind() {
+    assertEquals(SessionHost.isVirtualThreadSupported(), host.isVirtual());
+    SessionHost platform = new SessionHost(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BitboardTicTacToe::new,
+        false);
+    assertTrue(!platform.isVirtual());
+    platform.close();
+  }
+
+  /**
+   * Test that the readable reads bytes as ISO-8859-1 and respects the buffer's space.
+   */
+  @Test
+  public void testReadable() throws IOException {
+    SocketReadable in = new SocketReadable(
+        new ByteArrayInputStream(new byte[] {'1', ' ', (byte) 0xE9, '2'}));
+    CharBuffer buffer = CharBuffer.allocate(3);
+    assertEquals(3, in.read(buffer));
+    buffer.flip();
+    assertEquals("1 \u00E9", buffer.toString());
+    buffer.clear();
+    assertEquals(1, in.read(buffer));
+    assertEquals(-1, in.read(buffer));
+  }
+
+  /**
+   * Test that the appendable writes every form of append, including long text.
+   */
+  @Test
+  public void testAppendable() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    SocketAppendable out = new SocketAppendable(bytes);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      text.append((char) ('a' + i % 26));
+    }
+    out.append(text).append('\n').append("abc", 1, 2).append(null);
+    assertEquals(text + "\nbnull", bytes.toString("ISO-8859-1"));
+  }
+
+  /**
+   * Test that the adapters reject null streams.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullStream() {
+    new SocketReadable(null);
+  }
+}
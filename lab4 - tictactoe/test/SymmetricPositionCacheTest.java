@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import tictactoe.BoardSymmetry;
+import tictactoe.MnkTicTacToe;
+import tictactoe.SymmetricPositionCache;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for board symmetry canonicalization and the position cache built on it.
+ */
+public class SymmetricPositionCacheTest {
+
+  /**
+   * Test that all eight orientations of a corner opening share one canonical key, and that it
+   * differs from an edge opening.
+   */
+  @Test
+  public void testCornerOpeningsShareKey() {
+    BoardSymmetry symmetry = new BoardSymmetry(3, 3);
+    assertEquals(8, symmetry.size());
+    long key = symmetry.canonicalKey(game(0, 0));
+    assertEquals(key, symmetry.canonicalKey(game(0, 2)));
+    assertEquals(key, symmetry.canonicalKey(game(2, 0)));
+    assertEquals(key, symmetry.canonicalKey(game(2, 2)));
+    assertNotEquals(key, symmetry.canonicalKey(game(0, 1)));
+  }
+
+  /**
+   * Test that every transform is a permutation that the inverse undoes.
+   */
+  @Test
+  public void testInverse() {
+    BoardSymmetry symmetry = new BoardSymmetry(4, 4);
+    for (int t = 0; t < symmetry.size(); t++) {
+      for (int cell = 0; cell < 16; cell++) {
+        assertEquals(cell, symmetry.invert(t, symmetry.apply(t, cell)));
+      }
+    }
+  }
+
+  /**
+   * Test that a rectangular board only has four symmetries.
+   */
+  @Test
+  public void testRectangularBoard() {
+    BoardSymmetry symmetry = new BoardSymmetry(2, 3);
+    assertEquals(4, symmetry.size());
+    TicTacToe a = new MnkTicTacToe(2, 3, 2);
+    a.move(0, 0);
+    TicTacToe b = new MnkTicTacToe(2, 3, 2);
+    b.move(1, 2);
+    assertEquals(symmetry.canonicalKey(a), symmetry.canonicalKey(b));
+  }
+
+  /**
+   * Test that a value and move stored for one position are found for its mirror image, with the
+   * move mapped onto the mirrored board.
+   */
+  @Test
+  public void testMoveMappedBack() {
+    SymmetricPositionCache cache = new SymmetricPositionCache(3, 3, 8);
+    TicTacToe original = game(0, 0, 1, 1);
+    cache.put(original, -5, 0, 1);
+
+    TicTacToe mirrored = game(0, 2, 1, 1);
+    assertTrue(cache.contains(mirrored));
+    assertEquals(-5, cache.getValue(mirrored));
+    // the position is symmetric about a diagonal, so either image of the move is correct
+    int[] move = cache.getMove(mirrored);
+    assertTrue(move[0] == 0 && move[1] == 1 || move[0] == 1 && move[1] == 2);
+
+    assertArrayEquals(new int[] {0, 1}, cache.getMove(original));
+
+    move = cache.getMove(game(2, 2, 1, 1));
+    assertTrue(move[0] == 2 && move[1] == 1 || move[0] == 1 && move[1] == 2);
+    assertEquals(1, cache.getHits());
+  }
+
+  /**
+   * Test that an unknown position is reported as missing.
+   */
+  @Test(expected = NoSuchElementException.class)
+  public void testMissing() {
+    SymmetricPositionCache cache = new SymmetricPositionCache(3, 3, 8);
+    assertFalse(cache.contains(game(1, 1)));
+    assertEquals(1, cache.getMisses());
+    cache.getValue(game(1, 1));
+  }
+
+  /**
+   * Test that large boards use hashed keys that still agree across symmetries.
+   */
+  @Test
+  public void testLargeBoardHashedKey() {
+    BoardSymmetry symmetry = new BoardSymmetry(15, 15);
+    TicTacToe a = new MnkTicTacToe(15, 15, 5);
+    a.move(0, 3);
+    TicTacToe b = new MnkTicTacToe(15, 15, 5);
+    b.move(3, 14);
+    assertEquals(symmetry.canonicalKey(a), symmetry.canonicalKey(b));
+  }
+
+  private static TicTacToe game(int... moves) {
+    TicTacToe m = new TicTacToeModel();
+    for (int i = 0; i < moves.length; i += 2) {
+      m.move(moves[i], moves[i + 1]);
+    }
+    return m;
+  }
+}
@@ -1,8 +1,11 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.StringReader;
 import java.util.Arrays;
+import java.util.EnumSet;
 import org.junit.Test;
+import tictactoe.Player;
 import tictactoe.TicTacToe;
 import tictactoe.TicTacToeConsoleController;
 import tictactoe.TicTacToeController;
@@ -383,4 +386,51 @@ public class TicTacToeControllerTest {
     StringBuilder gameLog = new StringBuilder();
     TicTacToeController c = new TicTacToeConsoleController(input, gameLog);
   }
+
+  /**
+   * Testing that output is written once per prompt rather than once per message.
+   */
+  @Test
+  public void testOutputFlushedPerPrompt() {
+    CountingAppendable gameLog = new CountingAppendable();
+    StringBuilder expected = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader("2 2 q"), expected)
+        .playGame(new TicTacToeModel());
+    new TicTacToeConsoleController(new StringReader("2 2 q"), gameLog)
+        .playGame(new TicTacToeModel());
+    assertEquals(expected.toString(), gameLog.toString());
+    assertEquals(3, gameLog.getAppends());
+  }
+
+  /**
+   * Testing that quiet mode writes the same output in a single call at the end of the game.
+   */
+  @Test
+  public void testQuietModeWritesOnce() {
+    String moves = "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 3 2";
+    StringBuilder expected = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader(moves), expected)
+        .playGame(new TicTacToeModel());
+    CountingAppendable gameLog = new CountingAppendable();
+    new TicTacToeConsoleController(new StringReader(moves), gameLog, null,
+        EnumSet.noneOf(Player.class), true).playGame(new TicTacToeModel());
+    assertEquals(expected.toString(), gameLog.toString());
+    assertEquals(1, gameLog.getAppends());
+  }
+
+  /**
+   * Testing that u takes back the last move.
+   */
+  @Test
+  public void testUndoCommand() {
+    TicTacToe m = new TicTacToeModel();
+    StringBuilder gameLog = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader("u 2 2 1 1 U 1 3 q"), gameLog).playGame(m);
+    String[] lines = gameLog.toString().split("\n");
+    assertEquals("Nothing to undo.", lines[6]);
+    assertEquals(Player.X, m.getMarkAt(1, 1));
+    assertNull(m.getMarkAt(0, 0));
+    assertEquals(Player.O, m.getMarkAt(0, 2));
+    assertEquals(2, m.getMoveCount());
+  }
 }
@@ -1,5 +1,6 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -7,6 +8,7 @@ import static org.junit.Assert.fail;
 import org.junit.Test;
 import tictactoe.Player;
 import tictactoe.TicTacToe;
+import tictactoe.TicTacToeListener;
 import tictactoe.TicTacToeModel;
 
 /**
@@ -15,7 +17,17 @@ import tictactoe.TicTacToeModel;
  */
 public class TicTacToeModelTest {
 
-  private TicTacToe ttt1 = new TicTacToeModel();
+  private TicTacToe ttt1 = makeModel();
+
+  /**
+   * Create the model under test. Subclasses override this to run the same suite against another
+   * implementation of {@link TicTacToe}.
+   *
+   * @return a new game with an empty board
+   */
+  protected TicTacToe makeModel() {
+    return new TicTacToeModel();
+  }
 
   /**
    * Test the move() method works as expected.
@@ -264,4 +276,206 @@ public class TicTacToeModelTest {
     assertTrue(ttt1.isGameOver());
     assertEquals(Player.O, ttt1.getWinner());
   }
+
+  /**
+   * Test that the hash depends only on the position, not on the order the moves were made in,
+   * and that it changes with every move.
+   */
+  @Test
+  public void testHashTransposition() {
+    TicTacToe other = makeModel();
+    assertEquals(ttt1.getHash(), other.getHash());
+    ttt1.move(0, 0);
+    assertNotEquals(other.getHash(), ttt1.getHash());
+    ttt1.move(1, 1);
+    ttt1.move(2, 2);
+    other.move(2, 2);
+    other.move(1, 1);
+    assertNotEquals(other.getHash(), ttt1.getHash());
+    other.move(0, 0);
+    assertEquals(other.getHash(), ttt1.getHash());
+  }
+
+  /**
+   * Test that forEachCell() visits every cell once, in row order, with the same marks as
+   * getMarkAt().
+   */
+  @Test
+  public void testForEachCell() {
+    diagonalWinHelper();
+    int[] count = {0};
+    ttt1.forEachCell((r, c, mark) -> {
+      assertEquals(count[0] / 3, r);
+      assertEquals(count[0] % 3, c);
+      assertEquals(ttt1.getMarkAt(r, c), mark);
+      count[0]++;
+    });
+    assertEquals(9, count[0]);
+  }
+
+  /**
+   * Test that undoing a winning move restores the position, turn, result, hash and text, and
+   * that redo plays it again.
+   */
+  @Test
+  public void testUndoRedo() {
+    TicTacToe before = makeModel();
+    diagonalWinHelper();
+    for (int i = 0; i < ttt1.getMoveCount() - 1; i++) {
+      int cell = ttt1.getMove(i);
+      before.move(cell / 3, cell % 3);
+    }
+    String won = ttt1.toString();
+    long wonHash = ttt1.getHash();
+
+    ttt1.undo();
+    assertFalse(ttt1.isGameOver());
+    assertNull(ttt1.getWinner());
+    assertEquals(Player.O, ttt1.getTurn());
+    assertNull(ttt1.getMarkAt(0, 2));
+    assertEquals(before.getHash(), ttt1.getHash());
+    assertEquals(before.toString(), ttt1.toString());
+    assertEquals(5, ttt1.getMoveCount());
+
+    ttt1.redo();
+    assertTrue(ttt1.isGameOver());
+    assertEquals(Player.O, ttt1.getWinner());
+    assertEquals(won, ttt1.toString());
+    assertEquals(wonHash, ttt1.getHash());
+  }
+
+  /**
+   * Test that every move can be undone back to the start and redone in order.
+   */
+  @Test
+  public void testUndoToStart() {
+    int[] moves = {4, 0, 8, 2, 1, 7, 3, 5, 6};
+    for (int cell : moves) {
+      ttt1.move(cell / 3, cell % 3);
+    }
+    assertTrue(ttt1.isGameOver());
+    for (int i = 0; i < moves.length; i++) {
+      assertEquals(moves[i], ttt1.getMove(i));
+    }
+    while (ttt1.getMoveCount() > 0) {
+      ttt1.undo();
+    }
+    assertEquals(0, ttt1.getHash());
+    assertEquals(Player.X, ttt1.getTurn());
+    assertEquals(makeModel().toString(), ttt1.toString());
+    for (int i = 0; i < moves.length; i++) {
+      ttt1.redo();
+      assertEquals(moves[i], ttt1.getMove(i));
+    }
+    assertTrue(ttt1.isGameOver());
+  }
+
+  /**
+   * Test that a new move discards the moves that were taken back.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testMoveClearsRedo() {
+    ttt1.move(0, 0);
+    ttt1.move(1, 1);
+    ttt1.undo();
+    ttt1.move(2, 2);
+    assertEquals(8, ttt1.getMove(1));
+    ttt1.redo();
+  }
+
+  /**
+   * Test that there is nothing to undo on a new game.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testUndoEmpty() {
+    ttt1.undo();
+  }
+
+  /**
+   * Test that a move outside the history is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetMoveOutOfRange() {
+    ttt1.move(0, 0);
+    ttt1.undo();
+    ttt1.getMove(0);
+  }
+
+  /**
+   * Test that a listener hears each move, the turn passing and the end of the game.
+   */
+  @Test
+  public void testListenerEvents() {
+    RecordingListener listener = new RecordingListener();
+    ttt1.addListener(listener);
+    ttt1.move(0, 0);
+    ttt1.move(1, 1);
+    ttt1.move(0, 1);
+    ttt1.move(2, 2);
+    ttt1.move(0, 2);
+    assertEquals("placed X 0 0\nturn O\n"
+        + "placed O 1 1\nturn X\n"
+        + "placed X 0 1\nturn O\n"
+        + "placed O 2 2\nturn X\n"
+        + "placed X 0 2\nended X\n", listener.toString());
+  }
+
+  /**
+   * Test that undo and redo are reported as the cells they change.
+   */
+  @Test
+  public void testListenerUndoRedo() {
+    ttt1.move(2, 1);
+    RecordingListener listener = new RecordingListener();
+    ttt1.addListener(listener);
+    ttt1.undo();
+    ttt1.redo();
+    assertEquals("undone X 2 1\nturn X\nplaced X 2 1\nturn O\n", listener.toString());
+  }
+
+  /**
+   * Test that a listener sees the game already changed when it is told of the change.
+   */
+  @Test
+  public void testListenerSeesNewState() {
+    StringBuilder seen = new StringBuilder();
+    ttt1.addListener(new TicTacToeListener() {
+      @Override
+      public void movePlaced(int r, int c, Player player) {
+        seen.append(ttt1.getMarkAt(r, c)).append(ttt1.getMoveCount());
+      }
+
+      @Override
+      public void turnChanged(Player player) {
+        seen.append(ttt1.getTurn() == player);
+      }
+    });
+    ttt1.move(1, 2);
+    assertEquals("X1true", seen.toString());
+  }
+
+  /**
+   * Test that a removed listener hears nothing more, and others still do.
+   */
+  @Test
+  public void testRemoveListener() {
+    RecordingListener removed = new RecordingListener();
+    RecordingListener kept = new RecordingListener();
+    ttt1.addListener(removed);
+    ttt1.addListener(kept);
+    ttt1.move(0, 0);
+    ttt1.removeListener(removed);
+    ttt1.removeListener(new RecordingListener());
+    ttt1.move(1, 0);
+    assertEquals("placed X 0 0\nturn O\n", removed.toString());
+    assertEquals("placed X 0 0\nturn O\nplaced O 1 0\nturn X\n", kept.toString());
+  }
+
+  /**
+   * Test that a null listener is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullListener() {
+    ttt1.addListener(null);
+  }
 }
@@ -0,0 +1,244 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.GameSession;
+import tictactoe.LoadClient;
+import tictactoe.Player;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeServer;
+
+/**
+ * Test cases for the game session protocol and the NIO server, on localhost.
+ */
+public class TicTacToeServerTest {
+  private TicTacToeServer server;
+  private Thread thread;
+
+  @Before
+  public void setUp() {
+    server = new TicTacToeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    thread = new Thread(server, "server");
+    thread.start();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    server.close();
+    thread.join(5000);
+  }
+
+  /**
+   * Return what the console controller writes for the given input.
+   */
+  private static String console(String input) {
+    StringBuilder log = new StringBuilder();
+    try {
+      new TicTacToeConsoleController(new StringReader(input), log)
+          .playGame(new TicTacToeModel());
+    } catch (IllegalStateException e) {
+      // out of input before the game ended
+    }
+    return log.toString();
+  }
+
+  /**
+   * Send input over a socket and return everything received until the server closes it.
+   */
+  private String play(String input) throws IOException {
+    return play(server, input);
+  }
+
+  /**
+   * Send input to the given server and return everything received until it closes the socket.
+   */
+  private static String play(TicTacToeServer target, String input) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), target.getPort())) {
+      socket.setSoTimeout(10_000);
+      OutputStream out = socket.getOutputStream();
+      out.write(input.getBytes(StandardCharsets.ISO_8859_1));
+      out.flush();
+      return readAll(socket.getInputStream());
+    }
+  }
+
+  /**
+   * Read until the server closes the socket.
+   */
+  private static String readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int count;
+    while ((count = in.read(buffer)) >= 0) {
+      received.write(buffer, 0, count);
+    }
+    return received.toString("ISO-8859-1");
+  }
+
+  /**
+   * Test that the server's responses match the console controller's byte for byte.
+   */
+  @Test
+  public void testSameProtocolAsConsole() throws IOException {
+    String[] inputs = {
+        "2 2 q\n",
+        "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 3 2\n",
+        "2 2 2 2 a 1 1 u 4 1 -1 99999999999 1 3 Q\n",
+        "1 1 2 1 1 2 2 2 1 3 q\n",
+    };
+    for (String input : inputs) {
+      assertEquals(console(input), this.play(input));
+    }
+  }
+
+  /**
+   * Test that a session handles tokens split across reads, and ends on a token cut off by the
+   * end of input.
+   */
+  @Test
+  public void testSplitTokens() {
+    String input = "2 2 1 1 3 3 1 2 1 3 2 3 2 1 3 1 q";
+    GameSession session = new GameSession(new BitboardTicTacToe());
+    StringBuilder out = new StringBuilder();
+    session.start(out);
+    byte[] bytes = input.getBytes(StandardCharsets.ISO_8859_1);
+    for (byte b : bytes) {
+      session.receive(ByteBuffer.wrap(new byte[] {b}), out);
+    }
+    session.endOfInput(out);
+    assertTrue(session.isFinished());
+    assertEquals(console(input), out.toString());
+  }
+
+  /**
+   * Test that numbers longer than the kept part of a token, such as those with many leading
+   * zeros, are read as the console controller reads them, including when they overflow.
+   */
+  @Test
+  public void testLongNumbers() {
+    String zeros = "0".repeat(2 * GameSession.MAX_TOKEN);
+    String input = "1 " + zeros + "1 -" + zeros + "2 +" + zeros + "2 2 " + zeros
+        + "99999999999 2 2 q";
+    GameSession session = new GameSession(new BitboardTicTacToe());
+    StringBuilder out = new StringBuilder();
+    session.start(out);
+    session.receive(ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1)), out);
+    session.endOfInput(out);
+    assertEquals(Player.X, session.getModel().getMarkAt(0, 0));
+    // only the overflowing number is echoed, cut to the kept length
+    assertEquals(console(input).replace(zeros + "99999999999",
+        zeros.substring(0, GameSession.MAX_TOKEN)), out.toString());
+  }
+
+  /**
+   * Test that the load client plays every game on many concurrent connections.
+   */
+  @Test
+  public void testLoad() {
+    LoadClient client = new LoadClient(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 50, 4, 1);
+    client.run();
+    assertEquals(200, client.getGames());
+    assertEquals(50, client.getPeakConnections());
+    assertTrue(client.getMoves() >= 5 * 200);
+    assertTrue(client.getLatencyPercentile(99) > 0);
+    assertTrue(client.getLatencyPercentile(50) <= client.getLatencyPercentile(99));
+  }
+
+  /**
+   * Test that the server stops reading from a client that sends but never reads, instead of
+   * buffering ever more responses for it, and keeps serving other clients.
+   */
+  @Test
+  public void testClientThatNeverReads() throws IOException, InterruptedException {
+    AtomicLong written = new AtomicLong();
+    try (Socket socket = new Socket()) {
+      socket.setReceiveBufferSize(4096);
+      socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+      OutputStream out = socket.getOutputStream();
+      byte[] junk = "a ".repeat(4096).getBytes(StandardCharsets.ISO_8859_1);
+      Thread writer = new Thread(() -> {
+        try {
+          while (written.get() < (1L << 30)) {
+            out.write(junk);
+            written.addAndGet(junk.length);
+          }
+        } catch (IOException e) {
+          // closed at the end of the test
+        }
+      });
+      writer.setDaemon(true);
+      writer.start();
+      long deadline = System.currentTimeMillis() + 10000;
+      long last = -1;
+      while (written.get() != last && System.currentTimeMillis() < deadline) {
+        last = written.get();
+        Thread.sleep(500);
+      }
+      assertEquals("the server kept reading", last, written.get());
+      assertTrue(written.get() < (16L << 20));
+      // a server still buffering responses for the client would be busy copying them
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      long cpu = threads.getThreadCpuTime(thread.getId());
+      Thread.sleep(1000);
+      assertTrue(threads.getThreadCpuTime(thread.getId()) - cpu < 100_000_000);
+      String game = "1 1 2 1 1 2 2 2 1 3\n";
+      assertEquals(console(game), play(game));
+    }
+  }
+
+  /**
+   * Test that a connection that cannot be set up is closed on its own, while the games on other
+   * connections go on and new connections are still accepted.
+   */
+  @Test
+  public void testFailedAcceptKeepsOtherConnections() throws IOException, InterruptedException {
+    AtomicInteger connections = new AtomicInteger();
+    TicTacToeServer failing = new TicTacToeServer(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), () -> {
+          if (connections.incrementAndGet() == 2) {
+            throw new IllegalStateException("No game for this connection.");
+          }
+          return new BitboardTicTacToe();
+        });
+    Thread acceptor = new Thread(failing, "failing server");
+    acceptor.start();
+    String game = "1 1 2 1 1 2 2 2 1 3\n";
+    try (Socket first = new Socket(InetAddress.getLoopbackAddress(), failing.getPort())) {
+      first.setSoTimeout(10_000);
+      try {
+        assertEquals("", play(failing, game));
+      } catch (SocketException e) {
+        // closed with the game unread, so the close may arrive as a reset
+      }
+      assertTrue(acceptor.isAlive());
+      OutputStream out = first.getOutputStream();
+      out.write(game.getBytes(StandardCharsets.ISO_8859_1));
+      out.flush();
+      assertEquals(console(game), readAll(first.getInputStream()));
+      assertEquals(console(game), play(failing, game));
+    } finally {
+      failing.close();
+      acceptor.join(5000);
+    }
+  }
+}
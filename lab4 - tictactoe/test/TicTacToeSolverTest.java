@@ -0,0 +1,180 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.EnumSet;
+import org.junit.Test;
+import tictactoe.MnkTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+/**
+ * Test cases for the alpha-beta solver and for the console controller driving players with it.
+ */
+public class TicTacToeSolverTest {
+
+  /**
+   * Test that two perfect players draw the standard game.
+   */
+  @Test
+  public void testSelfPlayIsDraw() {
+    TicTacToe m = new TicTacToeModel();
+    TicTacToeSolver solver = new TicTacToeSolver();
+    while (!m.isGameOver()) {
+      int[] move = solver.bestMove(m);
+      m.move(move[0], move[1]);
+    }
+    assertNull(m.getWinner());
+  }
+
+  /**
+   * Test that the empty board is scored as a draw and that search statistics are reported.
+   */
+  @Test
+  public void testEmptyBoardScore() {
+    TicTacToeSolver solver = new TicTacToeSolver();
+    solver.bestMove(new TicTacToeModel());
+    assertEquals(0, solver.getScore());
+    assertTrue(solver.getNodesSearched() > 0);
+    assertTrue(solver.getElapsedNanos() > 0);
+  }
+
+  /**
+   * Test that moves in the standard game are looked up rather than searched, unless the depth
+   * limit means the search would not be perfect, and that they match the search's choices.
+   */
+  @Test
+  public void testStandardGameLookedUp() {
+    TicTacToeSolver solver = new TicTacToeSolver();
+    TicTacToe m = new MnkTicTacToe(3, 3, 3);
+    assertArrayEquals(new int[] {1, 1}, solver.bestMove(m));
+    assertEquals(1, solver.getNodesSearched());
+    while (!m.isGameOver()) {
+      int[] move = solver.bestMove(m);
+      assertEquals(1, solver.getNodesSearched());
+      m.move(move[0], move[1]);
+    }
+    assertNull(m.getWinner());
+
+    TicTacToeSolver shallow = new TicTacToeSolver(2, 16);
+    shallow.bestMove(new TicTacToeModel());
+    assertTrue(shallow.getNodesSearched() > 1);
+  }
+
+  /**
+   * Test that the solver takes an immediate win rather than blocking.
+   */
+  @Test
+  public void testTakesWin() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(0, 0); // X
+    m.move(1, 0); // O
+    m.move(0, 1); // X
+    m.move(1, 1); // O
+    TicTacToeSolver solver = new TicTacToeSolver();
+    assertArrayEquals(new int[] {0, 2}, solver.bestMove(m));
+    assertTrue(solver.getScore() > 0);
+  }
+
+  /**
+   * Test that the solver blocks an immediate threat.
+   */
+  @Test
+  public void testBlocksThreat() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(0, 0); // X
+    m.move(1, 1); // O
+    m.move(0, 1); // X
+    assertArrayEquals(new int[] {0, 2}, new TicTacToeSolver().bestMove(m));
+  }
+
+  /**
+   * Test that a depth-limited solver finds a winning move on a large board.
+   */
+  @Test
+  public void testDepthLimitedOnLargeBoard() {
+    TicTacToe m = new MnkTicTacToe(15, 15, 5);
+    for (int col = 5; col < 9; col++) {
+      m.move(7, col);
+      m.move(0, col);
+    }
+    int[] move = new TicTacToeSolver(2, 16).bestMove(m);
+    m.move(move[0], move[1]);
+    assertEquals(Player.X, m.getWinner());
+  }
+
+  /**
+   * Test that the parallel search reaches the same verdicts as the serial search.
+   */
+  @Test
+  public void testParallelMatchesSerial() {
+    TicTacToeSolver serial = new TicTacToeSolver(Integer.MAX_VALUE, 18, 1);
+    try (TicTacToeSolver parallel = new TicTacToeSolver(Integer.MAX_VALUE, 18, 4)) {
+      TicTacToe m = new MnkTicTacToe(4, 4, 3);
+      serial.bestMove(m);
+      int[] move = parallel.bestMove(m);
+      assertEquals(serial.getScore(), parallel.getScore());
+      assertTrue(parallel.getScore() > 0);
+      assertTrue(parallel.getNodesSearched() > 0);
+
+      TicTacToe game = new TicTacToeModel();
+      while (!game.isGameOver()) {
+        move = parallel.bestMove(game);
+        game.move(move[0], move[1]);
+      }
+      assertNull(game.getWinner());
+    }
+  }
+
+  /**
+   * Test that the controller plays the engine's moves for O and reports them.
+   */
+  @Test
+  public void testControllerWithEngine() {
+    TicTacToe m = new TicTacToeModel();
+    StringBuilder gameLog = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader("1 1 q"), gameLog, new TicTacToeSolver(),
+        EnumSet.of(Player.O)).playGame(m);
+    assertEquals(Player.O, m.getMarkAt(1, 1));
+    assertTrue(gameLog.toString().contains("O plays 2, 2 ("));
+    assertTrue(gameLog.toString().contains("Game quit!"));
+  }
+
+  /**
+   * Test that taking back a move against the engine also takes back the engine's reply.
+   */
+  @Test
+  public void testControllerUndoAgainstEngine() {
+    TicTacToe m = new TicTacToeModel();
+    new TicTacToeConsoleController(new StringReader("1 1 u 3 3 q"), new StringBuilder(),
+        new TicTacToeSolver(), EnumSet.of(Player.O)).playGame(m);
+    assertNull(m.getMarkAt(0, 0));
+    assertEquals(Player.X, m.getMarkAt(2, 2));
+    assertEquals(2, m.getMoveCount());
+  }
+
+  /**
+   * Test that a game between two engine players runs to completion without input.
+   */
+  @Test
+  public void testControllerEngineVersusEngine() {
+    StringBuilder gameLog = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader(""), gameLog, new TicTacToeSolver(),
+        EnumSet.allOf(Player.class)).playGame(new TicTacToeModel());
+    assertTrue(gameLog.toString().endsWith("Game is over! Tie game."));
+  }
+
+  /**
+   * Test that engine players without an engine are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEnginePlayersWithoutEngine() {
+    new TicTacToeConsoleController(new StringReader(""), new StringBuilder(), null,
+        EnumSet.of(Player.X));
+  }
+}
@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import tictactoe.Tokenizer;
+
+/**
+ * Test cases for the tokenizer that replaces Scanner in the console controller.
+ */
+public class TokenizerTest {
+
+  /**
+   * Test that tokens are split on any run of whitespace.
+   */
+  @Test
+  public void testSplitsOnWhitespace() {
+    Tokenizer t = new Tokenizer(new StringReader("  2\t\n 13  q\r\nabc"));
+    t.next();
+    assertEquals("2", t.toString());
+    t.next();
+    assertEquals(13, t.intValue());
+    t.next();
+    assertTrue(t.equalsIgnoreCase("q"));
+    t.next();
+    assertEquals("abc", t.toString());
+    assertFalse(t.isInt());
+  }
+
+  /**
+   * Test that integers are accepted and rejected exactly as Integer.parseInt does.
+   */
+  @Test
+  public void testMatchesParseInt() {
+    String[] tokens = {"0", "-0", "+7", "-12", "007", "2147483647", "-2147483648",
+        "2147483648", "-2147483649", "99999999999", "+", "-", "1a", "a1", "1.5", "--1",
+        "\u0663", "\uFF11\uFF12"};
+    for (String token : tokens) {
+      Tokenizer t = new Tokenizer(new StringReader(token));
+      t.next();
+      Integer expected;
+      try {
+        expected = Integer.parseInt(token);
+      } catch (NumberFormatException e) {
+        expected = null;
+      }
+      assertEquals(token, expected != null, t.isInt());
+      if (expected != null) {
+        assertEquals(token, (int) expected, t.intValue());
+      }
+    }
+  }
+
+  /**
+   * Test that the quit command matches in either case and only as a whole token.
+   */
+  @Test
+  public void testQuitIgnoresCase() {
+    Tokenizer t = new Tokenizer(new StringReader("Q quit"));
+    t.next();
+    assertTrue(t.equalsIgnoreCase("q"));
+    t.next();
+    assertFalse(t.equalsIgnoreCase("q"));
+  }
+
+  /**
+   * Test that tokens longer than the read buffer are kept whole.
+   */
+  @Test
+  public void testLongTokens() {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      input.append('x');
+    }
+    input.append(" 5");
+    Tokenizer t = new Tokenizer(new StringReader(input.toString()));
+    t.next();
+    assertEquals(3000, t.toString().length());
+    t.next();
+    assertEquals(5, t.intValue());
+  }
+
+  /**
+   * Test that running out of tokens is reported as Scanner does.
+   */
+  @Test(expected = NoSuchElementException.class)
+  public void testEndOfInput() {
+    Tokenizer t = new Tokenizer(new StringReader(" 1 \n "));
+    t.next();
+    t.next();
+  }
+}